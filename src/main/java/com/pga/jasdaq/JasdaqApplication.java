@@ -5,8 +5,10 @@ import com.pga.jasdaq.utils.WebSocketHandler;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class JasdaqApplication {
 
   public static void main(String[] args) {
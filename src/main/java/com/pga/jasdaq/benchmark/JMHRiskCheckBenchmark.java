@@ -0,0 +1,74 @@
+package com.pga.jasdaq.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.pga.jasdaq.engine.PreTradeRiskCheck;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a pre-trade risk check: reserving an order against its client's
+ * limits and releasing it again, so the counters stay below the limits.
+ * The uncontended variant rotates clients and symbols; the contended one has
+ * four threads reserving for the same client. The target is well under a
+ * microsecond per check.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class JMHRiskCheckBenchmark {
+
+    private static final int CLIENTS = 64;
+    private static final String[] SYMBOLS = {"TSLA", "HIND", "RELI", "ADNI"};
+
+    private PreTradeRiskCheck riskCheck;
+    private String[] clientIds;
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private int next;
+    }
+
+    @Setup
+    public void setup() {
+        riskCheck = new PreTradeRiskCheck(true, Long.MAX_VALUE / 2, Long.MAX_VALUE / 2, 1_000_000,
+            Integer.MAX_VALUE, CLIENTS, SYMBOLS.length);
+        clientIds = new String[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            clientIds[i] = "client-" + i;
+        }
+    }
+
+    @Benchmark
+    public int reserveAndRelease(ThreadState state) {
+        int i = state.next++;
+        return checkOrder(clientIds[i & (CLIENTS - 1)], SYMBOLS[i & (SYMBOLS.length - 1)], (i & 1) == 0);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int reserveAndReleaseContended(ThreadState state) {
+        int i = state.next++;
+        return checkOrder(clientIds[0], SYMBOLS[i & (SYMBOLS.length - 1)], (i & 1) == 0);
+    }
+
+    private int checkOrder(String clientId, String symbol, boolean isBuy) {
+        int reservation = riskCheck.reserve(clientId, symbol, isBuy, 100, 105);
+        riskCheck.release(reservation, isBuy, 100, 105);
+        return reservation;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+            .include(JMHRiskCheckBenchmark.class.getSimpleName())
+            .build();
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,102 @@
+package com.pga.jasdaq.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pga.jasdaq.engine.dto.PlaceOrderRequest;
+import com.pga.jasdaq.engine.dto.TradeResponse;
+import com.pga.jasdaq.orderbook.Order;
+import com.pga.jasdaq.orderbook.Trade;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the order API payloads: trades serialized reflectively from
+ * {@link Trade} against the flat {@link TradeResponse} with its hand-written
+ * serializer, and binding the request body to {@link Order} against
+ * {@link PlaceOrderRequest}. main prints the bytes of each payload first.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(value = 1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class JMHSerializationBenchmark {
+
+    private static final String ORDER_JSON =
+        "{\"idNumber\":42,\"isBuy\":true,\"shares\":100,\"limit\":105}";
+    private static final String REQUEST_JSON =
+        "{\"order\":" + ORDER_JSON + ",\"clientHostPort\":\"127.0.0.1:9000\",\"stockSymbol\":\"TSLA\"}";
+
+    @Param({"1", "10", "100"})
+    private int tradeCount;
+
+    private ObjectMapper objectMapper;
+    private List<Trade> trades;
+    private List<TradeResponse> tradeResponses;
+
+    @Setup
+    public void setup() {
+        objectMapper = new ObjectMapper();
+        trades = createTrades(tradeCount);
+        tradeResponses = new ArrayList<>(trades.size());
+        for (Trade trade : trades) {
+            tradeResponses.add(TradeResponse.of(trade));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeTradesReflective() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(trades);
+    }
+
+    @Benchmark
+    public byte[] serializeTradeResponses() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(tradeResponses);
+    }
+
+    @Benchmark
+    public Object bindOrder() throws JsonProcessingException {
+        return objectMapper.readValue(ORDER_JSON, Order.class);
+    }
+
+    @Benchmark
+    public Object bindPlaceOrderRequest() throws JsonProcessingException {
+        return objectMapper.readValue(REQUEST_JSON, PlaceOrderRequest.class).order().toOrder();
+    }
+
+    private static List<Trade> createTrades(int count) {
+        Random random = new Random(42);
+        List<Trade> trades = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            trades.add(new Trade(random.nextInt(1_000_000), random.nextInt(1_000_000),
+                1 + random.nextInt(1000), 90 + random.nextInt(20), 1_700_000_000_000L + i));
+        }
+        return trades;
+    }
+
+    public static void main(String[] args) throws RunnerException, JsonProcessingException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        for (int count : new int[] {1, 10, 100}) {
+            List<Trade> trades = createTrades(count);
+            List<TradeResponse> tradeResponses = trades.stream().map(TradeResponse::of).toList();
+            System.out.printf("%d trades: reflective %d bytes, flat %d bytes%n", count,
+                objectMapper.writeValueAsBytes(trades).length,
+                objectMapper.writeValueAsBytes(tradeResponses).length);
+        }
+
+        Options opt = new OptionsBuilder()
+            .include(JMHSerializationBenchmark.class.getSimpleName())
+            .build();
+        new Runner(opt).run();
+    }
+}
@@ -1,7 +1,8 @@
 package com.pga.jasdaq.benchmark;
 
 import com.pga.jasdaq.engine.ClientRequestHandler;
-import com.pga.jasdaq.orderbook.Order;
+import com.pga.jasdaq.engine.dto.OrderTicket;
+import com.pga.jasdaq.engine.dto.PlaceOrderRequest;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -78,7 +79,7 @@ public class NetworkLatencySimulator {
         
         for (int i = 0; i < requests; i++) {
             // Create random order
-            Order order = new Order(
+            OrderTicket order = new OrderTicket(
                 nextOrderId++, 
                 random.nextBoolean(), 
                 100 + random.nextInt(900),
@@ -86,10 +87,7 @@ public class NetworkLatencySimulator {
             );
             
             // Create request
-            ClientRequestHandler.OrderRequest request = new ClientRequestHandler.OrderRequest();
-            request.setOrder(order);
-            request.setClientHostPort(clientId);
-            request.setStockSymbol("TSLA"); // Using TSLA as default symbol
+            PlaceOrderRequest request = new PlaceOrderRequest(order, clientId, "TSLA"); // Using TSLA as default symbol
             
             // Simulate network latency
             simulateNetworkLatency();
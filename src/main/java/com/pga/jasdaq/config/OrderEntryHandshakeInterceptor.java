@@ -0,0 +1,78 @@
+package com.pga.jasdaq.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Authenticates order entry sessions during the WebSocket handshake.
+ *
+ * Clients present an API key as a bearer token or, since browsers cannot set
+ * headers on a WebSocket handshake, as the {@code token} query parameter. The
+ * client ID mapped to the key is stored in the session attributes under
+ * {@link #CLIENT_ID_ATTRIBUTE}.
+ */
+@Component
+public class OrderEntryHandshakeInterceptor implements HandshakeInterceptor {
+
+    public static final String CLIENT_ID_ATTRIBUTE = "clientId";
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderEntryHandshakeInterceptor.class);
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    // API key to client ID
+    private final Map<String, String> clientsByKey = new HashMap<>();
+
+    public OrderEntryHandshakeInterceptor(@Value("${jasdaq.order-entry.api-keys:}") String apiKeys) {
+        for (String entry : apiKeys.split(",")) {
+            String trimmed = entry.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int separator = trimmed.indexOf(':');
+            if (separator <= 0 || separator == trimmed.length() - 1) {
+                throw new IllegalArgumentException("Expected <key>:<clientId> in jasdaq.order-entry.api-keys: " + trimmed);
+            }
+            clientsByKey.put(trimmed.substring(0, separator), trimmed.substring(separator + 1));
+        }
+        if (clientsByKey.isEmpty()) {
+            logger.warn("No jasdaq.order-entry.api-keys configured; /ws/orders rejects every session");
+        }
+    }
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        String clientId = clientsByKey.get(apiKey(request));
+        if (clientId == null) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+        attributes.put(CLIENT_ID_ATTRIBUTE, clientId);
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {
+    }
+
+    private static String apiKey(ServerHttpRequest request) {
+        String authorization = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authorization != null && authorization.startsWith(BEARER_PREFIX)) {
+            return authorization.substring(BEARER_PREFIX.length()).trim();
+        }
+        return UriComponentsBuilder.fromUri(request.getURI()).build().getQueryParams().getFirst("token");
+    }
+}
@@ -1,5 +1,6 @@
 package com.pga.jasdaq.config;
 
+import com.pga.jasdaq.engine.OrderEntryWebSocketHandler;
 import com.pga.jasdaq.utils.WebSocketHandler;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.socket.config.annotation.EnableWebSocket;
@@ -11,14 +12,22 @@ import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry
 public class WebSocketConfig implements WebSocketConfigurer {
 
     private final WebSocketHandler webSocketHandler;
+    private final OrderEntryWebSocketHandler orderEntryHandler;
+    private final OrderEntryHandshakeInterceptor orderEntryInterceptor;
 
-    public WebSocketConfig(WebSocketHandler webSocketHandler) {
+    public WebSocketConfig(WebSocketHandler webSocketHandler, OrderEntryWebSocketHandler orderEntryHandler,
+                           OrderEntryHandshakeInterceptor orderEntryInterceptor) {
         this.webSocketHandler = webSocketHandler;
+        this.orderEntryHandler = orderEntryHandler;
+        this.orderEntryInterceptor = orderEntryInterceptor;
     }
 
     @Override
     public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
         registry.addHandler(webSocketHandler, "/ws/live")
                 .setAllowedOrigins("*"); // Adjust origins for production
+        registry.addHandler(orderEntryHandler, "/ws/orders")
+                .addInterceptors(orderEntryInterceptor)
+                .setAllowedOrigins("*");
     }
 }
\ No newline at end of file
@@ -0,0 +1,118 @@
+package com.pga.jasdaq.db.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Binds the route of {@link UseDataSource} methods and caps how many of them
+ * run at once per route. Callers past the limit wait up to the queue timeout
+ * for a slot and are then rejected with {@link DataSourceBusyException}, so
+ * an overloaded route fails fast instead of piling up on its pool. With
+ * virtual request threads this is what bounds database concurrency, since
+ * the web layer no longer does.
+ *
+ * Ordered ahead of the transaction interceptor so the route is bound before
+ * a transaction acquires its connection.
+ *
+ * A call that hands work to background threads can {@link #detachSlot()
+ * detach} its slot, which then stays taken until that work releases it.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class DataSourceBulkhead {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataSourceBulkhead.class);
+
+    // Slot taken by the outermost routed call on this thread
+    private static final ThreadLocal<Slot> CURRENT_SLOT = new ThreadLocal<>();
+
+    private final Map<DataSourceRoute, Semaphore> permits = new EnumMap<>(DataSourceRoute.class);
+    private final Map<DataSourceRoute, Long> queueTimeoutsMs = new EnumMap<>(DataSourceRoute.class);
+
+    public DataSourceBulkhead(
+            @Value("${jasdaq.datasource.write.max-concurrent-calls:10}") int writeCalls,
+            @Value("${jasdaq.datasource.write.queue-timeout-ms:1000}") long writeTimeoutMs,
+            @Value("${jasdaq.datasource.analytics.max-concurrent-calls:4}") int analyticsCalls,
+            @Value("${jasdaq.datasource.analytics.queue-timeout-ms:500}") long analyticsTimeoutMs,
+            @Value("${jasdaq.datasource.bulk.max-concurrent-calls:1}") int bulkCalls,
+            @Value("${jasdaq.datasource.bulk.queue-timeout-ms:0}") long bulkTimeoutMs) {
+        permits.put(DataSourceRoute.WRITE, new Semaphore(writeCalls, true));
+        queueTimeoutsMs.put(DataSourceRoute.WRITE, writeTimeoutMs);
+        permits.put(DataSourceRoute.ANALYTICS, new Semaphore(analyticsCalls, true));
+        queueTimeoutsMs.put(DataSourceRoute.ANALYTICS, analyticsTimeoutMs);
+        permits.put(DataSourceRoute.BULK, new Semaphore(bulkCalls, true));
+        queueTimeoutsMs.put(DataSourceRoute.BULK, bulkTimeoutMs);
+    }
+
+    @Around("@annotation(useDataSource)")
+    public Object route(ProceedingJoinPoint joinPoint, UseDataSource useDataSource) throws Throwable {
+        DataSourceRoute route = useDataSource.value();
+        // Nested calls on the same route already hold a slot
+        Semaphore semaphore = route == RoutingDataSource.boundRoute() ? null : permits.get(route);
+        if (semaphore != null) {
+            long timeoutMs = queueTimeoutsMs.get(route);
+            if (!semaphore.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+                logger.warn("Rejected {} on the {} route: bulkhead full", joinPoint.getSignature().toShortString(), route);
+                throw new DataSourceBusyException(route, timeoutMs);
+            }
+        }
+
+        Slot previousSlot = CURRENT_SLOT.get();
+        Slot slot = semaphore != null ? new Slot(semaphore) : previousSlot;
+        CURRENT_SLOT.set(slot);
+        DataSourceRoute previous = RoutingDataSource.bind(route);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            RoutingDataSource.restore(previous);
+            CURRENT_SLOT.set(previousSlot);
+            if (semaphore != null && !slot.detached) {
+                slot.release();
+            }
+        }
+    }
+
+    /**
+     * Keeps the slot of the routed call running on this thread taken after the
+     * call returns. The returned action frees it; running it more than once
+     * has no further effect. Outside a routed call the action does nothing.
+     */
+    public static Runnable detachSlot() {
+        Slot slot = CURRENT_SLOT.get();
+        if (slot == null) {
+            return () -> { };
+        }
+        slot.detached = true;
+        return slot::release;
+    }
+
+    private static class Slot {
+        private final Semaphore semaphore;
+        private final AtomicBoolean released = new AtomicBoolean();
+        private volatile boolean detached;
+
+        private Slot(Semaphore semaphore) {
+            this.semaphore = semaphore;
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                semaphore.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.pga.jasdaq.db.config;
+
+/**
+ * Thrown when a bulkhead has no free slot within its queue timeout.
+ */
+public class DataSourceBusyException extends RuntimeException {
+
+    private final DataSourceRoute route;
+
+    public DataSourceBusyException(DataSourceRoute route, long waitedMs) {
+        super("Too many concurrent " + route.name().toLowerCase() + " calls, gave up after " + waitedMs + " ms");
+        this.route = route;
+    }
+
+    public DataSourceRoute getRoute() {
+        return route;
+    }
+}
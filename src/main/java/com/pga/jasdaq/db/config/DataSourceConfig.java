@@ -0,0 +1,59 @@
+package com.pga.jasdaq.db.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Separate, independently sized connection pools for live trade writes,
+ * analytics reads and bulk jobs, so a benchmark or dataset generation cannot
+ * take the connections the matching engine persists trades with.
+ *
+ * All pools use spring.datasource.* for credentials. The write and bulk pools
+ * connect to spring.datasource.url; the analytics pool connects to
+ * jasdaq.datasource.analytics.url when set, e.g. a read replica.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean(destroyMethod = "close")
+    public RoutingDataSource routingDataSource(
+            DataSourceProperties properties,
+            @Value("${jasdaq.datasource.write.pool-size:10}") int writePoolSize,
+            @Value("${jasdaq.datasource.analytics.url:}") String analyticsUrl,
+            @Value("${jasdaq.datasource.analytics.pool-size:4}") int analyticsPoolSize,
+            @Value("${jasdaq.datasource.bulk.pool-size:8}") int bulkPoolSize) {
+        String primaryUrl = properties.determineUrl();
+        Map<DataSourceRoute, HikariDataSource> pools = new EnumMap<>(DataSourceRoute.class);
+        pools.put(DataSourceRoute.WRITE, pool(properties, "jasdaq-write", primaryUrl, writePoolSize));
+        pools.put(DataSourceRoute.ANALYTICS, pool(properties, "jasdaq-analytics",
+            analyticsUrl.isBlank() ? primaryUrl : analyticsUrl, analyticsPoolSize));
+        pools.put(DataSourceRoute.BULK, pool(properties, "jasdaq-bulk", primaryUrl, bulkPoolSize));
+        return new RoutingDataSource(pools);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(RoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    private static HikariDataSource pool(DataSourceProperties properties, String name, String url, int size) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName(name);
+        pool.setJdbcUrl(url);
+        pool.setUsername(properties.determineUsername());
+        pool.setPassword(properties.determinePassword());
+        pool.setMaximumPoolSize(size);
+        pool.setMinimumIdle(Math.min(2, size));
+        return pool;
+    }
+}
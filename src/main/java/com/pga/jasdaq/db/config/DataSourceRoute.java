@@ -0,0 +1,13 @@
+package com.pga.jasdaq.db.config;
+
+/**
+ * The connection pools trade persistence and analytics are routed between.
+ */
+public enum DataSourceRoute {
+    /** Live trade persistence from the matching engine; the default route. */
+    WRITE,
+    /** Read-only analytics, optionally against a replica. */
+    ANALYTICS,
+    /** Generation, bulk ingest, benchmarks and maintenance on the primary. */
+    BULK
+}
@@ -1,8 +1,13 @@
 package com.pga.jasdaq.db.config;
 
+import com.pga.jasdaq.db.repository.CompactTradeRepository;
+import com.pga.jasdaq.db.repository.SymbolDictionary;
+import com.pga.jasdaq.db.service.TradeBarRollup;
+import com.pga.jasdaq.db.service.TradeOutboxRelay;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
@@ -12,10 +17,25 @@ public class DatabaseInitializer implements CommandLineRunner {
 
     private static final Logger logger = LoggerFactory.getLogger(DatabaseInitializer.class);
     private final JdbcTemplate jdbcTemplate;
+    private final TradePartitionManager partitionManager;
+    private final CompactTradeRepository compactTradeRepository;
+    private final SymbolDictionary symbolDictionary;
+    private final TradeBarRollup barRollup;
+    private final TradeOutboxRelay outboxRelay;
+    private final boolean compactStorage;
 
     @Autowired
-    public DatabaseInitializer(JdbcTemplate jdbcTemplate) {
+    public DatabaseInitializer(JdbcTemplate jdbcTemplate, TradePartitionManager partitionManager,
+                               CompactTradeRepository compactTradeRepository, SymbolDictionary symbolDictionary,
+                               TradeBarRollup barRollup, TradeOutboxRelay outboxRelay,
+                               @Value("${jasdaq.storage.layout:standard}") String storageLayout) {
         this.jdbcTemplate = jdbcTemplate;
+        this.partitionManager = partitionManager;
+        this.compactTradeRepository = compactTradeRepository;
+        this.symbolDictionary = symbolDictionary;
+        this.barRollup = barRollup;
+        this.outboxRelay = outboxRelay;
+        this.compactStorage = "compact".equalsIgnoreCase(storageLayout);
     }
 
     @Override
@@ -34,6 +54,31 @@ public class DatabaseInitializer implements CommandLineRunner {
             ")"
         );
         
+        // Keyset history pages seek on (symbol, timestamp, id)
+        Integer historyIndex = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM INFORMATION_SCHEMA.STATISTICS " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'trades' AND INDEX_NAME = 'idx_symbol_ts_id'",
+            Integer.class);
+        if (historyIndex == null || historyIndex == 0) {
+            jdbcTemplate.execute("CREATE INDEX idx_symbol_ts_id ON trades(symbol, timestamp, id)");
+        }
+        
+        // Partition by timestamp and roll partitions forward
+        partitionManager.initialize();
+        
+        if (compactStorage) {
+            // Compact layout tables, and the symbol ids cached before the first read
+            compactTradeRepository.createSchema();
+            symbolDictionary.allSymbols();
+        }
+        
+        if (barRollup.isEnabled()) {
+            barRollup.createSchema();
+        }
+        
+        // Watermark of relayed outbox trades, committed with each relayed batch
+        outboxRelay.initialize();
+        
         logger.info("Database initialized successfully");
     }
 }
\ No newline at end of file
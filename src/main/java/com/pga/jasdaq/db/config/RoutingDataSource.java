@@ -0,0 +1,110 @@
+package com.pga.jasdaq.db.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Picks the connection pool from the route bound to the current thread.
+ *
+ * The route is read when a connection is acquired, so this is wrapped in a
+ * lazy connection proxy: a transaction started under a route only takes a
+ * connection at its first statement, from the pool of that route.
+ */
+public class RoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private static final ThreadLocal<DataSourceRoute> CURRENT_ROUTE = new ThreadLocal<>();
+
+    private final Map<DataSourceRoute, HikariDataSource> pools;
+
+    public RoutingDataSource(Map<DataSourceRoute, HikariDataSource> pools) {
+        this.pools = new EnumMap<>(pools);
+        setTargetDataSources(new HashMap<>(pools));
+        setDefaultTargetDataSource(pools.get(DataSourceRoute.WRITE));
+    }
+
+    public static DataSourceRoute currentRoute() {
+        DataSourceRoute route = CURRENT_ROUTE.get();
+        return route != null ? route : DataSourceRoute.WRITE;
+    }
+
+    /**
+     * The route bound to the current thread, or null if none is, unlike
+     * {@link #currentRoute()} which falls back to WRITE.
+     */
+    public static DataSourceRoute boundRoute() {
+        return CURRENT_ROUTE.get();
+    }
+
+    /**
+     * Bind a route to the current thread.
+     *
+     * @return The previous binding, to be passed to {@link #restore}.
+     */
+    public static DataSourceRoute bind(DataSourceRoute route) {
+        DataSourceRoute previous = CURRENT_ROUTE.get();
+        CURRENT_ROUTE.set(route);
+        return previous;
+    }
+
+    public static void restore(DataSourceRoute previous) {
+        if (previous == null) {
+            CURRENT_ROUTE.remove();
+        } else {
+            CURRENT_ROUTE.set(previous);
+        }
+    }
+
+    /**
+     * Wrap a task so it runs on the caller's route when handed to another thread.
+     */
+    public static Runnable propagate(Runnable task) {
+        DataSourceRoute route = currentRoute();
+        return () -> {
+            DataSourceRoute previous = bind(route);
+            try {
+                task.run();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return currentRoute();
+    }
+
+    public int getMaximumPoolSize(DataSourceRoute route) {
+        return pools.get(route).getMaximumPoolSize();
+    }
+
+    /**
+     * Active, idle and waiting connections of every pool.
+     */
+    public Map<String, Object> poolStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        pools.forEach((route, pool) -> {
+            Map<String, Object> poolStats = new LinkedHashMap<>();
+            poolStats.put("maximumPoolSize", pool.getMaximumPoolSize());
+            HikariPoolMXBean bean = pool.getHikariPoolMXBean();
+            if (bean != null) {
+                poolStats.put("active", bean.getActiveConnections());
+                poolStats.put("idle", bean.getIdleConnections());
+                poolStats.put("waiting", bean.getThreadsAwaitingConnection());
+            }
+            stats.put(route.name().toLowerCase(), poolStats);
+        });
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        pools.values().forEach(HikariDataSource::close);
+    }
+}
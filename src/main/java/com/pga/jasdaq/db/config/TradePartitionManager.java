@@ -0,0 +1,256 @@
+package com.pga.jasdaq.db.config;
+
+import com.pga.jasdaq.db.service.RecentTradesCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the trades table range-partitioned on timestamp.
+ *
+ * Partitions cover a fixed number of days each, aligned to the epoch. The
+ * first partition (p_start) holds everything older than the oldest daily
+ * range and pmax catches anything past the newest one. A scheduled job adds
+ * partitions ahead of time by splitting pmax, which is empty and therefore
+ * cheap to reorganize, and drops partitions past the retention period, which
+ * only touches metadata compared to a DELETE.
+ *
+ * MySQL requires the partitioning column in every unique key, so the primary
+ * key becomes (id, timestamp). Range predicates such as
+ * {@code timestamp >= :cutoff} on the bare column let the optimizer prune
+ * partitions outside the range.
+ */
+@Component
+public class TradePartitionManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(TradePartitionManager.class);
+    private static final String FIRST_PARTITION = "p_start";
+    private static final String MAX_PARTITION = "pmax";
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final DateTimeFormatter BOUND_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RecentTradesCache recentTradesCache;
+    private final boolean enabled;
+    private final int intervalDays;
+    private final int futurePartitions;
+    private final int retentionDays;
+
+    public TradePartitionManager(JdbcTemplate jdbcTemplate, RecentTradesCache recentTradesCache,
+                                 @Value("${jasdaq.partitions.enabled:true}") boolean enabled,
+                                 @Value("${jasdaq.partitions.interval-days:1}") int intervalDays,
+                                 @Value("${jasdaq.partitions.future-partitions:3}") int futurePartitions,
+                                 @Value("${jasdaq.partitions.retention-days:0}") int retentionDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.recentTradesCache = recentTradesCache;
+        this.enabled = enabled;
+        this.intervalDays = intervalDays;
+        this.futurePartitions = futurePartitions;
+        this.retentionDays = retentionDays;
+    }
+
+    /**
+     * Partition the trades table if it is not partitioned yet, then add and
+     * drop partitions as needed.
+     */
+    public synchronized void initialize() {
+        if (!enabled) {
+            return;
+        }
+        if (!isPartitioned()) {
+            partitionExistingTable();
+        }
+        maintain();
+    }
+
+    /**
+     * Add partitions ahead of time and drop expired ones.
+     */
+    @Scheduled(cron = "${jasdaq.partitions.maintenance-cron:0 5 0 * * *}")
+    public synchronized void maintain() {
+        if (!enabled || !isPartitioned()) {
+            return;
+        }
+        addFuturePartitions();
+        dropExpiredPartitions();
+    }
+
+    /**
+     * Split the oldest partition so that trades from the given time onwards
+     * get ranges of their own, e.g. before loading a historical dataset.
+     * Cheapest right after the table was truncated.
+     */
+    public synchronized void coverFrom(LocalDateTime from) {
+        if (!enabled || !isPartitioned()) {
+            return;
+        }
+        List<Partition> partitions = partitions();
+        Partition first = partitions.get(0);
+        LocalDate start = alignDown(max(from.toLocalDate(), retentionFloor()));
+        if (first.upperBound == null || !start.isBefore(first.upperBound)) {
+            return;
+        }
+
+        StringBuilder sql = new StringBuilder("ALTER TABLE trades REORGANIZE PARTITION ")
+            .append(first.name).append(" INTO (").append(definition(FIRST_PARTITION, start));
+        for (LocalDate lower = start; lower.isBefore(first.upperBound); lower = lower.plusDays(intervalDays)) {
+            sql.append(", ").append(definition(nameOf(lower), lower.plusDays(intervalDays)));
+        }
+        sql.append(")");
+        jdbcTemplate.execute(sql.toString());
+        logger.info("Split partition {} to cover trades from {}", first.name, start);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isPartitioned() {
+        Integer count = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM INFORMATION_SCHEMA.PARTITIONS " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'trades' AND PARTITION_NAME IS NOT NULL",
+            Integer.class);
+        return count != null && count > 0;
+    }
+
+    /**
+     * The current partitions with their exclusive upper bound and estimated row count.
+     */
+    public List<Map<String, Object>> describePartitions() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Partition partition : partitions()) {
+            Map<String, Object> description = new HashMap<>();
+            description.put("name", partition.name);
+            description.put("lessThan", partition.upperBound == null ? "MAXVALUE" : partition.upperBound.toString());
+            description.put("rows", partition.rows);
+            result.add(description);
+        }
+        return result;
+    }
+
+    private void partitionExistingTable() {
+        LocalDateTime oldest = jdbcTemplate.queryForObject("SELECT MIN(timestamp) FROM trades", LocalDateTime.class);
+        LocalDate today = LocalDate.now();
+        LocalDate start = alignDown(max(oldest == null ? today : oldest.toLocalDate(), retentionFloor()));
+        LocalDate end = alignDown(today).plusDays((long) futurePartitions * intervalDays);
+
+        StringBuilder sql = new StringBuilder("ALTER TABLE trades PARTITION BY RANGE COLUMNS(timestamp) (")
+            .append(definition(FIRST_PARTITION, start));
+        for (LocalDate lower = start; !lower.isAfter(end); lower = lower.plusDays(intervalDays)) {
+            sql.append(", ").append(definition(nameOf(lower), lower.plusDays(intervalDays)));
+        }
+        sql.append(", PARTITION ").append(MAX_PARTITION).append(" VALUES LESS THAN (MAXVALUE))");
+
+        long startTime = System.nanoTime();
+        jdbcTemplate.execute("ALTER TABLE trades DROP PRIMARY KEY, ADD PRIMARY KEY (id, timestamp)");
+        jdbcTemplate.execute(sql.toString());
+        logger.info("Partitioned trades table by {} day(s) from {} in {} ms",
+            intervalDays, start, (System.nanoTime() - startTime) / 1_000_000);
+    }
+
+    private void addFuturePartitions() {
+        List<Partition> partitions = partitions();
+        Partition last = partitions.get(partitions.size() - 1);
+        if (!MAX_PARTITION.equals(last.name) || partitions.size() < 2) {
+            logger.warn("Unexpected partition layout, not adding partitions");
+            return;
+        }
+
+        LocalDate lower = partitions.get(partitions.size() - 2).upperBound;
+        LocalDate target = alignDown(LocalDate.now()).plusDays((long) (futurePartitions + 1) * intervalDays);
+        if (!lower.isBefore(target)) {
+            return;
+        }
+
+        StringBuilder sql = new StringBuilder("ALTER TABLE trades REORGANIZE PARTITION ")
+            .append(MAX_PARTITION).append(" INTO (");
+        int added = 0;
+        for (; lower.isBefore(target); lower = lower.plusDays(intervalDays)) {
+            sql.append(definition(nameOf(lower), lower.plusDays(intervalDays))).append(", ");
+            added++;
+        }
+        sql.append("PARTITION ").append(MAX_PARTITION).append(" VALUES LESS THAN (MAXVALUE))");
+        jdbcTemplate.execute(sql.toString());
+        logger.info("Added {} trade partition(s) up to {}", added, target);
+    }
+
+    private void dropExpiredPartitions() {
+        if (retentionDays <= 0) {
+            return;
+        }
+        LocalDate cutoff = retentionFloor();
+        List<String> expired = new ArrayList<>();
+        for (Partition partition : partitions()) {
+            if (partition.upperBound != null && !partition.upperBound.isAfter(cutoff)) {
+                expired.add(partition.name);
+            }
+        }
+        if (expired.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.execute("ALTER TABLE trades DROP PARTITION " + String.join(", ", expired));
+        // Cached rings may still hold trades that no longer exist
+        recentTradesCache.invalidateAll();
+        logger.info("Dropped {} expired trade partition(s) before {}: {}", expired.size(), cutoff, expired);
+    }
+
+    private List<Partition> partitions() {
+        return jdbcTemplate.query(
+            "SELECT PARTITION_NAME, PARTITION_DESCRIPTION, TABLE_ROWS FROM INFORMATION_SCHEMA.PARTITIONS " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'trades' AND PARTITION_NAME IS NOT NULL " +
+            "ORDER BY PARTITION_ORDINAL_POSITION",
+            (rs, rowNum) -> new Partition(rs.getString(1), parseBound(rs.getString(2)), rs.getLong(3)));
+    }
+
+    // RANGE COLUMNS bounds are reported as quoted literals, e.g. '2024-01-02 00:00:00'
+    private static LocalDate parseBound(String description) {
+        if (description == null || "MAXVALUE".equalsIgnoreCase(description)) {
+            return null;
+        }
+        return LocalDateTime.parse(description.replace("'", ""), BOUND_FORMAT).toLocalDate();
+    }
+
+    private static String definition(String name, LocalDate upperBound) {
+        return "PARTITION " + name + " VALUES LESS THAN ('" + upperBound.atStartOfDay().format(BOUND_FORMAT) + "')";
+    }
+
+    private static String nameOf(LocalDate lowerBound) {
+        return "p" + lowerBound.format(NAME_FORMAT);
+    }
+
+    private LocalDate alignDown(LocalDate date) {
+        return LocalDate.ofEpochDay(Math.floorDiv(date.toEpochDay(), intervalDays) * intervalDays);
+    }
+
+    private LocalDate retentionFloor() {
+        return retentionDays > 0 ? LocalDate.now().minusDays(retentionDays) : LocalDate.MIN;
+    }
+
+    private static LocalDate max(LocalDate a, LocalDate b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static class Partition {
+        private final String name;
+        private final LocalDate upperBound; // Exclusive; null for MAXVALUE
+        private final long rows;
+
+        private Partition(String name, LocalDate upperBound, long rows) {
+            this.name = name;
+            this.upperBound = upperBound;
+            this.rows = rows;
+        }
+    }
+}
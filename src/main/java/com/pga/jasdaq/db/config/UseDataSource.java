@@ -0,0 +1,17 @@
+package com.pga.jasdaq.db.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs a bean method against the pool of the given route, behind that route's
+ * bulkhead. Unannotated methods use {@link DataSourceRoute#WRITE}. Calls from
+ * inside the same bean bypass the proxy and keep the caller's route.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface UseDataSource {
+    DataSourceRoute value();
+}
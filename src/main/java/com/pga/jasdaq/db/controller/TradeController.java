@@ -1,12 +1,27 @@
 package com.pga.jasdaq.db.controller;
 
-import com.pga.jasdaq.db.entity.TradeEntity;
+import com.pga.jasdaq.db.config.DataSourceBusyException;
+import com.pga.jasdaq.db.entity.TradeColumns;
+import com.pga.jasdaq.db.entity.TradeView;
+import com.pga.jasdaq.db.service.DbBenchmarkHarness;
+import com.pga.jasdaq.db.service.ExportFormat;
+import com.pga.jasdaq.db.service.IndexStrategy;
+import com.pga.jasdaq.db.service.IngestMode;
+import com.pga.jasdaq.db.service.TradeHistoryCursor;
+import com.pga.jasdaq.db.service.TradeGenerationRunningException;
 import com.pga.jasdaq.db.service.TradeService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -14,6 +29,9 @@ import java.util.Map;
 @RequestMapping("/api/trades/db")
 public class TradeController {
 
+    private static final int MAX_HISTORY_PAGE = 1000;
+    private static final int MAX_COLUMN_ROWS = 100_000;
+
     private final TradeService tradeService;
 
     @Autowired
@@ -22,12 +40,47 @@ public class TradeController {
     }
 
     @GetMapping("/last/{symbol}")
-    public ResponseEntity<List<TradeEntity>> getLastTrades(
+    public ResponseEntity<List<TradeView>> getLastTrades(
             @PathVariable String symbol,
             @RequestParam(defaultValue = "10") int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count must not be negative");
+        }
         return ResponseEntity.ok(tradeService.getLastTrades(symbol, count));
     }
 
+    /**
+     * The newest trades of a symbol as parallel arrays (ids, price ticks,
+     * volumes, epoch-microsecond timestamps, sides).
+     */
+    @GetMapping("/last/{symbol}/columns")
+    public ResponseEntity<TradeColumns> getLastTradeColumns(
+            @PathVariable String symbol,
+            @RequestParam(defaultValue = "1000") int count) {
+        return ResponseEntity.ok(tradeService.getLatestTradeColumns(symbol, Math.max(0, Math.min(count, MAX_COLUMN_ROWS))));
+    }
+
+    /**
+     * Trade history of a symbol, newest first. Pass the returned nextCursor,
+     * or the timestamp and id of the last trade seen, to get the next page.
+     */
+    @GetMapping("/history/{symbol}")
+    public ResponseEntity<Map<String, Object>> getTradeHistory(
+            @PathVariable String symbol,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeTimestamp,
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(defaultValue = "50") int limit) {
+        TradeHistoryCursor before = null;
+        if (cursor != null) {
+            before = TradeHistoryCursor.decode(cursor);
+        } else if (beforeTimestamp != null && beforeId != null) {
+            before = new TradeHistoryCursor(symbol, beforeTimestamp, beforeId);
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_HISTORY_PAGE));
+        return ResponseEntity.ok(tradeService.getTradeHistory(symbol, before, pageSize));
+    }
+
     @GetMapping("/average/{symbol}")
     public ResponseEntity<BigDecimal> getAveragePrice(
             @PathVariable String symbol,
@@ -58,15 +111,36 @@ public class TradeController {
 
     @PostMapping("/generate")
     public ResponseEntity<Map<String, Object>> generateTrades(
-            @RequestParam(defaultValue = "100000") int count) {
-        return ResponseEntity.ok(tradeService.generateBulkTrades(count));
+            @RequestParam(defaultValue = "100000") int count,
+            @RequestParam(defaultValue = "batch") String mode) {
+        return ResponseEntity.ok(tradeService.generateBulkTrades(count, IngestMode.fromLabel(mode)));
+    }
+
+    @PostMapping("/generate/parallel")
+    public ResponseEntity<Map<String, Object>> generateTradesInParallel(
+            @RequestParam(defaultValue = "10000000") long count,
+            @RequestParam(defaultValue = "8") int threads,
+            @RequestParam(defaultValue = "42") long seed,
+            @RequestParam(defaultValue = "100") int symbols,
+            @RequestParam(defaultValue = "1.0") double zipfExponent,
+            @RequestParam(defaultValue = "30") int days,
+            @RequestParam(defaultValue = "0.001") double volatility,
+            @RequestParam(defaultValue = "batch") String mode) {
+        return ResponseEntity.ok(tradeService.generateParallelTrades(
+            count, threads, seed, symbols, zipfExponent, days, volatility, IngestMode.fromLabel(mode)));
+    }
+
+    @GetMapping("/generate/progress")
+    public ResponseEntity<Map<String, Object>> getGenerationProgress() {
+        return ResponseEntity.ok(tradeService.getGenerationProgress());
     }
 
     @PostMapping("/batch-insert")
     public ResponseEntity<Map<String, Object>> insertBatchTrades(
             @RequestParam(defaultValue = "5000") int count,
-            @RequestParam(defaultValue = "TSLA") String symbol) {
-        return ResponseEntity.ok(tradeService.insertBatchTrades(count, symbol));
+            @RequestParam(defaultValue = "TSLA") String symbol,
+            @RequestParam(defaultValue = "batch") String mode) {
+        return ResponseEntity.ok(tradeService.insertBatchTrades(count, symbol, IngestMode.fromLabel(mode)));
     }
 
     @PostMapping("/reset")
@@ -105,10 +179,117 @@ public class TradeController {
             tradeCount, symbol, lastTradesCount, timeWindowMinutes, batchSize, topSymbolsCount));
     }
 
+    @PostMapping("/benchmark/ingest")
+    public ResponseEntity<Map<String, Object>> runIngestBenchmark(
+            @RequestParam(defaultValue = "100000") int count,
+            @RequestParam(defaultValue = "TSLA") String symbol) {
+        return ResponseEntity.ok(tradeService.runIngestBenchmark(count, symbol));
+    }
+
+    @PostMapping("/benchmark/harness")
+    public ResponseEntity<Map<String, Object>> runBenchmarkHarness(
+            @RequestParam(defaultValue = "TSLA") String symbol,
+            @RequestParam(defaultValue = "60") int timeWindowMinutes,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(defaultValue = "100") int warmupIterations,
+            @RequestParam(defaultValue = "500") int iterations,
+            @RequestParam(defaultValue = "4") int readerThreads,
+            @RequestParam(defaultValue = "1000") int insertRowsPerSecond,
+            @RequestParam(defaultValue = "none,symbol,timestamp,symbol-timestamp,covering,partitioned") List<String> strategies,
+            @RequestParam(defaultValue = "1000000") long maxRows) {
+        List<IndexStrategy> indexStrategies = strategies.stream().map(IndexStrategy::fromLabel).toList();
+        return ResponseEntity.ok(tradeService.runBenchmarkHarness(new DbBenchmarkHarness.Spec(
+            symbol, timeWindowMinutes, limit, warmupIterations, iterations, readerThreads,
+            insertRowsPerSecond, indexStrategies, maxRows)));
+    }
+
+    @PostMapping("/benchmark/projections")
+    public ResponseEntity<Map<String, Object>> runProjectionBenchmark(
+            @RequestParam(defaultValue = "TSLA") String symbol,
+            @RequestParam(defaultValue = "10000") int rows,
+            @RequestParam(defaultValue = "50") int iterations) {
+        return ResponseEntity.ok(tradeService.runProjectionBenchmark(symbol, rows, iterations));
+    }
+
+    @GetMapping("/partitions")
+    public ResponseEntity<List<Map<String, Object>>> getPartitions() {
+        return ResponseEntity.ok(tradeService.getPartitions());
+    }
+
+    @PostMapping("/benchmark/partitions")
+    public ResponseEntity<Map<String, Object>> runPartitionBenchmark(
+            @RequestParam(defaultValue = "TSLA") String symbol,
+            @RequestParam(defaultValue = "60") int timeWindowMinutes,
+            @RequestParam(defaultValue = "5") int iterations) {
+        return ResponseEntity.ok(tradeService.runPartitionBenchmark(symbol, timeWindowMinutes, iterations));
+    }
+
+    @PostMapping("/bars/backfill")
+    public ResponseEntity<Map<String, Object>> backfillTradeBars() {
+        return ResponseEntity.ok(tradeService.backfillTradeBars());
+    }
+
+    @PostMapping("/storage/migrate")
+    public ResponseEntity<Map<String, Object>> migrateToCompactStorage(
+            @RequestParam(defaultValue = "10000") int chunkSize) {
+        return ResponseEntity.ok(tradeService.migrateToCompactStorage(chunkSize));
+    }
+
+    @GetMapping("/storage")
+    public ResponseEntity<Map<String, Object>> getStorageStats() {
+        return ResponseEntity.ok(tradeService.getStorageStats());
+    }
+
+    /**
+     * Stream trades as NDJSON or CSV. The range defaults to today so far.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTrades(
+            @RequestParam(required = false) String symbol,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        ExportFormat exportFormat = ExportFormat.fromLabel(format);
+        LocalDateTime rangeFrom = from != null ? from : LocalDate.now().atStartOfDay();
+        LocalDateTime rangeTo = to != null ? to : LocalDateTime.now();
+        StreamingResponseBody body = out -> tradeService.exportTrades(exportFormat, symbol, rangeFrom, rangeTo, out);
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"trades." + exportFormat.getLabel() + "\"")
+            .body(body);
+    }
+
+    @GetMapping("/pools")
+    public ResponseEntity<Map<String, Object>> getPoolStats() {
+        return ResponseEntity.ok(tradeService.getPoolStats());
+    }
+
+    @GetMapping("/outbox")
+    public ResponseEntity<Map<String, Object>> getOutboxStatus() {
+        return ResponseEntity.ok(tradeService.getOutboxStatus());
+    }
+
     @GetMapping("/symbol-only/{symbol}")
-    public ResponseEntity<List<TradeEntity>> getTradesBySymbolOnly(
+    public ResponseEntity<List<TradeView>> getTradesBySymbolOnly(
             @PathVariable String symbol,
             @RequestParam(defaultValue = "100") int count) {
         return ResponseEntity.ok(tradeService.getTradesBySymbolOnly(symbol, count));
     }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, Object>> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage())));
+    }
+
+    @ExceptionHandler(TradeGenerationRunningException.class)
+    public ResponseEntity<Map<String, Object>> handleGenerationRunning(TradeGenerationRunningException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+    }
+
+    @ExceptionHandler(DataSourceBusyException.class)
+    public ResponseEntity<Map<String, Object>> handleBusy(DataSourceBusyException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header("Retry-After", "1")
+            .body(Map.of("error", e.getMessage(), "route", e.getRoute().name()));
+    }
 }
\ No newline at end of file
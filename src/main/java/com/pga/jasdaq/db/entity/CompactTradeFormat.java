@@ -0,0 +1,51 @@
+package com.pga.jasdaq.db.entity;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Conversions between {@link TradeEntity} fields and the compact trade row
+ * layout: BIGINT price in ticks of 0.01, BIGINT epoch microseconds, TINYINT
+ * side and a SMALLINT symbol id.
+ *
+ * Timestamps are zone-less like the DATETIME column; UTC is only used as a
+ * fixed reference so that converting back yields the same LocalDateTime.
+ */
+public final class CompactTradeFormat {
+
+    public static final int PRICE_SCALE = 2; // One tick is 0.01, same as DECIMAL(10, 2)
+    public static final byte SIDE_BUY = 0;
+    public static final byte SIDE_SELL = 1;
+
+    private CompactTradeFormat() {
+    }
+
+    public static long toTicks(BigDecimal price) {
+        return price.setScale(PRICE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal fromTicks(long ticks) {
+        return BigDecimal.valueOf(ticks, PRICE_SCALE);
+    }
+
+    public static long toEpochMicros(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + timestamp.getNano() / 1_000;
+    }
+
+    public static LocalDateTime fromEpochMicros(long epochMicros) {
+        return LocalDateTime.ofEpochSecond(
+            Math.floorDiv(epochMicros, 1_000_000L),
+            (int) Math.floorMod(epochMicros, 1_000_000L) * 1_000,
+            ZoneOffset.UTC);
+    }
+
+    public static byte toSide(String orderType) {
+        return "BUY".equals(orderType) ? SIDE_BUY : SIDE_SELL;
+    }
+
+    public static String fromSide(byte side) {
+        return side == SIDE_BUY ? "BUY" : "SELL";
+    }
+}
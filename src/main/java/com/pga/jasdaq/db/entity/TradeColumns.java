@@ -0,0 +1,63 @@
+package com.pga.jasdaq.db.entity;
+
+/**
+ * Trades of one symbol as parallel primitive columns, newest first: one
+ * object and five arrays per result instead of an object graph per row.
+ * Prices are in ticks of 0.01 and timestamps in epoch microseconds, as in
+ * {@link CompactTradeFormat}.
+ */
+public final class TradeColumns {
+
+    private final String symbol;
+    private final long[] ids;
+    private final long[] priceTicks;
+    private final int[] volumes;
+    private final long[] timestampsMicros;
+    private final byte[] sides;
+
+    public TradeColumns(String symbol, long[] ids, long[] priceTicks, int[] volumes, long[] timestampsMicros,
+                        byte[] sides) {
+        this.symbol = symbol;
+        this.ids = ids;
+        this.priceTicks = priceTicks;
+        this.volumes = volumes;
+        this.timestampsMicros = timestampsMicros;
+        this.sides = sides;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public int getSize() {
+        return ids.length;
+    }
+
+    public long[] getIds() {
+        return ids;
+    }
+
+    public long[] getPriceTicks() {
+        return priceTicks;
+    }
+
+    public int[] getVolumes() {
+        return volumes;
+    }
+
+    public long[] getTimestampsMicros() {
+        return timestampsMicros;
+    }
+
+    /**
+     * Sides as {@link CompactTradeFormat} side codes. Widened to int because
+     * Jackson writes a byte[] as a Base64 string rather than an array.
+     */
+    public int[] getSides() {
+        int[] codes = new int[sides.length];
+        for (int i = 0; i < sides.length; i++) {
+            codes[i] = sides[i];
+        }
+        return codes;
+    }
+}
@@ -0,0 +1,69 @@
+package com.pga.jasdaq.db.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Immutable, unmanaged read-side copy of a trade. Serializes to the same JSON
+ * as {@link TradeEntity}, but is mapped straight from a JDBC row, so reads
+ * skip the persistence context and its snapshots.
+ */
+public final class TradeView {
+
+    private final long id;
+    private final String symbol;
+    private final BigDecimal price;
+    private final int volume;
+    private final LocalDateTime timestamp;
+    private final String orderType;
+
+    public TradeView(long id, String symbol, BigDecimal price, int volume, LocalDateTime timestamp, String orderType) {
+        this.id = id;
+        this.symbol = symbol;
+        this.price = price;
+        this.volume = volume;
+        this.timestamp = timestamp;
+        this.orderType = orderType;
+    }
+
+    public static TradeView of(TradeEntity entity) {
+        return new TradeView(entity.getId(), entity.getSymbol(), entity.getPrice(), entity.getVolume(),
+            entity.getTimestamp(), entity.getOrderType());
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public int getVolume() {
+        return volume;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public String getOrderType() {
+        return orderType;
+    }
+
+    @Override
+    public String toString() {
+        return "TradeView{" +
+                "id=" + id +
+                ", symbol='" + symbol + '\'' +
+                ", price=" + price +
+                ", volume=" + volume +
+                ", timestamp=" + timestamp +
+                ", orderType='" + orderType + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,268 @@
+package com.pga.jasdaq.db.repository;
+
+import com.pga.jasdaq.db.entity.CompactTradeFormat;
+import com.pga.jasdaq.db.entity.TradeColumns;
+import com.pga.jasdaq.db.entity.TradeEntity;
+import com.pga.jasdaq.db.entity.TradeView;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Trades stored in the compact layout (trades_compact): integer price ticks,
+ * epoch-microsecond timestamps, a TINYINT side and a SMALLINT symbol id
+ * against the symbols table. Trades are saved from {@link TradeEntity} and
+ * read back as {@link TradeView} or {@link TradeColumns}, so callers and REST
+ * responses see the same objects as with the standard layout.
+ */
+@Repository
+public class CompactTradeRepository {
+
+    private static final String COLUMNS = "id, symbol_id, price_ticks, volume, ts_micros, side";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SymbolDictionary symbolDictionary;
+    private final RowMapper<TradeView> tradeMapper;
+
+    public CompactTradeRepository(JdbcTemplate jdbcTemplate, SymbolDictionary symbolDictionary) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.symbolDictionary = symbolDictionary;
+        this.tradeMapper = (rs, rowNum) -> new TradeView(
+            rs.getLong(1),
+            symbolDictionary.nameOf(rs.getShort(2)),
+            CompactTradeFormat.fromTicks(rs.getLong(3)),
+            rs.getInt(4),
+            CompactTradeFormat.fromEpochMicros(rs.getLong(5)),
+            CompactTradeFormat.fromSide(rs.getByte(6)));
+    }
+
+    /**
+     * Receives per-second aggregates of trades. Prices are in ticks.
+     */
+    @FunctionalInterface
+    public interface SecondAggregateHandler {
+        void accept(String symbol, long epochSecond, long count, long sumTicks, long sumVolume,
+                    long minTicks, long maxTicks);
+    }
+
+    public void createSchema() {
+        symbolDictionary.createSchema();
+        jdbcTemplate.execute(
+            "CREATE TABLE IF NOT EXISTS trades_compact (" +
+            "  id BIGINT PRIMARY KEY AUTO_INCREMENT," +
+            "  symbol_id SMALLINT NOT NULL," +
+            "  price_ticks BIGINT NOT NULL," +
+            "  volume INT NOT NULL," +
+            "  ts_micros BIGINT NOT NULL," +
+            "  side TINYINT NOT NULL," +
+            "  INDEX idx_compact_symbol_ts (symbol_id, ts_micros)" +
+            ")"
+        );
+    }
+
+    /**
+     * Insert a trade and assign its generated id.
+     */
+    public TradeEntity save(TradeEntity trade) {
+        short symbolId = symbolDictionary.idOf(trade.getSymbol());
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO trades_compact (symbol_id, price_ticks, volume, ts_micros, side) VALUES (?, ?, ?, ?, ?)",
+                Statement.RETURN_GENERATED_KEYS);
+            statement.setShort(1, symbolId);
+            statement.setLong(2, CompactTradeFormat.toTicks(trade.getPrice()));
+            statement.setInt(3, trade.getVolume());
+            statement.setLong(4, CompactTradeFormat.toEpochMicros(trade.getTimestamp()));
+            statement.setByte(5, CompactTradeFormat.toSide(trade.getOrderType()));
+            return statement;
+        }, keyHolder);
+        trade.setId(keyHolder.getKey().longValue());
+        return trade;
+    }
+
+    /**
+     * Insert trades in one batch and assign their generated ids.
+     */
+    public void saveAll(List<TradeEntity> trades) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+            connection -> connection.prepareStatement(
+                "INSERT INTO trades_compact (symbol_id, price_ticks, volume, ts_micros, side) VALUES (?, ?, ?, ?, ?)",
+                Statement.RETURN_GENERATED_KEYS),
+            new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement statement, int i) throws SQLException {
+                    TradeEntity trade = trades.get(i);
+                    statement.setShort(1, symbolDictionary.idOf(trade.getSymbol()));
+                    statement.setLong(2, CompactTradeFormat.toTicks(trade.getPrice()));
+                    statement.setInt(3, trade.getVolume());
+                    statement.setLong(4, CompactTradeFormat.toEpochMicros(trade.getTimestamp()));
+                    statement.setByte(5, CompactTradeFormat.toSide(trade.getOrderType()));
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return trades.size();
+                }
+            },
+            keyHolder);
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < trades.size(); i++) {
+            trades.get(i).setId(((Number) keys.get(i).values().iterator().next()).longValue());
+        }
+    }
+
+    /**
+     * The newest trades of a symbol, newest first by (timestamp, id).
+     */
+    public List<TradeView> findLatest(String symbol, int limit) {
+        Short symbolId = symbolDictionary.findId(symbol);
+        if (symbolId == null) {
+            return new ArrayList<>();
+        }
+        return jdbcTemplate.query(
+            "SELECT " + COLUMNS + " FROM trades_compact WHERE symbol_id = ? " +
+            "ORDER BY ts_micros DESC, id DESC LIMIT ?",
+            tradeMapper, symbolId, limit);
+    }
+
+    /**
+     * Keyset page of trades strictly older than the given (timestamp, id) position.
+     */
+    public List<TradeView> findBefore(String symbol, LocalDateTime beforeTimestamp, long beforeId, int limit) {
+        Short symbolId = symbolDictionary.findId(symbol);
+        if (symbolId == null) {
+            return new ArrayList<>();
+        }
+        long beforeMicros = CompactTradeFormat.toEpochMicros(beforeTimestamp);
+        return jdbcTemplate.query(
+            "SELECT " + COLUMNS + " FROM trades_compact WHERE symbol_id = ? " +
+            "AND (ts_micros < ? OR (ts_micros = ? AND id < ?)) " +
+            "ORDER BY ts_micros DESC, id DESC LIMIT ?",
+            tradeMapper, symbolId, beforeMicros, beforeMicros, beforeId, limit);
+    }
+
+    /**
+     * The newest trades of a symbol as primitive columns, newest first.
+     */
+    public TradeColumns findLatestColumns(String symbol, int limit) {
+        Short symbolId = symbolDictionary.findId(symbol);
+        int capacity = symbolId == null ? 0 : limit;
+        long[] ids = new long[capacity];
+        long[] priceTicks = new long[capacity];
+        int[] volumes = new int[capacity];
+        long[] timestampsMicros = new long[capacity];
+        byte[] sides = new byte[capacity];
+        int[] size = {0};
+        if (symbolId != null) {
+            jdbcTemplate.query(
+                "SELECT id, price_ticks, volume, ts_micros, side FROM trades_compact WHERE symbol_id = ? " +
+                "ORDER BY ts_micros DESC, id DESC LIMIT ?",
+                rs -> {
+                    int row = size[0]++;
+                    ids[row] = rs.getLong(1);
+                    priceTicks[row] = rs.getLong(2);
+                    volumes[row] = rs.getInt(3);
+                    timestampsMicros[row] = rs.getLong(4);
+                    sides[row] = rs.getByte(5);
+                },
+                symbolId, limit);
+        }
+        int n = size[0];
+        return new TradeColumns(symbol, Arrays.copyOf(ids, n), Arrays.copyOf(priceTicks, n),
+            Arrays.copyOf(volumes, n), Arrays.copyOf(timestampsMicros, n), Arrays.copyOf(sides, n));
+    }
+
+    /**
+     * Average price since the cutoff, or null if there were no trades.
+     */
+    public BigDecimal averagePrice(String symbol, LocalDateTime cutoffTime) {
+        Short symbolId = symbolDictionary.findId(symbol);
+        if (symbolId == null) {
+            return null;
+        }
+        return jdbcTemplate.queryForObject(
+            "SELECT SUM(price_ticks), COUNT(*) FROM trades_compact WHERE symbol_id = ? AND ts_micros >= ?",
+            (rs, rowNum) -> {
+                long count = rs.getLong(2);
+                if (count == 0) {
+                    return null;
+                }
+                return CompactTradeFormat.fromTicks(rs.getLong(1))
+                    .divide(BigDecimal.valueOf(count), CompactTradeFormat.PRICE_SCALE, RoundingMode.HALF_UP);
+            },
+            symbolId, CompactTradeFormat.toEpochMicros(cutoffTime));
+    }
+
+    public long countTrades(String symbol, LocalDateTime cutoffTime) {
+        Short symbolId = symbolDictionary.findId(symbol);
+        if (symbolId == null) {
+            return 0;
+        }
+        Long count = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM trades_compact WHERE symbol_id = ? AND ts_micros >= ?",
+            Long.class, symbolId, CompactTradeFormat.toEpochMicros(cutoffTime));
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Minimum and maximum price since the cutoff; both null if there were no trades.
+     */
+    public BigDecimal[] minMaxPrice(String symbol, LocalDateTime cutoffTime) {
+        Short symbolId = symbolDictionary.findId(symbol);
+        if (symbolId == null) {
+            return new BigDecimal[2];
+        }
+        return jdbcTemplate.queryForObject(
+            "SELECT MIN(price_ticks), MAX(price_ticks) FROM trades_compact WHERE symbol_id = ? AND ts_micros >= ?",
+            (rs, rowNum) -> {
+                long min = rs.getLong(1);
+                if (rs.wasNull()) {
+                    return new BigDecimal[2];
+                }
+                return new BigDecimal[] {CompactTradeFormat.fromTicks(min), CompactTradeFormat.fromTicks(rs.getLong(2))};
+            },
+            symbolId, CompactTradeFormat.toEpochMicros(cutoffTime));
+    }
+
+    /**
+     * Symbols with the highest traded volume since the cutoff, as [symbol, totalVolume] rows.
+     */
+    public List<Object[]> topSymbolsByVolume(LocalDateTime cutoffTime, int limit) {
+        return jdbcTemplate.query(
+            "SELECT symbol_id, SUM(volume) AS total_volume FROM trades_compact WHERE ts_micros >= ? " +
+            "GROUP BY symbol_id ORDER BY total_volume DESC LIMIT ?",
+            (rs, rowNum) -> new Object[] {symbolDictionary.nameOf(rs.getShort(1)), rs.getLong(2)},
+            CompactTradeFormat.toEpochMicros(cutoffTime), limit);
+    }
+
+    /**
+     * Stream per-symbol, per-second aggregates of the trades since the cutoff.
+     */
+    public void aggregatePerSecond(LocalDateTime cutoffTime, SecondAggregateHandler handler) {
+        jdbcTemplate.query(
+            "SELECT symbol_id, ts_micros DIV 1000000 AS epoch_second, COUNT(*), SUM(price_ticks), SUM(volume), " +
+            "MIN(price_ticks), MAX(price_ticks) FROM trades_compact WHERE ts_micros >= ? " +
+            "GROUP BY symbol_id, epoch_second",
+            rs -> {
+                handler.accept(symbolDictionary.nameOf(rs.getShort(1)), rs.getLong(2), rs.getLong(3),
+                    rs.getLong(4), rs.getLong(5), rs.getLong(6), rs.getLong(7));
+            },
+            CompactTradeFormat.toEpochMicros(cutoffTime));
+    }
+}
@@ -0,0 +1,89 @@
+package com.pga.jasdaq.db.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Symbol dimension of the compact trade layout. Maps symbols to the SMALLINT
+ * ids stored in trades_compact and back, cached in memory since the set of
+ * symbols is small and rarely changes.
+ */
+@Repository
+public class SymbolDictionary {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<String, Short> ids = new ConcurrentHashMap<>();
+    private final Map<Short, String> names = new ConcurrentHashMap<>();
+
+    public SymbolDictionary(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void createSchema() {
+        jdbcTemplate.execute(
+            "CREATE TABLE IF NOT EXISTS symbols (" +
+            "  id SMALLINT PRIMARY KEY AUTO_INCREMENT," +
+            "  symbol VARCHAR(10) NOT NULL UNIQUE" +
+            ")"
+        );
+    }
+
+    /**
+     * Id of a symbol, registering it on first use.
+     */
+    public short idOf(String symbol) {
+        Short id = findId(symbol);
+        if (id != null) {
+            return id;
+        }
+        // INSERT IGNORE keeps concurrent registrations of the same symbol safe
+        jdbcTemplate.update("INSERT IGNORE INTO symbols (symbol) VALUES (?)", symbol);
+        id = jdbcTemplate.queryForObject("SELECT id FROM symbols WHERE symbol = ?", Short.class, symbol);
+        cache(symbol, id);
+        return id;
+    }
+
+    /**
+     * Id of a known symbol, or null if it has never been stored.
+     */
+    public Short findId(String symbol) {
+        Short id = ids.get(symbol);
+        if (id == null) {
+            List<Short> found = jdbcTemplate.queryForList("SELECT id FROM symbols WHERE symbol = ?", Short.class, symbol);
+            if (found.isEmpty()) {
+                return null;
+            }
+            id = found.get(0);
+            cache(symbol, id);
+        }
+        return id;
+    }
+
+    public String nameOf(short id) {
+        String name = names.get(id);
+        if (name == null) {
+            name = jdbcTemplate.queryForObject("SELECT symbol FROM symbols WHERE id = ?", String.class, id);
+            cache(name, id);
+        }
+        return name;
+    }
+
+    public List<String> allSymbols() {
+        List<String> symbols = new ArrayList<>();
+        jdbcTemplate.query("SELECT id, symbol FROM symbols", rs -> {
+            cache(rs.getString(2), rs.getShort(1));
+            symbols.add(rs.getString(2));
+        });
+        return symbols;
+    }
+
+    private void cache(String symbol, short id) {
+        ids.put(symbol, id);
+        names.put(id, symbol);
+    }
+}
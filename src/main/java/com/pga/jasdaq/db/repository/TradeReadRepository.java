@@ -0,0 +1,93 @@
+package com.pga.jasdaq.db.repository;
+
+import com.pga.jasdaq.db.entity.CompactTradeFormat;
+import com.pga.jasdaq.db.entity.TradeColumns;
+import com.pga.jasdaq.db.entity.TradeView;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Read-side queries on the standard trades table, mapped by column index into
+ * {@link TradeView} or {@link TradeColumns}. Unlike {@link TradeRepository}
+ * there is no entity hydration, persistence context or dirty-checking
+ * snapshot, and SQL logging of the JPA layer does not apply.
+ */
+@Repository
+public class TradeReadRepository {
+
+    private static final String COLUMNS = "id, symbol, price, volume, timestamp, order_type";
+    private static final RowMapper<TradeView> TRADE_VIEW_MAPPER = (rs, rowNum) -> new TradeView(
+        rs.getLong(1),
+        rs.getString(2),
+        rs.getBigDecimal(3),
+        rs.getInt(4),
+        rs.getObject(5, LocalDateTime.class),
+        rs.getString(6));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TradeReadRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * The newest trades of a symbol, newest first by (timestamp, id).
+     */
+    public List<TradeView> findLatest(String symbol, int limit) {
+        return jdbcTemplate.query(
+            "SELECT " + COLUMNS + " FROM trades WHERE symbol = ? ORDER BY timestamp DESC, id DESC LIMIT ?",
+            TRADE_VIEW_MAPPER, symbol, limit);
+    }
+
+    /**
+     * Keyset page of trades strictly older than the given (timestamp, id) position.
+     */
+    public List<TradeView> findBefore(String symbol, LocalDateTime beforeTimestamp, long beforeId, int limit) {
+        return jdbcTemplate.query(
+            "SELECT " + COLUMNS + " FROM trades WHERE symbol = ? " +
+            "AND (timestamp < ? OR (timestamp = ? AND id < ?)) " +
+            "ORDER BY timestamp DESC, id DESC LIMIT ?",
+            TRADE_VIEW_MAPPER, symbol, beforeTimestamp, beforeTimestamp, beforeId, limit);
+    }
+
+    /**
+     * Trades of a symbol in no particular order.
+     */
+    public List<TradeView> findBySymbolOnly(String symbol, int limit) {
+        return jdbcTemplate.query(
+            "SELECT " + COLUMNS + " FROM trades WHERE symbol = ? LIMIT ?",
+            TRADE_VIEW_MAPPER, symbol, limit);
+    }
+
+    /**
+     * The newest trades of a symbol as primitive columns, newest first.
+     */
+    public TradeColumns findLatestColumns(String symbol, int limit) {
+        long[] ids = new long[limit];
+        long[] priceTicks = new long[limit];
+        int[] volumes = new int[limit];
+        long[] timestampsMicros = new long[limit];
+        byte[] sides = new byte[limit];
+        int[] size = {0};
+        jdbcTemplate.query(
+            "SELECT id, price, volume, timestamp, order_type FROM trades WHERE symbol = ? " +
+            "ORDER BY timestamp DESC, id DESC LIMIT ?",
+            rs -> {
+                int row = size[0]++;
+                ids[row] = rs.getLong(1);
+                priceTicks[row] = CompactTradeFormat.toTicks(rs.getBigDecimal(2));
+                volumes[row] = rs.getInt(3);
+                timestampsMicros[row] = CompactTradeFormat.toEpochMicros(rs.getObject(4, LocalDateTime.class));
+                sides[row] = CompactTradeFormat.toSide(rs.getString(5));
+            },
+            symbol, limit);
+        int n = size[0];
+        return new TradeColumns(symbol, Arrays.copyOf(ids, n), Arrays.copyOf(priceTicks, n),
+            Arrays.copyOf(volumes, n), Arrays.copyOf(timestampsMicros, n), Arrays.copyOf(sides, n));
+    }
+}
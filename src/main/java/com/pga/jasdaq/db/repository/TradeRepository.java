@@ -22,6 +22,35 @@ public interface TradeRepository extends JpaRepository<TradeEntity, Long> {
      * @return List of trades
      */
     List<TradeEntity> findBySymbolOrderByTimestampDesc(String symbol, Pageable pageable);
+
+    /**
+     * Find the last N trades for a specific symbol, newest first with the id as tie-breaker,
+     * so that the result can be continued with {@link #findBySymbolBefore}.
+     *
+     * @param symbol The stock symbol
+     * @param pageable Pagination parameters
+     * @return List of trades
+     */
+    List<TradeEntity> findBySymbolOrderByTimestampDescIdDesc(String symbol, Pageable pageable);
+
+    /**
+     * Keyset page of trades strictly older than the given (timestamp, id) position,
+     * newest first. Seeks on the index instead of skipping rows with OFFSET.
+     *
+     * @param symbol The stock symbol
+     * @param beforeTimestamp Timestamp of the last trade already returned
+     * @param beforeId Id of the last trade already returned
+     * @param pageable Pagination parameters (page 0, page size = limit)
+     * @return List of trades
+     */
+    @Query("SELECT t FROM TradeEntity t WHERE t.symbol = :symbol " +
+           "AND (t.timestamp < :beforeTimestamp OR (t.timestamp = :beforeTimestamp AND t.id < :beforeId)) " +
+           "ORDER BY t.timestamp DESC, t.id DESC")
+    List<TradeEntity> findBySymbolBefore(
+            @Param("symbol") String symbol,
+            @Param("beforeTimestamp") LocalDateTime beforeTimestamp,
+            @Param("beforeId") Long beforeId,
+            Pageable pageable);
     
     /**
      * Calculate the average price for a symbol within a specific time range.
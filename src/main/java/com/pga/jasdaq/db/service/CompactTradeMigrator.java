@@ -0,0 +1,157 @@
+package com.pga.jasdaq.db.service;
+
+import com.pga.jasdaq.db.entity.CompactTradeFormat;
+import com.pga.jasdaq.db.repository.CompactTradeRepository;
+import com.pga.jasdaq.db.repository.SymbolDictionary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Copies trades from the standard table into the compact layout.
+ *
+ * Rows are read in id order in keyset chunks and inserted with their original
+ * ids, so trade ids seen by clients stay the same. The highest source id
+ * copied is kept as a watermark in trades_compact_migration, committed with
+ * each chunk, so an interrupted migration resumes where it stopped.
+ *
+ * Trades written live to the compact table take ids of their own, which could
+ * collide with the source ids still to be copied, so a migration is refused
+ * once trades_compact holds rows beyond the watermark.
+ */
+@Component
+public class CompactTradeMigrator {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompactTradeMigrator.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CompactTradeRepository compactTradeRepository;
+    private final SymbolDictionary symbolDictionary;
+    private final TransactionTemplate transactionTemplate;
+
+    public CompactTradeMigrator(JdbcTemplate jdbcTemplate, CompactTradeRepository compactTradeRepository,
+                                SymbolDictionary symbolDictionary, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.compactTradeRepository = compactTradeRepository;
+        this.symbolDictionary = symbolDictionary;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Create the compact table and the migration watermark if they are missing.
+     */
+    public void createSchema() {
+        compactTradeRepository.createSchema();
+        jdbcTemplate.execute(
+            "CREATE TABLE IF NOT EXISTS trades_compact_migration (" +
+            "  id TINYINT PRIMARY KEY," +
+            "  last_source_id BIGINT NOT NULL" +
+            ")"
+        );
+    }
+
+    /**
+     * Empty the compact table and forget the watermark, for when the source
+     * table is truncated and its ids start over.
+     */
+    public synchronized void reset() {
+        createSchema();
+        jdbcTemplate.execute("TRUNCATE TABLE trades_compact");
+        jdbcTemplate.execute("TRUNCATE TABLE trades_compact_migration");
+    }
+
+    /**
+     * Copy every trade not yet in trades_compact.
+     *
+     * @param chunkSize Rows read and inserted per round trip
+     * @return Rows copied, throughput and the size of both tables
+     */
+    public synchronized Map<String, Object> migrate(int chunkSize) {
+        createSchema();
+        long startTime = System.nanoTime();
+
+        Long watermark = jdbcTemplate.queryForObject(
+            "SELECT COALESCE(MAX(last_source_id), 0) FROM trades_compact_migration", Long.class);
+        long lastId = watermark != null ? watermark : 0;
+        Boolean pending = jdbcTemplate.queryForObject(
+            "SELECT EXISTS (SELECT 1 FROM trades WHERE id > ?)", Boolean.class, lastId);
+        Boolean liveRows = jdbcTemplate.queryForObject(
+            "SELECT EXISTS (SELECT 1 FROM trades_compact WHERE id > ?)", Boolean.class, lastId);
+        if (Boolean.TRUE.equals(pending) && Boolean.TRUE.equals(liveRows)) {
+            throw new IllegalStateException(
+                "trades_compact has trades that were not migrated; reset the tables before migrating");
+        }
+        long copied = 0;
+        while (true) {
+            List<Object[]> rows = new ArrayList<>(chunkSize);
+            jdbcTemplate.query(
+                "SELECT id, symbol, price, volume, timestamp, order_type FROM trades WHERE id > ? ORDER BY id LIMIT ?",
+                rs -> {
+                    rows.add(new Object[] {
+                        rs.getLong(1),
+                        symbolDictionary.idOf(rs.getString(2)),
+                        CompactTradeFormat.toTicks(rs.getBigDecimal(3)),
+                        rs.getInt(4),
+                        CompactTradeFormat.toEpochMicros(rs.getObject(5, LocalDateTime.class)),
+                        CompactTradeFormat.toSide(rs.getString(6))
+                    });
+                },
+                lastId, chunkSize);
+            if (rows.isEmpty()) {
+                break;
+            }
+
+            long chunkLastId = (Long) rows.get(rows.size() - 1)[0];
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(
+                    "INSERT INTO trades_compact (id, symbol_id, price_ticks, volume, ts_micros, side) VALUES (?, ?, ?, ?, ?, ?)",
+                    rows);
+                jdbcTemplate.update(
+                    "INSERT INTO trades_compact_migration (id, last_source_id) VALUES (1, ?) " +
+                    "ON DUPLICATE KEY UPDATE last_source_id = VALUES(last_source_id)",
+                    chunkLastId);
+            });
+            lastId = chunkLastId;
+            copied += rows.size();
+            logger.info("Migrated {} trades to the compact layout (last id {})", copied, lastId);
+        }
+
+        long executionTimeMs = (System.nanoTime() - startTime) / 1_000_000;
+        Map<String, Object> result = new HashMap<>();
+        result.put("copied", copied);
+        result.put("executionTimeMs", executionTimeMs);
+        result.put("tradesPerSecond", executionTimeMs == 0 ? 0 : copied * 1000.0 / executionTimeMs);
+        result.putAll(tableSizes());
+        return result;
+    }
+
+    /**
+     * Row count estimate, average row length and data/index size of both layouts.
+     */
+    public Map<String, Object> tableSizes() {
+        compactTradeRepository.createSchema();
+        jdbcTemplate.execute("ANALYZE TABLE trades, trades_compact");
+        Map<String, Object> sizes = new HashMap<>();
+        jdbcTemplate.query(
+            "SELECT TABLE_NAME, TABLE_ROWS, AVG_ROW_LENGTH, DATA_LENGTH, INDEX_LENGTH FROM INFORMATION_SCHEMA.TABLES " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME IN ('trades', 'trades_compact')",
+            rs -> {
+                Map<String, Object> table = new HashMap<>();
+                table.put("rows", rs.getLong(2));
+                table.put("avgRowLength", rs.getLong(3));
+                table.put("dataLength", rs.getLong(4));
+                table.put("indexLength", rs.getLong(5));
+                sizes.put(rs.getString(1), table);
+            });
+        return sizes;
+    }
+}
@@ -0,0 +1,492 @@
+package com.pga.jasdaq.db.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pga.jasdaq.db.config.RoutingDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Benchmarks the trade queries under a set of {@link IndexStrategy index strategies}.
+ *
+ * The newest trades are copied into a scratch table (trades_bench) that is
+ * re-indexed, and for the partitioned strategy re-partitioned, before each
+ * strategy, so the live trades table is never touched. For every query the
+ * harness captures the EXPLAIN FORMAT=JSON plan, runs an unmeasured warmup,
+ * then has several reader threads run it concurrently while a background
+ * thread inserts trades at a fixed rate. Every execution is timed in
+ * nanoseconds and reported as percentiles together with the throughput.
+ *
+ * Results are returned and written to benchmark-reports as a JSON document
+ * per run and as rows appended to db_benchmark_harness.csv.
+ */
+@Component
+public class DbBenchmarkHarness {
+
+    private static final Logger logger = LoggerFactory.getLogger(DbBenchmarkHarness.class);
+    private static final String TABLE = "trades_bench";
+    private static final String REPORT_DIR = "benchmark-reports";
+    private static final String CSV_FILE = REPORT_DIR + "/db_benchmark_harness.csv";
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss");
+    private static final String INSERT_SQL =
+        "INSERT INTO " + TABLE + " (symbol, price, volume, timestamp, order_type) VALUES (?, ?, ?, ?, ?)";
+    private static final String[] ORDER_TYPES = {"BUY", "SELL"};
+    private static final int INSERT_BATCH_ROWS = 100;
+    private static final int MAX_PARTITIONS = 366;
+    private static final RowCallbackHandler DRAIN = rs -> { };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final RoutingDataSource routingDataSource;
+
+    public DbBenchmarkHarness(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+                              RoutingDataSource routingDataSource) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.routingDataSource = routingDataSource;
+    }
+
+    /**
+     * Parameters of a benchmark run.
+     */
+    public static class Spec {
+        private final String symbol;
+        private final int windowMinutes;
+        private final int limit;
+        private final int warmupIterations;
+        private final int iterations;
+        private final int readerThreads;
+        private final int insertRowsPerSecond;
+        private final List<IndexStrategy> strategies;
+        private final long maxRows;
+
+        /**
+         * @param symbol              Symbol the per-symbol queries filter on.
+         * @param windowMinutes       Length of the time windows queried.
+         * @param limit               Row limit of the list queries and of top symbols.
+         * @param warmupIterations    Unmeasured executions of each query first.
+         * @param iterations          Measured executions of each query per reader thread.
+         * @param readerThreads       Threads running each query concurrently.
+         * @param insertRowsPerSecond Background insert rate while measuring; 0 for none.
+         * @param strategies          Index strategies to compare, in order.
+         * @param maxRows             Newest trades copied into the benchmark table; 0 for all.
+         */
+        public Spec(String symbol, int windowMinutes, int limit, int warmupIterations, int iterations,
+                    int readerThreads, int insertRowsPerSecond, List<IndexStrategy> strategies, long maxRows) {
+            if (windowMinutes <= 0 || limit <= 0 || warmupIterations < 0 || iterations <= 0
+                    || readerThreads <= 0 || insertRowsPerSecond < 0 || strategies.isEmpty() || maxRows < 0) {
+                throw new IllegalArgumentException("Invalid benchmark parameters");
+            }
+            this.symbol = symbol;
+            this.windowMinutes = windowMinutes;
+            this.limit = limit;
+            this.warmupIterations = warmupIterations;
+            this.iterations = iterations;
+            this.readerThreads = readerThreads;
+            this.insertRowsPerSecond = insertRowsPerSecond;
+            this.strategies = strategies;
+            this.maxRows = maxRows;
+        }
+    }
+
+    /**
+     * Run the benchmark on the caller's connection pool. Blocks until every
+     * strategy has been measured.
+     */
+    public synchronized Map<String, Object> run(Spec spec) {
+        int connections = spec.readerThreads + (spec.insertRowsPerSecond > 0 ? 1 : 0);
+        int poolSize = routingDataSource.getMaximumPoolSize(RoutingDataSource.currentRoute());
+        if (connections > poolSize) {
+            // Readers waiting for a connection would be timed as slow queries
+            throw new IllegalArgumentException("The benchmark needs " + connections +
+                " connections but the pool only has " + poolSize);
+        }
+
+        long startTime = System.nanoTime();
+        String runTimestamp = LocalDateTime.now().format(FILE_TIMESTAMP);
+        List<String> csvRows = new ArrayList<>();
+        Map<String, Object> results = new LinkedHashMap<>();
+        try {
+            long rows = createBenchTable(spec.maxRows);
+            if (rows == 0) {
+                throw new IllegalStateException("The trades table is empty");
+            }
+            List<String> symbols = jdbcTemplate.queryForList(
+                "SELECT DISTINCT symbol FROM " + TABLE + " LIMIT 100", String.class);
+            LocalDateTime cutoffTime = LocalDateTime.now().minusMinutes(spec.windowMinutes);
+
+            results.put("timestamp", runTimestamp);
+            results.put("rows", rows);
+            results.put("symbol", spec.symbol);
+            results.put("windowMinutes", spec.windowMinutes);
+            results.put("warmupIterations", spec.warmupIterations);
+            results.put("iterations", spec.iterations);
+            results.put("readerThreads", spec.readerThreads);
+            results.put("insertRowsPerSecond", spec.insertRowsPerSecond);
+
+            Map<String, Object> strategies = new LinkedHashMap<>();
+            for (IndexStrategy strategy : spec.strategies) {
+                long applyStart = System.nanoTime();
+                applyStrategy(strategy);
+                Map<String, Object> strategyResults = new LinkedHashMap<>();
+                strategyResults.put("applyMs", (System.nanoTime() - applyStart) / 1_000_000);
+
+                for (BenchmarkQuery query : queries(spec, cutoffTime)) {
+                    Map<String, Object> queryResults = new LinkedHashMap<>();
+                    queryResults.put("explain", explain(query));
+                    queryResults.putAll(measure(query, spec, symbols));
+                    strategyResults.put(query.name, queryResults);
+                    csvRows.add(csvRow(runTimestamp, rows, spec, strategy, query.name, queryResults));
+                }
+                strategies.put(strategy.getLabel(), strategyResults);
+                logger.info("Benchmarked index strategy {}", strategy.getLabel());
+            }
+            results.put("strategies", strategies);
+        } finally {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + TABLE);
+        }
+        results.put("executionTimeMs", (System.nanoTime() - startTime) / 1_000_000);
+
+        try {
+            writeReports(runTimestamp, results, csvRows);
+        } catch (IOException e) {
+            logger.error("Failed to write benchmark harness reports", e);
+        }
+        return results;
+    }
+
+    private long createBenchTable(long maxRows) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + TABLE);
+        // The timestamp is part of the primary key so the table can be partitioned on it
+        jdbcTemplate.execute(
+            "CREATE TABLE " + TABLE + " (" +
+            "  id BIGINT NOT NULL AUTO_INCREMENT," +
+            "  symbol VARCHAR(10) NOT NULL," +
+            "  price DECIMAL(10, 2) NOT NULL," +
+            "  volume INT NOT NULL," +
+            "  timestamp DATETIME NOT NULL," +
+            "  order_type VARCHAR(10) NOT NULL," +
+            "  PRIMARY KEY (id, timestamp)" +
+            ")");
+        String copy = "INSERT INTO " + TABLE + " (id, symbol, price, volume, timestamp, order_type) " +
+            "SELECT id, symbol, price, volume, timestamp, order_type FROM trades";
+        return maxRows > 0
+            ? jdbcTemplate.update(copy + " ORDER BY id DESC LIMIT ?", maxRows)
+            : jdbcTemplate.update(copy);
+    }
+
+    /**
+     * Reset the benchmark table to a plain table with only the primary key,
+     * then apply the strategy.
+     */
+    private void applyStrategy(IndexStrategy strategy) {
+        if (isPartitioned()) {
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " REMOVE PARTITIONING");
+        }
+        List<String> indexes = jdbcTemplate.queryForList(
+            "SELECT DISTINCT INDEX_NAME FROM INFORMATION_SCHEMA.STATISTICS " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND INDEX_NAME != 'PRIMARY'",
+            String.class, TABLE);
+        for (String index : indexes) {
+            jdbcTemplate.execute("DROP INDEX " + index + " ON " + TABLE);
+        }
+
+        if (strategy.getIndexSql() != null) {
+            jdbcTemplate.execute(String.format(strategy.getIndexSql(), TABLE));
+        }
+        if (strategy.isPartitioned()) {
+            partitionByDay();
+        }
+        jdbcTemplate.execute("ANALYZE TABLE " + TABLE);
+    }
+
+    private boolean isPartitioned() {
+        Integer count = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM INFORMATION_SCHEMA.PARTITIONS " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL",
+            Integer.class, TABLE);
+        return count != null && count > 0;
+    }
+
+    // Widens the partitions past a year of data to stay clear of the partition limit
+    private void partitionByDay() {
+        LocalDateTime oldest = jdbcTemplate.queryForObject("SELECT MIN(timestamp) FROM " + TABLE, LocalDateTime.class);
+        LocalDate first = oldest.toLocalDate();
+        LocalDate last = LocalDate.now();
+        long days = ChronoUnit.DAYS.between(first, last) + 1;
+        long intervalDays = Math.max(1, (days + MAX_PARTITIONS - 1) / MAX_PARTITIONS);
+
+        StringBuilder sql = new StringBuilder("ALTER TABLE ").append(TABLE)
+            .append(" PARTITION BY RANGE COLUMNS(timestamp) (");
+        int partition = 0;
+        for (LocalDate lower = first; !lower.isAfter(last); lower = lower.plusDays(intervalDays)) {
+            sql.append("PARTITION p").append(partition++).append(" VALUES LESS THAN ('")
+                .append(lower.plusDays(intervalDays)).append(" 00:00:00'), ");
+        }
+        sql.append("PARTITION pmax VALUES LESS THAN (MAXVALUE))");
+        jdbcTemplate.execute(sql.toString());
+    }
+
+    private List<BenchmarkQuery> queries(Spec spec, LocalDateTime cutoffTime) {
+        List<BenchmarkQuery> queries = new ArrayList<>();
+        queries.add(new BenchmarkQuery("getLastTrades",
+            "SELECT id, symbol, price, volume, timestamp, order_type FROM " + TABLE +
+            " WHERE symbol = ? ORDER BY timestamp DESC, id DESC LIMIT ?", spec.symbol, spec.limit));
+        queries.add(new BenchmarkQuery("getAveragePrice",
+            "SELECT AVG(price) FROM " + TABLE + " WHERE symbol = ? AND timestamp >= ?", spec.symbol, cutoffTime));
+        queries.add(new BenchmarkQuery("countTrades",
+            "SELECT COUNT(*) FROM " + TABLE + " WHERE symbol = ? AND timestamp >= ?", spec.symbol, cutoffTime));
+        queries.add(new BenchmarkQuery("getMinMaxPrice",
+            "SELECT MIN(price), MAX(price) FROM " + TABLE + " WHERE symbol = ? AND timestamp >= ?",
+            spec.symbol, cutoffTime));
+        queries.add(new BenchmarkQuery("topSymbolsByVolume",
+            "SELECT symbol, SUM(volume) AS total_volume FROM " + TABLE + " WHERE timestamp >= ? " +
+            "GROUP BY symbol ORDER BY total_volume DESC LIMIT ?", cutoffTime, spec.limit));
+        queries.add(new BenchmarkQuery("getTradesBySymbolOnly",
+            "SELECT id, symbol, price, volume, timestamp, order_type FROM " + TABLE + " WHERE symbol = ? LIMIT ?",
+            spec.symbol, spec.limit));
+        return queries;
+    }
+
+    private Map<String, Object> explain(BenchmarkQuery query) {
+        Map<String, Object> explain = new LinkedHashMap<>();
+        String json = jdbcTemplate.queryForObject("EXPLAIN FORMAT=JSON " + query.sql, String.class, query.args);
+        try {
+            JsonNode plan = objectMapper.readTree(json);
+            explain.put("accessType", text(plan.findValue("access_type")));
+            explain.put("key", text(plan.findValue("key")));
+            explain.put("rowsExaminedPerScan", text(plan.findValue("rows_examined_per_scan")));
+            explain.put("partitions", plan.findValue("partitions"));
+            explain.put("plan", plan);
+        } catch (JsonProcessingException e) {
+            explain.put("plan", json);
+        }
+        return explain;
+    }
+
+    private static String text(JsonNode node) {
+        return node != null ? node.asText() : null;
+    }
+
+    private Map<String, Object> measure(BenchmarkQuery query, Spec spec, List<String> symbols) {
+        for (int i = 0; i < spec.warmupIterations; i++) {
+            jdbcTemplate.query(query.sql, DRAIN, query.args);
+        }
+
+        long[][] samples = new long[spec.readerThreads][spec.iterations];
+        CountDownLatch startSignal = new CountDownLatch(1);
+        AtomicBoolean readersDone = new AtomicBoolean();
+        Map<String, Object> insertResults = new LinkedHashMap<>();
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService threads = Executors.newFixedThreadPool(spec.readerThreads + 1, runnable -> {
+            Thread thread = new Thread(runnable, "db-benchmark-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        List<Future<?>> readers = new ArrayList<>();
+        for (long[] threadSamples : samples) {
+            readers.add(threads.submit(RoutingDataSource.propagate(() -> {
+                awaitStart(startSignal);
+                for (int i = 0; i < threadSamples.length; i++) {
+                    long start = System.nanoTime();
+                    jdbcTemplate.query(query.sql, DRAIN, query.args);
+                    threadSamples[i] = System.nanoTime() - start;
+                }
+            })));
+        }
+        Future<?> inserter = spec.insertRowsPerSecond == 0 ? null : threads.submit(RoutingDataSource.propagate(() -> {
+            awaitStart(startSignal);
+            insertResults.putAll(insertLoad(spec.insertRowsPerSecond, symbols, readersDone));
+        }));
+
+        long wallNanos;
+        try {
+            long wallStart = System.nanoTime();
+            startSignal.countDown();
+            for (Future<?> reader : readers) {
+                reader.get();
+            }
+            wallNanos = System.nanoTime() - wallStart;
+            readersDone.set(true);
+            if (inserter != null) {
+                inserter.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Benchmark interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Benchmark of " + query.name + " failed", e.getCause());
+        } finally {
+            readersDone.set(true);
+            threads.shutdownNow();
+        }
+
+        long[] merged = new long[spec.readerThreads * spec.iterations];
+        for (int t = 0; t < samples.length; t++) {
+            System.arraycopy(samples[t], 0, merged, t * spec.iterations, spec.iterations);
+        }
+        Map<String, Object> results = new LinkedHashMap<>();
+        results.put("latency", latencyStats(merged));
+        results.put("throughputOpsPerSec", merged.length * 1_000_000_000.0 / wallNanos);
+        if (inserter != null) {
+            results.put("backgroundInserts", insertResults);
+        }
+        return results;
+    }
+
+    /**
+     * Insert batches of trades at the given rate until the readers are done.
+     */
+    private Map<String, Object> insertLoad(int rowsPerSecond, List<String> symbols, AtomicBoolean done) {
+        long intervalNanos = 1_000_000_000L * INSERT_BATCH_ROWS / rowsPerSecond;
+        SplittableRandom random = new SplittableRandom();
+        long[] batchNanos = new long[64];
+        int batches = 0;
+        long startTime = System.nanoTime();
+        long nextBatch = startTime;
+        while (!done.get()) {
+            List<Object[]> rows = new ArrayList<>(INSERT_BATCH_ROWS);
+            LocalDateTime now = LocalDateTime.now().withNano(0);
+            for (int i = 0; i < INSERT_BATCH_ROWS; i++) {
+                rows.add(new Object[] {
+                    symbols.get(random.nextInt(symbols.size())),
+                    BigDecimal.valueOf(random.nextLong(5_000, 50_000), 2),
+                    random.nextInt(1, 1000),
+                    now,
+                    ORDER_TYPES[random.nextInt(ORDER_TYPES.length)]
+                });
+            }
+            long start = System.nanoTime();
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+            if (batches == batchNanos.length) {
+                batchNanos = Arrays.copyOf(batchNanos, batches * 2);
+            }
+            batchNanos[batches++] = System.nanoTime() - start;
+
+            nextBatch += intervalNanos;
+            long sleepNanos = nextBatch - System.nanoTime();
+            if (sleepNanos > 0) {
+                LockSupport.parkNanos(sleepNanos);
+            }
+        }
+
+        long elapsedNanos = System.nanoTime() - startTime;
+        Map<String, Object> results = new LinkedHashMap<>();
+        results.put("rowsInserted", (long) batches * INSERT_BATCH_ROWS);
+        results.put("rowsPerSecond", elapsedNanos == 0 ? 0 : batches * INSERT_BATCH_ROWS * 1_000_000_000.0 / elapsedNanos);
+        results.put("batchLatency", latencyStats(Arrays.copyOf(batchNanos, batches)));
+        return results;
+    }
+
+    private static void awaitStart(CountDownLatch startSignal) {
+        try {
+            startSignal.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Benchmark interrupted", e);
+        }
+    }
+
+    /**
+     * Sample count, min, mean, percentiles and max of nanosecond timings.
+     */
+    static Map<String, Object> latencyStats(long[] samples) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("samples", samples.length);
+        if (samples.length == 0) {
+            return stats;
+        }
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        long sum = 0;
+        for (long sample : sorted) {
+            sum += sample;
+        }
+        stats.put("minNs", sorted[0]);
+        stats.put("meanNs", sum / sorted.length);
+        stats.put("p50Ns", percentile(sorted, 0.50));
+        stats.put("p90Ns", percentile(sorted, 0.90));
+        stats.put("p99Ns", percentile(sorted, 0.99));
+        stats.put("p999Ns", percentile(sorted, 0.999));
+        stats.put("maxNs", sorted[sorted.length - 1]);
+        return stats;
+    }
+
+    // Nearest-rank percentile of sorted samples
+    private static long percentile(long[] sorted, double fraction) {
+        int rank = (int) Math.ceil(fraction * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String csvRow(String runTimestamp, long rows, Spec spec, IndexStrategy strategy, String query,
+                                 Map<String, Object> queryResults) {
+        Map<String, Object> latency = (Map<String, Object>) queryResults.get("latency");
+        Map<String, Object> explain = (Map<String, Object>) queryResults.get("explain");
+        return String.format("%s,%d,%d,%d,%s,%s,%s,%s,%s,%s,%s,%s,%s,%s,%.1f%n",
+            runTimestamp, rows, spec.readerThreads, spec.insertRowsPerSecond, strategy.getLabel(), query,
+            explain.get("accessType"), explain.get("key"),
+            latency.get("samples"), latency.get("p50Ns"), latency.get("p90Ns"), latency.get("p99Ns"),
+            latency.get("p999Ns"), latency.get("maxNs"), (Double) queryResults.get("throughputOpsPerSec"));
+    }
+
+    private void writeReports(String runTimestamp, Map<String, Object> results, List<String> csvRows)
+            throws IOException {
+        new File(REPORT_DIR).mkdirs();
+        objectMapper.writerWithDefaultPrettyPrinter()
+            .writeValue(new File(REPORT_DIR, "db_benchmark_" + runTimestamp + ".json"), results);
+
+        boolean fileExists = new File(CSV_FILE).exists();
+        try (FileWriter writer = new FileWriter(CSV_FILE, true)) {
+            if (!fileExists) {
+                writer.write("timestamp,rows,readerThreads,insertRowsPerSecond,strategy,query,accessType,key," +
+                    "samples,p50_ns,p90_ns,p99_ns,p999_ns,max_ns,throughput_ops_per_sec\n");
+            }
+            for (String row : csvRows) {
+                writer.write(row);
+            }
+        }
+        logger.info("Benchmark harness results written to {} and {}",
+            REPORT_DIR + "/db_benchmark_" + runTimestamp + ".json", CSV_FILE);
+    }
+
+    private static class BenchmarkQuery {
+        private final String name;
+        private final String sql;
+        private final Object[] args;
+
+        private BenchmarkQuery(String name, String sql, Object... args) {
+            this.name = name;
+            this.sql = sql;
+            this.args = args;
+        }
+    }
+}
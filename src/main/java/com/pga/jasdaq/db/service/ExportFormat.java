@@ -0,0 +1,36 @@
+package com.pga.jasdaq.db.service;
+
+/**
+ * Output formats supported by the {@link TradeExporter}.
+ */
+public enum ExportFormat {
+    /** One JSON object per line. */
+    NDJSON("ndjson", "application/x-ndjson"),
+    /** Comma-separated values with a header row. */
+    CSV("csv", "text/csv");
+
+    private final String label;
+    private final String contentType;
+
+    ExportFormat(String label, String contentType) {
+        this.label = label;
+        this.contentType = contentType;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public static ExportFormat fromLabel(String label) {
+        for (ExportFormat format : values()) {
+            if (format.label.equalsIgnoreCase(label)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unknown export format: " + label);
+    }
+}
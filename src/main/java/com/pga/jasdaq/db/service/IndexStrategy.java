@@ -0,0 +1,53 @@
+package com.pga.jasdaq.db.service;
+
+/**
+ * Indexing layouts of the benchmark table compared by the {@link DbBenchmarkHarness}.
+ */
+public enum IndexStrategy {
+    /** Primary key only; every query scans. */
+    NONE("none", null, false),
+    /** Single-column index on symbol. */
+    SYMBOL("symbol", "CREATE INDEX idx_bench_symbol ON %s(symbol)", false),
+    /** Single-column index on timestamp. */
+    TIMESTAMP("timestamp", "CREATE INDEX idx_bench_ts ON %s(timestamp)", false),
+    /** Composite index on (symbol, timestamp). */
+    SYMBOL_TIMESTAMP("symbol-timestamp", "CREATE INDEX idx_bench_symbol_ts ON %s(symbol, timestamp)", false),
+    /** (symbol, timestamp) extended with price and volume, so window aggregates never read the rows. */
+    COVERING("covering", "CREATE INDEX idx_bench_covering ON %s(symbol, timestamp, price, volume)", false),
+    /** (symbol, timestamp) on a table range-partitioned by day. */
+    PARTITIONED("partitioned", "CREATE INDEX idx_bench_symbol_ts ON %s(symbol, timestamp)", true);
+
+    private final String label;
+    private final String indexSql;
+    private final boolean partitioned;
+
+    IndexStrategy(String label, String indexSql, boolean partitioned) {
+        this.label = label;
+        this.indexSql = indexSql;
+        this.partitioned = partitioned;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * CREATE INDEX statement with a %s placeholder for the table, or null for none.
+     */
+    public String getIndexSql() {
+        return indexSql;
+    }
+
+    public boolean isPartitioned() {
+        return partitioned;
+    }
+
+    public static IndexStrategy fromLabel(String label) {
+        for (IndexStrategy strategy : values()) {
+            if (strategy.label.equalsIgnoreCase(label)) {
+                return strategy;
+            }
+        }
+        throw new IllegalArgumentException("Unknown index strategy: " + label);
+    }
+}
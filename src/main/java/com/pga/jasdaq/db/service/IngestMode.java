@@ -0,0 +1,30 @@
+package com.pga.jasdaq.db.service;
+
+/**
+ * Ways of bulk loading trades supported by the {@link TradeBulkIngestor}.
+ */
+public enum IngestMode {
+    /** Parameterized PreparedStatement batches, rewritten into multi-row inserts by the driver. */
+    BATCH("batch"),
+    /** Rows streamed as CSV through LOAD DATA LOCAL INFILE. */
+    LOAD_DATA("load-data");
+
+    private final String label;
+
+    IngestMode(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public static IngestMode fromLabel(String label) {
+        for (IngestMode mode : values()) {
+            if (mode.label.equalsIgnoreCase(label)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Unknown ingest mode: " + label);
+    }
+}
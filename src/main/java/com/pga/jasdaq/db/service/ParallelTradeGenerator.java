@@ -0,0 +1,314 @@
+package com.pga.jasdaq.db.service;
+
+import com.pga.jasdaq.db.config.DataSourceBulkhead;
+import com.pga.jasdaq.db.config.RoutingDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates large synthetic trade datasets with several worker threads.
+ *
+ * The target count is cut into fixed-size chunks that workers claim one at a
+ * time and insert through the {@link TradeBulkIngestor}, each chunk on a
+ * pooled connection of its own, so the datasource pool should be at least as
+ * large as the number of threads. Every chunk draws from a SplittableRandom
+ * seeded from the job seed and the chunk index, and per-symbol price walks
+ * restart each chunk from precomputed anchors, so a seed always produces the
+ * same rows whatever the thread count or scheduling.
+ *
+ * Timestamps increase with the row index across the configured range, symbols
+ * follow a Zipf distribution and prices a geometric random walk per symbol.
+ */
+@Component
+public class ParallelTradeGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParallelTradeGenerator.class);
+    private static final int CHUNK_ROWS = 50_000;
+    private static final long MAX_PRICE_CENTS = 9_999_999_999L; // DECIMAL(10, 2)
+    private static final String[] ORDER_TYPES = {"BUY", "SELL"};
+
+    private final TradeBulkIngestor bulkIngestor;
+    private volatile Job currentJob;
+
+    public ParallelTradeGenerator(TradeBulkIngestor bulkIngestor) {
+        this.bulkIngestor = bulkIngestor;
+    }
+
+    /**
+     * Parameters of a generated dataset.
+     */
+    public static class Spec {
+        private final long count;
+        private final int threads;
+        private final long seed;
+        private final String[] symbols;
+        private final double zipfExponent;
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+        private final double volatility;
+        private final IngestMode mode;
+
+        /**
+         * @param count        Number of trades to generate.
+         * @param threads      Number of worker threads.
+         * @param seed         Seed of the dataset.
+         * @param symbols      Symbols, most traded first.
+         * @param zipfExponent Skew of trades across symbols; 0 is uniform.
+         * @param from         Timestamp of the first trade.
+         * @param to           Timestamp of the last trade.
+         * @param volatility   Standard deviation of the log price change per trade.
+         * @param mode         How each chunk is inserted.
+         */
+        public Spec(long count, int threads, long seed, String[] symbols, double zipfExponent,
+                    LocalDateTime from, LocalDateTime to, double volatility, IngestMode mode) {
+            if (count <= 0 || threads <= 0 || symbols.length == 0 || !from.isBefore(to)) {
+                throw new IllegalArgumentException("Invalid trade generation parameters");
+            }
+            this.count = count;
+            this.threads = threads;
+            this.seed = seed;
+            this.symbols = symbols;
+            this.zipfExponent = zipfExponent;
+            this.from = from.truncatedTo(ChronoUnit.SECONDS);
+            this.to = to.truncatedTo(ChronoUnit.SECONDS);
+            this.volatility = volatility;
+            this.mode = mode;
+        }
+    }
+
+    /**
+     * Start generating a dataset in the background. The caller's data source
+     * slot stays taken until the job has finished, so no other call on its
+     * route runs alongside the workers.
+     *
+     * @param spec       The dataset parameters.
+     * @param prepare    Run on the calling thread before the workers start,
+     *                   only if no other job is running.
+     * @param onComplete Run once every worker has finished successfully.
+     * @return The progress of the new job.
+     * @throws TradeGenerationRunningException if a job is already running.
+     */
+    public synchronized Map<String, Object> start(Spec spec, Runnable prepare, Runnable onComplete) {
+        if (currentJob != null && currentJob.isRunning()) {
+            throw new TradeGenerationRunningException();
+        }
+        prepare.run();
+        Job job = new Job(spec);
+        Runnable releaseSlot = DataSourceBulkhead.detachSlot();
+        try {
+            job.start(onComplete, releaseSlot);
+        } catch (RuntimeException e) {
+            releaseSlot.run();
+            throw e;
+        }
+        currentJob = job;
+        return job.progress();
+    }
+
+    /**
+     * Progress of the current or last job.
+     */
+    public Map<String, Object> getProgress() {
+        Job job = currentJob;
+        if (job == null) {
+            Map<String, Object> progress = new HashMap<>();
+            progress.put("status", "IDLE");
+            return progress;
+        }
+        return job.progress();
+    }
+
+    private class Job {
+        private final Spec spec;
+        private final int chunks;
+        private final double[] symbolCdf;
+        private final double[][] anchors; // Starting price of every symbol in every chunk
+        private final long spanSeconds;
+        private final AtomicInteger nextChunk = new AtomicInteger();
+        private final AtomicLong rowsInserted = new AtomicLong();
+        private final AtomicInteger reportedPercent = new AtomicInteger();
+        private final long startNanos = System.nanoTime();
+        private volatile long endNanos;
+        private volatile String status = "RUNNING";
+        private volatile String error;
+        private volatile boolean failed; // Lets the other workers stop early
+
+        private Job(Spec spec) {
+            this.spec = spec;
+            this.chunks = (int) ((spec.count + CHUNK_ROWS - 1) / CHUNK_ROWS);
+            this.symbolCdf = zipfCdf(spec.symbols.length, spec.zipfExponent);
+            this.anchors = priceAnchors();
+            this.spanSeconds = ChronoUnit.SECONDS.between(spec.from, spec.to);
+        }
+
+        private boolean isRunning() {
+            return "RUNNING".equals(status);
+        }
+
+        private void start(Runnable onComplete, Runnable onFinish) {
+            AtomicInteger threadIndex = new AtomicInteger();
+            ExecutorService workers = Executors.newFixedThreadPool(spec.threads, runnable -> {
+                Thread thread = new Thread(runnable, "trade-generator-" + threadIndex.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            Future<?>[] futures = new Future<?>[spec.threads];
+            for (int i = 0; i < spec.threads; i++) {
+                futures[i] = workers.submit(RoutingDataSource.propagate(this::work));
+            }
+            workers.shutdown();
+
+            // Workers and the completion callback run on the caller's connection pool
+            Thread coordinator = new Thread(RoutingDataSource.propagate(() -> {
+                try {
+                    for (Future<?> future : futures) {
+                        future.get();
+                    }
+                    endNanos = System.nanoTime();
+                    onComplete.run();
+                    status = "COMPLETED";
+                    logger.info("Generated {} trades in {} ms ({} trades/sec)",
+                        rowsInserted.get(), elapsedMillis(), rowsPerSecond());
+                } catch (Exception e) {
+                    endNanos = System.nanoTime();
+                    workers.shutdownNow();
+                    error = String.valueOf(e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+                    status = "FAILED";
+                    logger.error("Trade generation failed after {} trades", rowsInserted.get(), e);
+                } finally {
+                    onFinish.run();
+                }
+            }), "trade-generator-coordinator");
+            coordinator.setDaemon(true);
+            coordinator.start();
+        }
+
+        private void work() {
+            int chunk;
+            while (!failed && (chunk = nextChunk.getAndIncrement()) < chunks) {
+                try {
+                    long total = rowsInserted.addAndGet(insertChunk(chunk));
+                    reportProgress(total);
+                } catch (RuntimeException e) {
+                    failed = true;
+                    throw e;
+                }
+            }
+        }
+
+        private long insertChunk(int chunk) {
+            long firstRow = (long) chunk * CHUNK_ROWS;
+            int rows = (int) Math.min(CHUNK_ROWS, spec.count - firstRow);
+            SplittableRandom random = new SplittableRandom(mix(spec.seed, chunk + 1));
+            double[] prices = anchors[chunk].clone();
+            long[] row = {firstRow};
+
+            return bulkIngestor.ingest(spec.mode, rows, tradeRow -> {
+                int symbolIndex = sampleSymbol(random.nextDouble());
+                prices[symbolIndex] *= Math.exp(spec.volatility * random.nextGaussian());
+                long priceCents = Math.max(1, Math.min(MAX_PRICE_CENTS, Math.round(prices[symbolIndex] * 100)));
+                LocalDateTime timestamp = spec.from.plusSeconds(spanSeconds * row[0]++ / spec.count);
+                tradeRow.set(spec.symbols[symbolIndex], priceCents, 10 + random.nextInt(990), timestamp,
+                    ORDER_TYPES[random.nextInt(ORDER_TYPES.length)]);
+            });
+        }
+
+        /**
+         * Walk every symbol's price from chunk to chunk with one step that has
+         * the spread of the trades the symbol is expected to get per chunk.
+         */
+        private double[][] priceAnchors() {
+            SplittableRandom random = new SplittableRandom(mix(spec.seed, 0));
+            int symbolCount = spec.symbols.length;
+            double[][] result = new double[chunks][symbolCount];
+            for (int s = 0; s < symbolCount; s++) {
+                result[0][s] = 20 + 980 * random.nextDouble();
+            }
+            for (int c = 1; c < chunks; c++) {
+                for (int s = 0; s < symbolCount; s++) {
+                    double share = symbolCdf[s] - (s == 0 ? 0 : symbolCdf[s - 1]);
+                    double step = spec.volatility * Math.sqrt(CHUNK_ROWS * share);
+                    result[c][s] = result[c - 1][s] * Math.exp(step * random.nextGaussian());
+                }
+            }
+            return result;
+        }
+
+        private int sampleSymbol(double u) {
+            int index = Arrays.binarySearch(symbolCdf, u);
+            int symbol = index >= 0 ? index + 1 : -index - 1;
+            return Math.min(symbol, symbolCdf.length - 1);
+        }
+
+        private void reportProgress(long total) {
+            int percent = (int) (total * 100 / spec.count);
+            int reported = reportedPercent.get();
+            // Log every 5% once, whichever worker crosses the mark first
+            if (percent / 5 > reported / 5 && reportedPercent.compareAndSet(reported, percent)) {
+                logger.info("Generated {} of {} trades ({}%, {} trades/sec)",
+                    total, spec.count, percent, rowsPerSecond());
+            }
+        }
+
+        private long elapsedMillis() {
+            long end = endNanos != 0 ? endNanos : System.nanoTime();
+            return (end - startNanos) / 1_000_000;
+        }
+
+        private double rowsPerSecond() {
+            long elapsed = elapsedMillis();
+            return elapsed == 0 ? 0 : rowsInserted.get() * 1000.0 / elapsed;
+        }
+
+        private Map<String, Object> progress() {
+            Map<String, Object> progress = new HashMap<>();
+            progress.put("status", status);
+            progress.put("seed", spec.seed);
+            progress.put("threads", spec.threads);
+            progress.put("mode", spec.mode.getLabel());
+            progress.put("targetCount", spec.count);
+            progress.put("rowsInserted", rowsInserted.get());
+            progress.put("percentComplete", rowsInserted.get() * 100.0 / spec.count);
+            progress.put("elapsedMs", elapsedMillis());
+            progress.put("tradesPerSecond", rowsPerSecond());
+            if (error != null) {
+                progress.put("error", error);
+            }
+            return progress;
+        }
+    }
+
+    private static double[] zipfCdf(int symbolCount, double exponent) {
+        double[] cdf = new double[symbolCount];
+        double total = 0;
+        for (int k = 0; k < symbolCount; k++) {
+            total += 1.0 / Math.pow(k + 1, exponent);
+            cdf[k] = total;
+        }
+        for (int k = 0; k < symbolCount; k++) {
+            cdf[k] /= total;
+        }
+        return cdf;
+    }
+
+    // SplitMix64 finalizer, so neighbouring chunk indexes get unrelated seeds
+    private static long mix(long seed, long index) {
+        long z = seed + index * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,163 @@
+package com.pga.jasdaq.db.service;
+
+import com.pga.jasdaq.db.entity.TradeView;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Per-symbol ring of the most recent trades, newest first by (timestamp, id).
+ *
+ * A ring is filled from the database on first use (or at startup) and then kept
+ * current write-through from the persistence path. Anything that could place
+ * rows out of order, such as bulk inserts with historical timestamps, simply
+ * invalidates the ring so it is reloaded on the next read.
+ *
+ * Trades are written through after their transaction commits, so a ring loaded
+ * in between may already hold the trade being added; such a trade is recognised
+ * by its id and not pushed a second time.
+ */
+@Component
+public class RecentTradesCache {
+
+    private static final Comparator<TradeView> NEWEST_FIRST = Comparator
+            .comparing(TradeView::getTimestamp)
+            .thenComparing(TradeView::getId)
+            .reversed();
+
+    private final int capacity;
+    private final Map<String, Ring> rings = new ConcurrentHashMap<>();
+
+    public RecentTradesCache(@Value("${jasdaq.recent-trades.capacity:100}") int capacity) {
+        this.capacity = capacity;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns up to {@code count} newest trades of a symbol (count must not
+     * exceed the capacity), loading the ring with {@code loader} if it is cold.
+     * The loader must return up to {@code capacity} trades, newest first.
+     */
+    public List<TradeView> latest(String symbol, int count, Supplier<List<TradeView>> loader) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count must not be negative: " + count);
+        }
+        Ring ring = rings.computeIfAbsent(symbol, key -> new Ring());
+        long version;
+        synchronized (ring) {
+            if (ring.warm) {
+                return ring.copy(count);
+            }
+            version = ring.version;
+        }
+
+        // Load outside the lock; only install if nothing was written meanwhile
+        List<TradeView> loaded = loader.get();
+        synchronized (ring) {
+            if (!ring.warm && ring.version == version) {
+                ring.fill(loaded);
+            }
+        }
+        return loaded.size() > count ? new ArrayList<>(loaded.subList(0, count)) : loaded;
+    }
+
+    /**
+     * Write-through of a newly persisted trade.
+     */
+    public void add(TradeView trade) {
+        Ring ring = rings.computeIfAbsent(trade.getSymbol(), key -> new Ring());
+        synchronized (ring) {
+            ring.version++;
+            if (!ring.warm) {
+                return;
+            }
+            if (trade.getId() <= ring.maxId) {
+                if (ring.contains(trade.getId())) {
+                    // Already picked up by a load that ran after the commit
+                    return;
+                }
+                // Committed behind a newer trade; let the next read reload the ring
+                ring.warm = false;
+                return;
+            }
+            if (ring.size > 0 && NEWEST_FIRST.compare(trade, ring.newest()) > 0) {
+                // Older than the newest cached trade; let the next read reload the ring
+                ring.warm = false;
+                return;
+            }
+            ring.push(trade);
+        }
+    }
+
+    public void invalidate(String symbol) {
+        Ring ring = rings.get(symbol);
+        if (ring != null) {
+            synchronized (ring) {
+                ring.version++;
+                ring.warm = false;
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        rings.keySet().forEach(this::invalidate);
+    }
+
+    private class Ring {
+        private final TradeView[] trades = new TradeView[capacity];
+        private int head = -1; // Slot of the newest trade
+        private int size;
+        private boolean warm;
+        private long version;
+        private long maxId = Long.MIN_VALUE; // Highest id ever placed in the ring
+
+        private TradeView newest() {
+            return trades[head];
+        }
+
+        private void push(TradeView trade) {
+            head = (head + 1) % capacity;
+            trades[head] = trade;
+            size = Math.min(size + 1, capacity);
+            maxId = Math.max(maxId, trade.getId());
+        }
+
+        private boolean contains(long id) {
+            for (int i = 0; i < size; i++) {
+                if (trades[Math.floorMod(head - i, capacity)].getId() == id) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void fill(List<TradeView> newestFirst) {
+            head = -1;
+            size = 0;
+            maxId = Long.MIN_VALUE;
+            int count = Math.min(newestFirst.size(), capacity);
+            for (int i = count - 1; i >= 0; i--) {
+                push(newestFirst.get(i));
+            }
+            warm = true;
+        }
+
+        private List<TradeView> copy(int count) {
+            int n = Math.min(count, size);
+            List<TradeView> result = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                result.add(trades[Math.floorMod(head - i, capacity)]);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package com.pga.jasdaq.db.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory per-second trade statistics per symbol over a fixed horizon.
+ *
+ * Each symbol keeps a ring of one-second buckets holding count, sum of price
+ * and sum of volume, plus min/max segment trees over the same ring. A "last N
+ * minutes" query combines buckets instead of scanning rows, and min/max over
+ * any window within the horizon is answered in O(log horizon).
+ *
+ * Prices are kept in cents to match the DECIMAL(10, 2) column. Timestamps use
+ * the same zone-less LocalDateTime convention as the trades table.
+ *
+ * At most {@code maxSymbols} symbols are tracked. A new symbol first evicts
+ * symbols that have not traded within the horizon; if none are idle, its
+ * trades are dropped and windows overlapping the drop are left to MySQL.
+ */
+@Component
+public class RollingTradeStats {
+
+    private final int horizonSeconds;
+    private final int maxSymbols;
+    private final Map<String, SymbolBuckets> symbols = new ConcurrentHashMap<>();
+    // Newest second recorded for any symbol, and the newest second a trade was dropped at
+    private volatile long latestSecond = Long.MIN_VALUE;
+    private volatile long lastDroppedSecond = Long.MIN_VALUE;
+    private volatile boolean primed;
+
+    public RollingTradeStats(@Value("${jasdaq.stats.horizon-minutes:60}") int horizonMinutes,
+                             @Value("${jasdaq.stats.max-symbols:256}") int maxSymbols) {
+        this.horizonSeconds = horizonMinutes * 60;
+        this.maxSymbols = maxSymbols;
+    }
+
+    /**
+     * Whether the window (nowSecond - minutes, nowSecond] of a symbol can be
+     * answered from memory, i.e. it is within the horizon and no trade of the
+     * symbol in it was dropped.
+     */
+    public boolean covers(String symbol, int minutes, long nowSecond) {
+        if (!primed || minutes * 60L > horizonSeconds) {
+            return false;
+        }
+        long windowStart = nowSecond - minutes * 60L;
+        SymbolBuckets buckets = symbols.get(symbol);
+        return (buckets != null ? buckets.incompleteUntil : lastDroppedSecond) <= windowStart;
+    }
+
+    public void markPrimed() {
+        primed = true;
+    }
+
+    public int getHorizonMinutes() {
+        return horizonSeconds / 60;
+    }
+
+    /**
+     * Record a single persisted trade.
+     */
+    public void record(String symbol, long priceCents, long volume, long epochSecond) {
+        record(symbol, 1, priceCents, volume, priceCents, priceCents, epochSecond);
+    }
+
+    /**
+     * Record an aggregate of trades that fell into the same second.
+     */
+    public void record(String symbol, long count, long sumPriceCents, long sumVolume,
+                       long minCents, long maxCents, long epochSecond) {
+        if (epochSecond > latestSecond) {
+            advanceLatest(epochSecond);
+        }
+        SymbolBuckets buckets = symbols.get(symbol);
+        // An evicted ring refuses the trade; admit the symbol again
+        while (buckets == null || !buckets.add(count, sumPriceCents, sumVolume, minCents, maxCents, epochSecond)) {
+            buckets = admit(symbol);
+            if (buckets == null) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Aggregate the trades of a symbol in the window (nowSecond - windowSeconds, nowSecond].
+     */
+    public WindowStats query(String symbol, int windowSeconds, long nowSecond) {
+        SymbolBuckets buckets = symbols.get(symbol);
+        if (buckets == null) {
+            return WindowStats.EMPTY;
+        }
+        return buckets.query(Math.min(windowSeconds, horizonSeconds), nowSecond);
+    }
+
+    /**
+     * Forget everything, e.g. after the trades table was truncated.
+     */
+    public synchronized void clear() {
+        symbols.clear();
+        latestSecond = Long.MIN_VALUE;
+        lastDroppedSecond = Long.MIN_VALUE;
+    }
+
+    private synchronized void advanceLatest(long second) {
+        latestSecond = Math.max(latestSecond, second);
+    }
+
+    /**
+     * Start tracking a symbol, evicting idle symbols when the limit is
+     * reached. Returns null, and remembers the drop, if no room is left.
+     */
+    private synchronized SymbolBuckets admit(String symbol) {
+        SymbolBuckets buckets = symbols.get(symbol);
+        if (buckets != null && !buckets.isEvicted()) {
+            return buckets;
+        }
+        if (symbols.size() >= maxSymbols) {
+            symbols.values().removeIf(idle -> idle.evictIfIdle(latestSecond - horizonSeconds));
+        }
+        if (symbols.size() >= maxSymbols) {
+            lastDroppedSecond = latestSecond;
+            return null;
+        }
+        // Trades of the symbol dropped before now are missing from the new ring
+        buckets = new SymbolBuckets(horizonSeconds, lastDroppedSecond);
+        symbols.put(symbol, buckets);
+        return buckets;
+    }
+
+    /**
+     * Aggregated statistics of a window.
+     */
+    public static class WindowStats {
+        static final WindowStats EMPTY = new WindowStats(0, 0, 0, 0, 0);
+
+        private final long count;
+        private final long sumPriceCents;
+        private final long sumVolume;
+        private final long minCents;
+        private final long maxCents;
+
+        WindowStats(long count, long sumPriceCents, long sumVolume, long minCents, long maxCents) {
+            this.count = count;
+            this.sumPriceCents = sumPriceCents;
+            this.sumVolume = sumVolume;
+            this.minCents = minCents;
+            this.maxCents = maxCents;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getSumVolume() {
+            return sumVolume;
+        }
+
+        public BigDecimal getAveragePrice() {
+            if (count == 0) {
+                return BigDecimal.ZERO;
+            }
+            return BigDecimal.valueOf(sumPriceCents).divide(BigDecimal.valueOf(count * 100), 2, RoundingMode.HALF_UP);
+        }
+
+        public BigDecimal getMinPrice() {
+            return count == 0 ? BigDecimal.ZERO : BigDecimal.valueOf(minCents, 2);
+        }
+
+        public BigDecimal getMaxPrice() {
+            return count == 0 ? BigDecimal.ZERO : BigDecimal.valueOf(maxCents, 2);
+        }
+    }
+
+    /**
+     * Ring of per-second buckets for one symbol. Slots between the last seen
+     * second and the current one are cleared lazily, so the ring only ever
+     * holds seconds in (latestSecond - horizon, latestSecond]. The arrays are
+     * allocated by the first trade.
+     */
+    private static class SymbolBuckets {
+        private final int size;
+        // Windows starting before this second may miss dropped trades of the symbol
+        private final long incompleteUntil;
+        private long[] counts;
+        private long[] sumPrices;
+        private long[] sumVolumes;
+        // Segment trees over the slots; leaves live at [size, 2 * size)
+        private long[] minTree;
+        private long[] maxTree;
+        private long latestSecond = Long.MIN_VALUE;
+        private boolean evicted;
+
+        SymbolBuckets(int size, long incompleteUntil) {
+            this.size = size;
+            this.incompleteUntil = incompleteUntil;
+        }
+
+        /**
+         * Returns false if the ring was evicted and the trade not recorded.
+         */
+        synchronized boolean add(long count, long sumPrice, long sumVolume, long min, long max, long second) {
+            if (evicted) {
+                return false;
+            }
+            if (counts == null) {
+                allocate();
+            }
+            advanceTo(second);
+            if (second <= latestSecond - size) {
+                return true; // Older than the horizon
+            }
+            int slot = slotOf(second);
+            counts[slot] += count;
+            sumPrices[slot] += sumPrice;
+            sumVolumes[slot] += sumVolume;
+            if (min < minTree[slot + size]) {
+                setLeaf(minTree, slot, min, true);
+            }
+            if (max > maxTree[slot + size]) {
+                setLeaf(maxTree, slot, max, false);
+            }
+            return true;
+        }
+
+        synchronized WindowStats query(int windowSeconds, long nowSecond) {
+            if (counts == null) {
+                return WindowStats.EMPTY;
+            }
+            advanceTo(nowSecond);
+            long from = Math.max(nowSecond - windowSeconds + 1, latestSecond - size + 1);
+            long to = Math.min(nowSecond, latestSecond);
+            if (from > to) {
+                return WindowStats.EMPTY;
+            }
+
+            long count = 0;
+            long sumPrice = 0;
+            long sumVolume = 0;
+            for (long second = from; second <= to; second++) {
+                int slot = slotOf(second);
+                count += counts[slot];
+                sumPrice += sumPrices[slot];
+                sumVolume += sumVolumes[slot];
+            }
+            if (count == 0) {
+                return WindowStats.EMPTY;
+            }
+
+            int first = slotOf(from);
+            int last = slotOf(to);
+            long min;
+            long max;
+            if (first <= last) {
+                min = rangeQuery(minTree, first, last, true);
+                max = rangeQuery(maxTree, first, last, false);
+            } else {
+                // The window wraps around the end of the ring
+                min = Math.min(rangeQuery(minTree, first, size - 1, true), rangeQuery(minTree, 0, last, true));
+                max = Math.max(rangeQuery(maxTree, first, size - 1, false), rangeQuery(maxTree, 0, last, false));
+            }
+            return new WindowStats(count, sumPrice, sumVolume, min, max);
+        }
+
+        synchronized boolean isEvicted() {
+            return evicted;
+        }
+
+        // Evicts the ring if its newest trade is at or before the given second
+        synchronized boolean evictIfIdle(long idleSecond) {
+            if (latestSecond <= idleSecond) {
+                evicted = true;
+            }
+            return evicted;
+        }
+
+        private void allocate() {
+            counts = new long[size];
+            sumPrices = new long[size];
+            sumVolumes = new long[size];
+            minTree = new long[2 * size];
+            maxTree = new long[2 * size];
+            Arrays.fill(minTree, Long.MAX_VALUE);
+            Arrays.fill(maxTree, Long.MIN_VALUE);
+        }
+
+        private void advanceTo(long second) {
+            if (second <= latestSecond) {
+                return;
+            }
+            long start = latestSecond == Long.MIN_VALUE ? second : Math.max(latestSecond + 1, second - size + 1);
+            for (long s = start; s <= second; s++) {
+                int slot = slotOf(s);
+                counts[slot] = 0;
+                sumPrices[slot] = 0;
+                sumVolumes[slot] = 0;
+                setLeaf(minTree, slot, Long.MAX_VALUE, true);
+                setLeaf(maxTree, slot, Long.MIN_VALUE, false);
+            }
+            latestSecond = second;
+        }
+
+        private int slotOf(long second) {
+            return (int) Math.floorMod(second, (long) size);
+        }
+
+        private void setLeaf(long[] tree, int slot, long value, boolean isMin) {
+            int i = slot + size;
+            tree[i] = value;
+            for (i >>= 1; i >= 1; i >>= 1) {
+                tree[i] = isMin ? Math.min(tree[2 * i], tree[2 * i + 1]) : Math.max(tree[2 * i], tree[2 * i + 1]);
+            }
+        }
+
+        private long rangeQuery(long[] tree, int from, int to, boolean isMin) {
+            long result = isMin ? Long.MAX_VALUE : Long.MIN_VALUE;
+            for (int l = from + size, r = to + size + 1; l < r; l >>= 1, r >>= 1) {
+                if ((l & 1) == 1) {
+                    result = isMin ? Math.min(result, tree[l++]) : Math.max(result, tree[l++]);
+                }
+                if ((r & 1) == 1) {
+                    result = isMin ? Math.min(result, tree[--r]) : Math.max(result, tree[--r]);
+                }
+            }
+            return result;
+        }
+    }
+}
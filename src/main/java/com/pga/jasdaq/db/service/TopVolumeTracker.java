@@ -0,0 +1,272 @@
+package com.pga.jasdaq.db.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Incrementally maintained top symbols by traded volume for a fixed set of
+ * sliding windows.
+ *
+ * Volumes are kept per symbol in one-second buckets. Each window keeps a
+ * running total per symbol that is increased on every trade and decreased as
+ * buckets slide out of it, ranked in a sorted set so the top K is read in
+ * O(K). Results are exact while the number of distinct symbols in a window
+ * fits in {@code maxSymbols}; beyond that the window is answered by a
+ * space-saving summary with {@code maxSymbols} counters, flagged as
+ * approximate, until the overflow has slid out of the window.
+ */
+@Component
+public class TopVolumeTracker {
+
+    private static final Comparator<Entry> RANKING = Comparator
+            .comparingLong((Entry e) -> e.volume).reversed()
+            .thenComparing(e -> e.symbol);
+
+    private final int maxSymbols;
+    private final int horizonSeconds;
+    private final Window[] windows;
+    private final Map<String, long[]>[] buckets;
+    private long latestSecond = Long.MIN_VALUE;
+    private volatile boolean primed;
+
+    @SuppressWarnings("unchecked")
+    public TopVolumeTracker(
+            @Value("${jasdaq.top-volume.windows-minutes:1,5,15,60}") int[] windowMinutes,
+            @Value("${jasdaq.top-volume.max-symbols:10000}") int maxSymbols) {
+        this.maxSymbols = maxSymbols;
+        this.windows = new Window[windowMinutes.length];
+        int horizon = 0;
+        for (int i = 0; i < windowMinutes.length; i++) {
+            windows[i] = new Window(windowMinutes[i] * 60);
+            horizon = Math.max(horizon, windows[i].seconds);
+        }
+        this.horizonSeconds = horizon;
+        this.buckets = new Map[horizon];
+        for (int i = 0; i < horizon; i++) {
+            buckets[i] = new HashMap<>();
+        }
+    }
+
+    public boolean covers(int minutes) {
+        return primed && windowFor(minutes * 60) != null;
+    }
+
+    public void markPrimed() {
+        primed = true;
+    }
+
+    public int getHorizonMinutes() {
+        return horizonSeconds / 60;
+    }
+
+    /**
+     * Record traded volume of a symbol at the given second.
+     */
+    public synchronized void record(String symbol, long volume, long epochSecond) {
+        advanceTo(epochSecond);
+        if (epochSecond <= latestSecond - horizonSeconds) {
+            return; // Older than every window
+        }
+        buckets[slotOf(epochSecond)].computeIfAbsent(symbol, key -> new long[1])[0] += volume;
+        for (Window window : windows) {
+            if (epochSecond > latestSecond - window.seconds) {
+                window.add(symbol, volume);
+            }
+        }
+    }
+
+    /**
+     * Top symbols by volume in one of the tracked windows, highest first.
+     */
+    public synchronized List<Map<String, Object>> top(int minutes, int limit, long nowSecond) {
+        advanceTo(nowSecond);
+        Window window = windowFor(minutes * 60);
+        if (window == null) {
+            throw new IllegalArgumentException("No top-volume window tracked for " + minutes + " minutes");
+        }
+        if (window.approximate && window.lastOverflowSecond <= latestSecond - window.seconds) {
+            // The overflow has slid out of the window; try to become exact again
+            rebuild(window);
+        }
+
+        Iterable<Entry> ranking = window.approximate ? summarize(window) : window.ranking;
+        List<Map<String, Object>> topSymbols = new ArrayList<>();
+        Iterator<Entry> ranked = ranking.iterator();
+        while (ranked.hasNext() && topSymbols.size() < limit) {
+            Entry entry = ranked.next();
+            Map<String, Object> symbolData = new HashMap<>();
+            symbolData.put("symbol", entry.symbol);
+            symbolData.put("totalVolume", entry.volume);
+            symbolData.put("approximate", window.approximate);
+            if (window.approximate) {
+                symbolData.put("maxOverestimate", entry.error);
+            }
+            topSymbols.add(symbolData);
+        }
+        return topSymbols;
+    }
+
+    public synchronized void clear() {
+        for (Map<String, long[]> bucket : buckets) {
+            bucket.clear();
+        }
+        for (Window window : windows) {
+            window.reset();
+        }
+        latestSecond = Long.MIN_VALUE;
+    }
+
+    private Window windowFor(int seconds) {
+        for (Window window : windows) {
+            if (window.seconds == seconds) {
+                return window;
+            }
+        }
+        return null;
+    }
+
+    private void advanceTo(long second) {
+        if (second <= latestSecond) {
+            return;
+        }
+        if (latestSecond == Long.MIN_VALUE || second - latestSecond >= horizonSeconds) {
+            // Everything stored has slid out of every window
+            clear();
+            latestSecond = second;
+            return;
+        }
+        for (long s = latestSecond + 1; s <= second; s++) {
+            for (Window window : windows) {
+                // Bucket leaving this window; the largest window expires the slot being reused
+                for (Map.Entry<String, long[]> expired : buckets[slotOf(s - window.seconds)].entrySet()) {
+                    window.subtract(expired.getKey(), expired.getValue()[0]);
+                }
+            }
+            buckets[slotOf(s)].clear();
+            latestSecond = s;
+        }
+    }
+
+    private void rebuild(Window window) {
+        window.reset();
+        for (long s = latestSecond - window.seconds + 1; s <= latestSecond && !window.approximate; s++) {
+            for (Map.Entry<String, long[]> bucketEntry : buckets[slotOf(s)].entrySet()) {
+                window.add(bucketEntry.getKey(), bucketEntry.getValue()[0]);
+            }
+        }
+    }
+
+    /**
+     * One space-saving pass over the window's buckets with {@code maxSymbols}
+     * counters. Every reported volume overestimates the true volume by at most
+     * its error, which is bounded by the window volume divided by maxSymbols.
+     */
+    private TreeSet<Entry> summarize(Window window) {
+        Map<String, Entry> counters = new HashMap<>();
+        TreeSet<Entry> ranking = new TreeSet<>(RANKING);
+        for (long s = latestSecond - window.seconds + 1; s <= latestSecond; s++) {
+            for (Map.Entry<String, long[]> bucketEntry : buckets[slotOf(s)].entrySet()) {
+                String symbol = bucketEntry.getKey();
+                long volume = bucketEntry.getValue()[0];
+                Entry entry = counters.get(symbol);
+                if (entry != null) {
+                    ranking.remove(entry);
+                    entry.volume += volume;
+                } else if (counters.size() < maxSymbols) {
+                    entry = new Entry(symbol, volume);
+                    counters.put(symbol, entry);
+                } else {
+                    // Replace the smallest counter and inherit its count as error
+                    Entry smallest = ranking.pollLast();
+                    counters.remove(smallest.symbol);
+                    entry = new Entry(symbol, smallest.volume + volume);
+                    entry.error = smallest.volume;
+                    counters.put(symbol, entry);
+                }
+                ranking.add(entry);
+            }
+        }
+        return ranking;
+    }
+
+    private int slotOf(long second) {
+        return (int) Math.floorMod(second, (long) horizonSeconds);
+    }
+
+    private static class Entry {
+        private final String symbol;
+        private long volume;
+        private long error; // Upper bound of the overestimate in approximate summaries
+
+        private Entry(String symbol, long volume) {
+            this.symbol = symbol;
+            this.volume = volume;
+        }
+    }
+
+    /**
+     * Running per-symbol totals of one window. When more than maxSymbols
+     * distinct symbols trade within the window, the totals are dropped and the
+     * window is answered by approximate summaries until the overflow slides out.
+     */
+    private class Window {
+        private final int seconds;
+        private final Map<String, Entry> entries = new HashMap<>();
+        private final TreeSet<Entry> ranking = new TreeSet<>(RANKING);
+        private boolean approximate;
+        private long lastOverflowSecond;
+
+        private Window(int seconds) {
+            this.seconds = seconds;
+        }
+
+        private void add(String symbol, long volume) {
+            if (approximate) {
+                return;
+            }
+            Entry entry = entries.get(symbol);
+            if (entry != null) {
+                ranking.remove(entry);
+                entry.volume += volume;
+            } else if (entries.size() < maxSymbols) {
+                entry = new Entry(symbol, volume);
+                entries.put(symbol, entry);
+            } else {
+                entries.clear();
+                ranking.clear();
+                approximate = true;
+                lastOverflowSecond = latestSecond;
+                return;
+            }
+            ranking.add(entry);
+        }
+
+        private void subtract(String symbol, long volume) {
+            Entry entry = entries.get(symbol);
+            if (entry == null) {
+                return;
+            }
+            ranking.remove(entry);
+            entry.volume -= volume;
+            if (entry.volume <= 0) {
+                entries.remove(symbol);
+            } else {
+                ranking.add(entry);
+            }
+        }
+
+        private void reset() {
+            entries.clear();
+            ranking.clear();
+            approximate = false;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.pga.jasdaq.db.service;
+
+import com.mysql.cj.jdbc.JdbcStatement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Bulk loads generated trades into the trades table without building SQL text.
+ *
+ * BATCH binds every row to one parameterized insert and sends it in batches;
+ * with rewriteBatchedStatements=true on the JDBC URL the driver turns each
+ * batch into multi-row inserts. LOAD_DATA encodes the rows as CSV on the fly
+ * and streams them through LOAD DATA LOCAL INFILE, which requires
+ * allowLoadLocalInfile=true on the URL and local_infile enabled on the server.
+ *
+ * Rows are pulled one at a time from a {@link RowGenerator} into a reused
+ * {@link TradeRow}, so neither mode materializes the data set. Both join the
+ * caller's transaction when there is one.
+ */
+@Component
+public class TradeBulkIngestor {
+
+    private static final Logger logger = LoggerFactory.getLogger(TradeBulkIngestor.class);
+    private static final String INSERT_SQL =
+        "INSERT INTO trades (symbol, price, volume, timestamp, order_type) VALUES (?, ?, ?, ?, ?)";
+    private static final String LOAD_DATA_SQL =
+        "LOAD DATA LOCAL INFILE 'trades.csv' INTO TABLE trades " +
+        "FIELDS TERMINATED BY ',' LINES TERMINATED BY '\\n' " +
+        "(symbol, price, volume, timestamp, order_type)";
+    private static final DateTimeFormatter CSV_TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public TradeBulkIngestor(JdbcTemplate jdbcTemplate,
+                             @Value("${jasdaq.ingest.batch-size:5000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Source of generated rows. Each call fills the given row with the next trade.
+     */
+    @FunctionalInterface
+    public interface RowGenerator {
+        void next(TradeRow row);
+    }
+
+    /**
+     * Mutable trade row reused for every generated trade. Prices are in cents.
+     */
+    public static class TradeRow {
+        private String symbol;
+        private long priceCents;
+        private int volume;
+        private LocalDateTime timestamp;
+        private String orderType;
+
+        public void set(String symbol, long priceCents, int volume, LocalDateTime timestamp, String orderType) {
+            this.symbol = symbol;
+            this.priceCents = priceCents;
+            this.volume = volume;
+            this.timestamp = timestamp;
+            this.orderType = orderType;
+        }
+    }
+
+    /**
+     * Insert {@code count} generated trades.
+     *
+     * @return The number of rows inserted.
+     */
+    public long ingest(IngestMode mode, int count, RowGenerator generator) {
+        return switch (mode) {
+            case BATCH -> insertBatched(count, generator);
+            case LOAD_DATA -> loadData(count, generator);
+        };
+    }
+
+    private long insertBatched(int count, RowGenerator generator) {
+        Long inserted = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL)) {
+                TradeRow row = new TradeRow();
+                long total = 0;
+                int pending = 0;
+                for (int i = 0; i < count; i++) {
+                    generator.next(row);
+                    statement.setString(1, row.symbol);
+                    statement.setBigDecimal(2, BigDecimal.valueOf(row.priceCents, 2));
+                    statement.setInt(3, row.volume);
+                    statement.setObject(4, row.timestamp);
+                    statement.setString(5, row.orderType);
+                    statement.addBatch();
+                    if (++pending == batchSize) {
+                        statement.executeBatch();
+                        total += pending;
+                        pending = 0;
+                        logger.debug("Inserted {} of {} trades", total, count);
+                    }
+                }
+                if (pending > 0) {
+                    statement.executeBatch();
+                    total += pending;
+                }
+                return total;
+            }
+        });
+        return inserted == null ? 0 : inserted;
+    }
+
+    private long loadData(int count, RowGenerator generator) {
+        Long loaded = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                // The driver reads the "file" from this stream instead of the local file system
+                statement.unwrap(JdbcStatement.class).setLocalInfileInputStream(new CsvRowStream(count, generator));
+                return statement.executeLargeUpdate(LOAD_DATA_SQL);
+            }
+        });
+        return loaded == null ? 0 : loaded;
+    }
+
+    /**
+     * Encodes generated rows as CSV lines on demand. Only the current line is
+     * held in memory.
+     */
+    private static class CsvRowStream extends InputStream {
+        private final int count;
+        private final RowGenerator generator;
+        private final TradeRow row = new TradeRow();
+        private final StringBuilder line = new StringBuilder(64);
+        private byte[] bytes = new byte[64];
+        private int length;
+        private int position;
+        private int emitted;
+
+        CsvRowStream(int count, RowGenerator generator) {
+            this.count = count;
+            this.generator = generator;
+        }
+
+        @Override
+        public int read() {
+            if (!fill()) {
+                return -1;
+            }
+            return bytes[position++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            int copied = 0;
+            while (copied < len && fill()) {
+                int chunk = Math.min(len - copied, length - position);
+                System.arraycopy(bytes, position, buffer, offset + copied, chunk);
+                position += chunk;
+                copied += chunk;
+            }
+            return copied == 0 ? -1 : copied;
+        }
+
+        private boolean fill() {
+            if (position < length) {
+                return true;
+            }
+            if (emitted == count) {
+                return false;
+            }
+            generator.next(row);
+            emitted++;
+            encode();
+            return true;
+        }
+
+        private void encode() {
+            line.setLength(0);
+            appendField(row.symbol).append(',');
+            line.append(row.priceCents / 100).append('.');
+            long cents = row.priceCents % 100;
+            if (cents < 10) {
+                line.append('0');
+            }
+            line.append(cents).append(',');
+            line.append(row.volume).append(',');
+            CSV_TIMESTAMP.formatTo(row.timestamp, line);
+            line.append(',');
+            appendField(row.orderType).append('\n');
+
+            if (bytes.length < line.length()) {
+                bytes = new byte[line.length() * 2];
+            }
+            for (int i = 0; i < line.length(); i++) {
+                bytes[i] = (byte) line.charAt(i); // Every field is ASCII
+            }
+            length = line.length();
+            position = 0;
+        }
+
+        private StringBuilder appendField(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == ',' || c == '\n' || c == '\r' || c == '\\' || c > 0x7f) {
+                    throw new IllegalArgumentException("Unsupported character in CSV field: " + value);
+                }
+            }
+            return line.append(value);
+        }
+    }
+}
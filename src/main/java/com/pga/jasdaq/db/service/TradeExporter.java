@@ -0,0 +1,168 @@
+package com.pga.jasdaq.db.service;
+
+import com.pga.jasdaq.db.entity.CompactTradeFormat;
+import com.pga.jasdaq.db.repository.SymbolDictionary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams trades in a time range to an output stream as NDJSON or CSV.
+ *
+ * The query runs on a forward-only, read-only statement with a fetch size of
+ * Integer.MIN_VALUE, which makes MySQL Connector/J stream rows from the server
+ * one at a time instead of buffering the whole result. Each row is formatted
+ * straight into a buffered writer and no entities are built, so memory use
+ * does not depend on the number of rows exported. The connection is busy
+ * until the last row has been read, so exports hold it for their duration.
+ */
+@Component
+public class TradeExporter {
+
+    private static final int WRITE_BUFFER_CHARS = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SymbolDictionary symbolDictionary;
+    private final boolean compactStorage;
+
+    public TradeExporter(JdbcTemplate jdbcTemplate, SymbolDictionary symbolDictionary,
+                         @Value("${jasdaq.storage.layout:standard}") String storageLayout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.symbolDictionary = symbolDictionary;
+        this.compactStorage = "compact".equalsIgnoreCase(storageLayout);
+    }
+
+    /**
+     * Write every trade with a timestamp in [from, to), oldest first.
+     *
+     * @param symbol Only trades of this symbol, or all symbols if null
+     * @return The number of trades written
+     */
+    public long export(ExportFormat format, String symbol, LocalDateTime from, LocalDateTime to, OutputStream out)
+            throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER_CHARS);
+        if (format == ExportFormat.CSV) {
+            writer.write("id,symbol,price,volume,timestamp,orderType\n");
+        }
+
+        RowWriter rowWriter = new RowWriter(format, writer);
+        List<Object> params = new ArrayList<>();
+        String sql = compactStorage ? compactQuery(symbol, from, to, params) : standardQuery(symbol, from, to, params);
+        if (sql != null) {
+            try {
+                jdbcTemplate.query(connection -> {
+                    PreparedStatement statement = connection.prepareStatement(
+                        sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    statement.setFetchSize(Integer.MIN_VALUE);
+                    for (int i = 0; i < params.size(); i++) {
+                        statement.setObject(i + 1, params.get(i));
+                    }
+                    return statement;
+                }, rowWriter);
+            } catch (UncheckedIOException e) {
+                // The client went away; report the original failure
+                throw e.getCause();
+            }
+        }
+        writer.flush();
+        return rowWriter.rows;
+    }
+
+    private String standardQuery(String symbol, LocalDateTime from, LocalDateTime to, List<Object> params) {
+        StringBuilder sql = new StringBuilder(
+            "SELECT id, symbol, price, volume, timestamp, order_type FROM trades WHERE timestamp >= ? AND timestamp < ?");
+        params.add(from);
+        params.add(to);
+        if (symbol != null) {
+            sql.append(" AND symbol = ?");
+            params.add(symbol);
+        }
+        return sql.append(" ORDER BY timestamp, id").toString();
+    }
+
+    // Returns null if the symbol has never traded
+    private String compactQuery(String symbol, LocalDateTime from, LocalDateTime to, List<Object> params) {
+        StringBuilder sql = new StringBuilder(
+            "SELECT id, symbol_id, price_ticks, volume, ts_micros, side FROM trades_compact " +
+            "WHERE ts_micros >= ? AND ts_micros < ?");
+        params.add(CompactTradeFormat.toEpochMicros(from));
+        params.add(CompactTradeFormat.toEpochMicros(to));
+        if (symbol != null) {
+            Short symbolId = symbolDictionary.findId(symbol);
+            if (symbolId == null) {
+                return null;
+            }
+            sql.append(" AND symbol_id = ?");
+            params.add(symbolId);
+        }
+        return sql.append(" ORDER BY ts_micros, id").toString();
+    }
+
+    private class RowWriter implements RowCallbackHandler {
+        private final ExportFormat format;
+        private final Writer writer;
+        private final StringBuilder line = new StringBuilder(128);
+        private long rows;
+
+        private RowWriter(ExportFormat format, Writer writer) {
+            this.format = format;
+            this.writer = writer;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long id = rs.getLong(1);
+            String symbol;
+            String price;
+            int volume = rs.getInt(4);
+            LocalDateTime timestamp;
+            String orderType;
+            if (compactStorage) {
+                symbol = symbolDictionary.nameOf(rs.getShort(2));
+                price = CompactTradeFormat.fromTicks(rs.getLong(3)).toPlainString();
+                timestamp = CompactTradeFormat.fromEpochMicros(rs.getLong(5));
+                orderType = CompactTradeFormat.fromSide(rs.getByte(6));
+            } else {
+                symbol = rs.getString(2);
+                price = rs.getBigDecimal(3).toPlainString();
+                timestamp = rs.getObject(5, LocalDateTime.class);
+                orderType = rs.getString(6);
+            }
+
+            line.setLength(0);
+            if (format == ExportFormat.CSV) {
+                line.append(id).append(',').append(symbol).append(',').append(price).append(',')
+                    .append(volume).append(',').append(timestamp).append(',').append(orderType).append('\n');
+            } else {
+                // Symbols and order types are plain tickers and BUY/SELL, so no escaping is needed
+                line.append("{\"id\":").append(id)
+                    .append(",\"symbol\":\"").append(symbol)
+                    .append("\",\"price\":").append(price)
+                    .append(",\"volume\":").append(volume)
+                    .append(",\"timestamp\":\"").append(timestamp)
+                    .append("\",\"orderType\":\"").append(orderType).append("\"}\n");
+            }
+            try {
+                writer.append(line);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            rows++;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.pga.jasdaq.db.service;
+
+/**
+ * Thrown when a trade generation job is started while another one is running.
+ */
+public class TradeGenerationRunningException extends IllegalStateException {
+
+    public TradeGenerationRunningException() {
+        super("A trade generation job is already running");
+    }
+}
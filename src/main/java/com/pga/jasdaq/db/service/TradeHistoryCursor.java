@@ -0,0 +1,64 @@
+package com.pga.jasdaq.db.service;
+
+import com.pga.jasdaq.db.entity.CompactTradeFormat;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position in the trade history of a symbol: the (timestamp, id) of the last
+ * trade returned. Clients receive it as an opaque URL-safe token holding the
+ * epoch microseconds, the id and the symbol, so a cursor cannot be replayed
+ * against another symbol.
+ */
+public final class TradeHistoryCursor {
+
+    private final String symbol;
+    private final LocalDateTime timestamp;
+    private final long id;
+
+    public TradeHistoryCursor(String symbol, LocalDateTime timestamp, long id) {
+        this.symbol = symbol;
+        this.timestamp = timestamp;
+        this.id = id;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String encode() {
+        byte[] symbolBytes = symbol.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(2 * Long.BYTES + symbolBytes.length);
+        buffer.putLong(CompactTradeFormat.toEpochMicros(timestamp)).putLong(id).put(symbolBytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /**
+     * @throws IllegalArgumentException If the token is malformed
+     */
+    public static TradeHistoryCursor decode(String token) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Base64.getUrlDecoder().decode(token));
+            long micros = buffer.getLong();
+            long id = buffer.getLong();
+            byte[] symbolBytes = new byte[buffer.remaining()];
+            buffer.get(symbolBytes);
+            return new TradeHistoryCursor(
+                new String(symbolBytes, StandardCharsets.UTF_8), CompactTradeFormat.fromEpochMicros(micros), id);
+        } catch (IllegalArgumentException | BufferUnderflowException e) {
+            throw new IllegalArgumentException("Malformed history cursor", e);
+        }
+    }
+}
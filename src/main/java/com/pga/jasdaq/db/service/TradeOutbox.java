@@ -0,0 +1,342 @@
+package com.pga.jasdaq.db.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+/**
+ * Durable local outbox of executed trades in memory-mapped segment files.
+ *
+ * The matching path appends a trade as a fixed 64-byte record and returns
+ * without touching MySQL; the {@link TradeOutboxRelay} forwards records in
+ * sequence order and advances the relayed watermark, after which fully
+ * relayed segments are deleted. Each record gets a sequence number, written
+ * last as its commit marker, so a record torn by a crash reads as empty and
+ * recovery resumes after the last complete one.
+ *
+ * Stores to a mapped file survive a crash of the process; with sync-writes
+ * every append is also forced to disk to survive a crash of the machine, at
+ * the cost of a flush per trade.
+ *
+ * Appends are serialized on the outbox. The relay reads concurrently up to
+ * the last published sequence without taking the lock.
+ */
+@Component
+public class TradeOutbox {
+
+    private static final Logger logger = LoggerFactory.getLogger(TradeOutbox.class);
+    private static final String SEGMENT_PREFIX = "trades-";
+    private static final String SEGMENT_SUFFIX = ".outbox";
+    private static final String WATERMARK_FILE = "relayed.watermark";
+
+    // Record layout: sequence, timestamp (long), price, shares, buyOrderId, sellOrderId (int),
+    // isBuy, symbol length (byte), symbol (up to 16 bytes)
+    private static final int SEQUENCE = 0;
+    private static final int TIMESTAMP = 8;
+    private static final int PRICE = 16;
+    private static final int SHARES = 20;
+    private static final int BUY_ORDER_ID = 24;
+    private static final int SELL_ORDER_ID = 28;
+    private static final int IS_BUY = 32;
+    private static final int SYMBOL_LENGTH = 33;
+    private static final int SYMBOL = 34;
+    private static final int MAX_SYMBOL_BYTES = 16;
+    private static final int RECORD_SIZE = 64;
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentRecords;
+    private final boolean syncWrites;
+    private final ConcurrentNavigableMap<Long, MappedByteBuffer> segments = new ConcurrentSkipListMap<>();
+    private MappedByteBuffer watermark;
+    private MappedByteBuffer currentSegment;
+    private long currentSegmentFirst;
+    private volatile long lastSequence; // Newest complete record, 0 if none was ever written
+
+    public TradeOutbox(@Value("${jasdaq.outbox.enabled:true}") boolean enabled,
+                       @Value("${jasdaq.outbox.directory:data/outbox}") String directory,
+                       @Value("${jasdaq.outbox.segment-records:65536}") int segmentRecords,
+                       @Value("${jasdaq.outbox.sync-writes:false}") boolean syncWrites) {
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.segmentRecords = segmentRecords;
+        this.syncWrites = syncWrites;
+        if (enabled) {
+            try {
+                open();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to open trade outbox in " + directory, e);
+            }
+        }
+    }
+
+    /**
+     * A relayable trade read back from the outbox.
+     */
+    public static class Entry {
+        private final long sequence;
+        private final String symbol;
+        private final int price;
+        private final int shares;
+        private final long timestamp;
+        private final boolean isBuy;
+
+        private Entry(long sequence, String symbol, int price, int shares, long timestamp, boolean isBuy) {
+            this.sequence = sequence;
+            this.symbol = symbol;
+            this.price = price;
+            this.shares = shares;
+            this.timestamp = timestamp;
+            this.isBuy = isBuy;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public String getSymbol() {
+            return symbol;
+        }
+
+        public int getPrice() {
+            return price;
+        }
+
+        public int getShares() {
+            return shares;
+        }
+
+        /**
+         * Execution time in epoch milliseconds.
+         */
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public boolean isBuy() {
+            return isBuy;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Append an executed trade.
+     *
+     * @return The sequence number of the trade.
+     * @throws UncheckedIOException If a new segment could not be created.
+     */
+    public synchronized long append(String symbol, int price, int shares, long timestamp,
+                                    int buyOrderId, int sellOrderId, boolean isBuy) {
+        byte[] symbolBytes = symbol.getBytes(StandardCharsets.US_ASCII);
+        if (symbolBytes.length > MAX_SYMBOL_BYTES) {
+            throw new IllegalArgumentException("Symbol too long for the trade outbox: " + symbol);
+        }
+        long sequence = lastSequence + 1;
+        if (currentSegment == null || sequence - currentSegmentFirst >= segmentRecords) {
+            try {
+                roll(sequence);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to create trade outbox segment", e);
+            }
+        }
+
+        int offset = (int) (sequence - currentSegmentFirst) * RECORD_SIZE;
+        currentSegment.putLong(offset + TIMESTAMP, timestamp);
+        currentSegment.putInt(offset + PRICE, price);
+        currentSegment.putInt(offset + SHARES, shares);
+        currentSegment.putInt(offset + BUY_ORDER_ID, buyOrderId);
+        currentSegment.putInt(offset + SELL_ORDER_ID, sellOrderId);
+        currentSegment.put(offset + IS_BUY, (byte) (isBuy ? 1 : 0));
+        currentSegment.put(offset + SYMBOL_LENGTH, (byte) symbolBytes.length);
+        currentSegment.put(offset + SYMBOL, symbolBytes);
+        // Commit marker: a record without its sequence is ignored on recovery
+        currentSegment.putLong(offset + SEQUENCE, sequence);
+        if (syncWrites) {
+            currentSegment.force(offset, RECORD_SIZE);
+        }
+        lastSequence = sequence;
+        return sequence;
+    }
+
+    /**
+     * Read up to {@code limit} records following the given sequence.
+     */
+    public List<Entry> read(long afterSequence, int limit) {
+        long last = lastSequence;
+        List<Entry> entries = new ArrayList<>();
+        for (long sequence = afterSequence + 1; sequence <= last && entries.size() < limit; sequence++) {
+            Map.Entry<Long, MappedByteBuffer> segment = segments.floorEntry(sequence);
+            if (segment == null) {
+                break;
+            }
+            MappedByteBuffer buffer = segment.getValue();
+            int offset = (int) (sequence - segment.getKey()) * RECORD_SIZE;
+            byte[] symbolBytes = new byte[buffer.get(offset + SYMBOL_LENGTH)];
+            buffer.get(offset + SYMBOL, symbolBytes);
+            entries.add(new Entry(
+                sequence,
+                new String(symbolBytes, StandardCharsets.US_ASCII),
+                buffer.getInt(offset + PRICE),
+                buffer.getInt(offset + SHARES),
+                buffer.getLong(offset + TIMESTAMP),
+                buffer.get(offset + IS_BUY) == 1));
+        }
+        return entries;
+    }
+
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Sequence of the newest record known to be in MySQL.
+     */
+    public synchronized long getRelayedSequence() {
+        return watermark.getLong(0);
+    }
+
+    /**
+     * Persist the relayed watermark and delete segments it has passed.
+     */
+    public synchronized void markRelayed(long sequence) {
+        if (sequence <= watermark.getLong(0)) {
+            return;
+        }
+        watermark.putLong(0, sequence);
+        watermark.force();
+
+        // Keep the segment being written even when it is fully relayed
+        for (Long first : new ArrayList<>(segments.headMap(currentSegmentFirst).keySet())) {
+            Long next = segments.higherKey(first);
+            if (next != null && next - 1 <= sequence) {
+                segments.remove(first);
+                try {
+                    Files.deleteIfExists(segmentPath(first));
+                } catch (IOException e) {
+                    logger.warn("Failed to delete relayed outbox segment {}", segmentPath(first), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Make sure new trades get sequences after the given one, e.g. the
+     * watermark recorded in MySQL when the outbox directory was lost. Trades
+     * at or below it would otherwise be skipped as already relayed.
+     */
+    public synchronized void ensureSequenceAfter(long sequence) {
+        if (!enabled || sequence <= lastSequence) {
+            return;
+        }
+        logger.warn("Trade outbox is behind the relayed sequence {}; continuing after it", sequence);
+        lastSequence = sequence;
+        currentSegment = null;
+        watermark.putLong(0, sequence);
+        watermark.force();
+    }
+
+    public Map<String, Object> status() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("enabled", enabled);
+        if (enabled) {
+            long relayed = getRelayedSequence();
+            status.put("lastSequence", lastSequence);
+            status.put("relayedSequence", relayed);
+            status.put("pending", lastSequence - relayed);
+            status.put("segments", segments.size());
+        }
+        return status;
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (!enabled) {
+            return;
+        }
+        if (currentSegment != null) {
+            currentSegment.force();
+        }
+        watermark.force();
+    }
+
+    private void open() throws IOException {
+        Files.createDirectories(directory);
+        watermark = map(directory.resolve(WATERMARK_FILE), Long.BYTES);
+
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                String name = file.getFileName().toString();
+                if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+                    long first = Long.parseLong(
+                        name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+                    segments.put(first, map(file, (long) segmentRecords * RECORD_SIZE));
+                }
+            }
+        }
+
+        long relayed = watermark.getLong(0);
+        lastSequence = relayed;
+        if (!segments.isEmpty()) {
+            currentSegmentFirst = segments.lastKey();
+            currentSegment = segments.lastEntry().getValue();
+            // Resume after the last record with its commit marker
+            int capacity = currentSegment.capacity() / RECORD_SIZE;
+            int slot = 0;
+            while (slot < capacity && currentSegment.getLong(slot * RECORD_SIZE + SEQUENCE) == currentSegmentFirst + slot) {
+                slot++;
+            }
+            if (slot < capacity && currentSegment.getLong(slot * RECORD_SIZE + TIMESTAMP) != 0) {
+                logger.warn("Discarded a torn trade outbox record at sequence {}", currentSegmentFirst + slot);
+            }
+            lastSequence = Math.max(relayed, currentSegmentFirst + slot - 1);
+        }
+        logger.info("Opened trade outbox in {}: last sequence {}, relayed {}, {} segment(s)",
+            directory, lastSequence, relayed, segments.size());
+    }
+
+    private void roll(long firstSequence) throws IOException {
+        if (currentSegment != null) {
+            currentSegment.force();
+        }
+        currentSegment = map(segmentPath(firstSequence), (long) segmentRecords * RECORD_SIZE);
+        currentSegmentFirst = firstSequence;
+        segments.put(firstSequence, currentSegment);
+    }
+
+    private Path segmentPath(long firstSequence) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+    }
+
+    private static MappedByteBuffer map(Path file, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, channel.size()));
+            buffer.order(ByteOrder.nativeOrder());
+            return buffer;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.pga.jasdaq.db.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Forwards trades from the {@link TradeOutbox} to MySQL in batches on a
+ * background thread.
+ *
+ * Every batch is inserted in one transaction together with the sequence of
+ * its last trade in trade_outbox_watermark, and sequences at or below the
+ * stored one are skipped. Replaying a batch after a crash between the commit
+ * and the local watermark update therefore inserts nothing twice. While
+ * MySQL is unavailable the relay retries with exponential backoff and trades
+ * accumulate in the outbox.
+ */
+@Component
+public class TradeOutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(TradeOutboxRelay.class);
+
+    private final TradeOutbox outbox;
+    private final TradeService tradeService;
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final long pollIntervalNanos;
+    private final long maxBackoffNanos;
+    private volatile boolean running;
+    private Thread relayThread;
+
+    public TradeOutboxRelay(TradeOutbox outbox, TradeService tradeService, JdbcTemplate jdbcTemplate,
+                            @Value("${jasdaq.outbox.relay.batch-size:500}") int batchSize,
+                            @Value("${jasdaq.outbox.relay.poll-interval-ms:20}") long pollIntervalMs,
+                            @Value("${jasdaq.outbox.relay.max-backoff-ms:5000}") long maxBackoffMs) {
+        this.outbox = outbox;
+        this.tradeService = tradeService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        this.pollIntervalNanos = pollIntervalMs * 1_000_000;
+        this.maxBackoffNanos = maxBackoffMs * 1_000_000;
+    }
+
+    /**
+     * Create the watermark table and make sure the outbox continues after it.
+     */
+    public void initialize() {
+        if (!outbox.isEnabled()) {
+            return;
+        }
+        jdbcTemplate.execute(
+            "CREATE TABLE IF NOT EXISTS trade_outbox_watermark (" +
+            "  id TINYINT PRIMARY KEY," +
+            "  last_sequence BIGINT NOT NULL" +
+            ")"
+        );
+        jdbcTemplate.update("INSERT IGNORE INTO trade_outbox_watermark (id, last_sequence) VALUES (1, 0)");
+        Long committed = jdbcTemplate.queryForObject(
+            "SELECT last_sequence FROM trade_outbox_watermark WHERE id = 1", Long.class);
+        outbox.ensureSequenceAfter(committed != null ? committed : 0);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!outbox.isEnabled() || running) {
+            return;
+        }
+        running = true;
+        relayThread = new Thread(this::relay, "trade-outbox-relay");
+        relayThread.setDaemon(true);
+        relayThread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        Thread thread;
+        synchronized (this) {
+            running = false;
+            thread = relayThread;
+        }
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            // Let an in-flight batch commit rather than interrupting it
+            thread.join(10_000);
+        }
+    }
+
+    private void relay() {
+        long backoffNanos = pollIntervalNanos;
+        while (running) {
+            try {
+                long relayed = outbox.getRelayedSequence();
+                List<TradeOutbox.Entry> entries = outbox.read(relayed, batchSize);
+                if (entries.isEmpty()) {
+                    LockSupport.parkNanos(pollIntervalNanos);
+                    continue;
+                }
+                tradeService.persistOutboxEntries(entries);
+                outbox.markRelayed(entries.get(entries.size() - 1).getSequence());
+                backoffNanos = pollIntervalNanos;
+            } catch (Exception e) {
+                logger.warn("Failed to relay trades from the outbox ({} pending), retrying in {} ms: {}",
+                    outbox.getLastSequence() - outbox.getRelayedSequence(), backoffNanos / 1_000_000, e.getMessage());
+                LockSupport.parkNanos(backoffNanos);
+                backoffNanos = Math.min(backoffNanos * 2, maxBackoffNanos);
+            }
+        }
+    }
+}
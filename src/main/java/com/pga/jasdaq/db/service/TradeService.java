@@ -1,28 +1,54 @@
 package com.pga.jasdaq.db.service;
 
+import com.pga.jasdaq.db.config.DataSourceRoute;
+import com.pga.jasdaq.db.config.RoutingDataSource;
+import com.pga.jasdaq.db.config.TradePartitionManager;
+import com.pga.jasdaq.db.config.UseDataSource;
+import com.pga.jasdaq.db.entity.CompactTradeFormat;
+import com.pga.jasdaq.db.entity.TradeColumns;
 import com.pga.jasdaq.db.entity.TradeEntity;
+import com.pga.jasdaq.db.entity.TradeView;
+import com.pga.jasdaq.db.repository.CompactTradeRepository;
+import com.pga.jasdaq.db.repository.SymbolDictionary;
+import com.pga.jasdaq.db.repository.TradeReadRepository;
 import com.pga.jasdaq.db.repository.TradeRepository;
 import com.pga.jasdaq.orderbook.Trade;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
 
 @Service
 public class TradeService {
@@ -33,13 +59,109 @@ public class TradeService {
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss");
     
     private final TradeRepository tradeRepository;
+    private final TradeReadRepository tradeReadRepository;
     private final JdbcTemplate jdbcTemplate;
+    private final RollingTradeStats rollingStats;
+    private final TopVolumeTracker topVolumeTracker;
+    private final RecentTradesCache recentTradesCache;
+    private final TradeBulkIngestor bulkIngestor;
+    private final ParallelTradeGenerator parallelTradeGenerator;
+    private final TradePartitionManager partitionManager;
+    private final CompactTradeRepository compactTradeRepository;
+    private final SymbolDictionary symbolDictionary;
+    private final CompactTradeMigrator compactTradeMigrator;
+    private final TradeBarRollup barRollup;
+    private final RoutingDataSource routingDataSource;
+    private final TradeExporter tradeExporter;
+    private final DbBenchmarkHarness benchmarkHarness;
+    private final TradeOutbox tradeOutbox;
+    // Live trades and analytics use trades_compact instead of trades
+    private final boolean compactStorage;
+    // The proxied bean, for calls that need their own transaction or data source route
+    private final ObjectProvider<TradeService> self;
     private final Random random = new Random();
 
     @Autowired
-    public TradeService(TradeRepository tradeRepository, JdbcTemplate jdbcTemplate) {
+    public TradeService(TradeRepository tradeRepository, TradeReadRepository tradeReadRepository,
+                        JdbcTemplate jdbcTemplate,
+                        RollingTradeStats rollingStats, TopVolumeTracker topVolumeTracker,
+                        RecentTradesCache recentTradesCache, TradeBulkIngestor bulkIngestor,
+                        ParallelTradeGenerator parallelTradeGenerator,
+                        TradePartitionManager partitionManager,
+                        CompactTradeRepository compactTradeRepository, SymbolDictionary symbolDictionary,
+                        CompactTradeMigrator compactTradeMigrator, TradeBarRollup barRollup,
+                        RoutingDataSource routingDataSource, TradeExporter tradeExporter,
+                        DbBenchmarkHarness benchmarkHarness, TradeOutbox tradeOutbox,
+                        ObjectProvider<TradeService> self,
+                        @Value("${jasdaq.storage.layout:standard}") String storageLayout) {
         this.tradeRepository = tradeRepository;
+        this.tradeReadRepository = tradeReadRepository;
         this.jdbcTemplate = jdbcTemplate;
+        this.rollingStats = rollingStats;
+        this.topVolumeTracker = topVolumeTracker;
+        this.recentTradesCache = recentTradesCache;
+        this.bulkIngestor = bulkIngestor;
+        this.parallelTradeGenerator = parallelTradeGenerator;
+        this.partitionManager = partitionManager;
+        this.compactTradeRepository = compactTradeRepository;
+        this.symbolDictionary = symbolDictionary;
+        this.compactTradeMigrator = compactTradeMigrator;
+        this.barRollup = barRollup;
+        this.routingDataSource = routingDataSource;
+        this.tradeExporter = tradeExporter;
+        this.benchmarkHarness = benchmarkHarness;
+        this.tradeOutbox = tradeOutbox;
+        this.compactStorage = "compact".equalsIgnoreCase(storageLayout);
+        this.self = self;
+    }
+
+    /**
+     * Prime the in-memory statistics and top-volume windows from the trades
+     * inside their horizons. Until this completes, analytics queries are
+     * answered from the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @UseDataSource(DataSourceRoute.ANALYTICS)
+    public void primeInMemoryStats() {
+        long startTime = System.nanoTime();
+        int horizonMinutes = Math.max(rollingStats.getHorizonMinutes(), topVolumeTracker.getHorizonMinutes());
+        LocalDateTime cutoffTime = LocalDateTime.now().minusMinutes(horizonMinutes);
+
+        if (compactStorage) {
+            // Ticks are cents, the unit the in-memory statistics use
+            compactTradeRepository.aggregatePerSecond(cutoffTime, this::recordSecondInMemory);
+        } else {
+            // DATETIME has second precision, so grouping by timestamp yields per-second buckets
+            jdbcTemplate.query(
+                "SELECT symbol, timestamp, COUNT(*), SUM(price), SUM(volume), MIN(price), MAX(price) " +
+                "FROM trades WHERE timestamp >= ? GROUP BY symbol, timestamp",
+                rs -> {
+                    recordSecondInMemory(
+                        rs.getString(1),
+                        toEpochSecond(rs.getObject(2, LocalDateTime.class)),
+                        rs.getLong(3),
+                        toCents(rs.getBigDecimal(4)),
+                        rs.getLong(5),
+                        toCents(rs.getBigDecimal(6)),
+                        toCents(rs.getBigDecimal(7)));
+                },
+                cutoffTime);
+        }
+        rollingStats.markPrimed();
+        topVolumeTracker.markPrimed();
+
+        long executionTime = (System.nanoTime() - startTime) / 1_000_000;
+        logger.info("Primed in-memory trade statistics ({} minute horizon) in {} ms",
+            horizonMinutes, executionTime);
+        
+        // Warm the recent-trades rings of every symbol present in the table
+        List<String> symbols = compactStorage
+            ? symbolDictionary.allSymbols()
+            : jdbcTemplate.queryForList("SELECT DISTINCT symbol FROM trades", String.class);
+        for (String symbol : symbols) {
+            getLastTrades(symbol, recentTradesCache.getCapacity());
+        }
+        logger.info("Warmed recent-trades cache for {} symbols", symbols.size());
     }
 
     /**
@@ -51,18 +173,27 @@ public class TradeService {
      * @return The created entity
      */
     @Transactional
+    @UseDataSource(DataSourceRoute.WRITE)
     public TradeEntity saveTrade(Trade trade, String symbol, boolean isBuy) {
         long startTime = System.nanoTime();
         
-        TradeEntity tradeEntity = new TradeEntity(
-            symbol,
-            BigDecimal.valueOf(trade.getTradePrice()).setScale(2, RoundingMode.HALF_UP),
-            trade.getSharesTraded(),
-            LocalDateTime.now(),
-            isBuy ? "BUY" : "SELL"
-        );
-        
-        TradeEntity savedEntity = tradeRepository.save(tradeEntity);
+        // Execution time rather than now, since the ring consumer may run behind the engine;
+        // seconds precision, as DATETIME stores it, so the caches hold what a reload would read
+        TradeEntity tradeEntity = toEntity(symbol, trade.getTradePrice(), trade.getSharesTraded(),
+            LocalDateTime.ofInstant(Instant.ofEpochMilli(trade.getTimestamp()), ZoneId.systemDefault())
+                .truncatedTo(ChronoUnit.SECONDS),
+            isBuy);
+        
+        TradeEntity savedEntity = compactStorage
+            ? compactTradeRepository.save(tradeEntity)
+            : tradeRepository.save(tradeEntity);
+        barRollup.record(savedEntity.getSymbol(), toCents(savedEntity.getPrice()), savedEntity.getVolume(),
+            savedEntity.getTimestamp(), savedEntity.getId());
+        afterCommit(() -> {
+            recordInMemory(savedEntity.getSymbol(), savedEntity.getPrice(), savedEntity.getVolume(),
+                savedEntity.getTimestamp());
+            recentTradesCache.add(TradeView.of(savedEntity));
+        });
         
         long endTime = System.nanoTime();
         long executionTime = (endTime - startTime) / 1_000_000; // Convert to milliseconds
@@ -72,15 +203,93 @@ public class TradeService {
         return savedEntity;
     }
     
+    /**
+     * Persist trades relayed from the {@link TradeOutbox} in one transaction.
+     *
+     * The outbox sequence of the last trade is stored in the same transaction,
+     * and trades at or below the stored sequence are skipped, so a batch
+     * replayed after a crash is not inserted twice.
+     *
+     * @param entries Outbox entries in sequence order
+     * @return The number of trades inserted
+     */
+    @Transactional
+    @UseDataSource(DataSourceRoute.WRITE)
+    public int persistOutboxEntries(List<TradeOutbox.Entry> entries) {
+        Long committed = jdbcTemplate.queryForObject(
+            "SELECT last_sequence FROM trade_outbox_watermark WHERE id = 1 FOR UPDATE", Long.class);
+        long lastCommitted = committed != null ? committed : 0;
+
+        List<TradeEntity> tradeEntities = new ArrayList<>(entries.size());
+        long lastSequence = lastCommitted;
+        for (TradeOutbox.Entry entry : entries) {
+            if (entry.getSequence() <= lastCommitted) {
+                continue;
+            }
+            tradeEntities.add(toEntity(entry.getSymbol(), entry.getPrice(), entry.getShares(),
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(entry.getTimestamp()), ZoneId.systemDefault())
+                    .truncatedTo(ChronoUnit.SECONDS),
+                entry.isBuy()));
+            lastSequence = entry.getSequence();
+        }
+        if (tradeEntities.isEmpty()) {
+            return 0;
+        }
+
+        if (compactStorage) {
+            compactTradeRepository.saveAll(tradeEntities);
+        } else {
+            tradeRepository.saveAll(tradeEntities);
+            tradeRepository.flush();
+        }
+        TradeBarRollup.Batch bars = new TradeBarRollup.Batch();
+        for (TradeEntity tradeEntity : tradeEntities) {
+            bars.add(tradeEntity.getSymbol(), toCents(tradeEntity.getPrice()), tradeEntity.getVolume(),
+                tradeEntity.getTimestamp(), tradeEntity.getId());
+        }
+        barRollup.flush(bars);
+        jdbcTemplate.update("UPDATE trade_outbox_watermark SET last_sequence = ? WHERE id = 1", lastSequence);
+
+        afterCommit(() -> {
+            for (TradeEntity tradeEntity : tradeEntities) {
+                recordInMemory(tradeEntity.getSymbol(), tradeEntity.getPrice(), tradeEntity.getVolume(),
+                    tradeEntity.getTimestamp());
+                recentTradesCache.add(TradeView.of(tradeEntity));
+            }
+        });
+        logger.debug("Relayed {} trades from the outbox up to sequence {}", tradeEntities.size(), lastSequence);
+        return tradeEntities.size();
+    }
+    
+    /**
+     * Sequence numbers and backlog of the trade outbox.
+     */
+    public Map<String, Object> getOutboxStatus() {
+        return tradeOutbox.status();
+    }
+    
     /**
      * Get the last N trades for a symbol.
+     * Up to the cache capacity they come from the recent-trades ring; the rest
+     * is read with a keyset seek continuing from the oldest cached trade.
      */
-    public List<TradeEntity> getLastTrades(String symbol, int count) {
+    @UseDataSource(DataSourceRoute.ANALYTICS)
+    public List<TradeView> getLastTrades(String symbol, int count) {
         long startTime = System.nanoTime();
         
-        List<TradeEntity> trades = tradeRepository.findBySymbolOrderByTimestampDesc(
-            symbol, PageRequest.of(0, count)
-        );
+        int capacity = recentTradesCache.getCapacity();
+        List<TradeView> trades = recentTradesCache.latest(symbol, Math.min(count, capacity),
+            () -> compactStorage
+                ? compactTradeRepository.findLatest(symbol, capacity)
+                : tradeReadRepository.findLatest(symbol, capacity));
+        
+        if (count > capacity && trades.size() == capacity) {
+            TradeView oldest = trades.get(trades.size() - 1);
+            trades = new ArrayList<>(trades);
+            trades.addAll(compactStorage
+                ? compactTradeRepository.findBefore(symbol, oldest.getTimestamp(), oldest.getId(), count - capacity)
+                : tradeReadRepository.findBefore(symbol, oldest.getTimestamp(), oldest.getId(), count - capacity));
+        }
         
         long endTime = System.nanoTime();
         long executionTime = (endTime - startTime) / 1_000_000;
@@ -93,11 +302,28 @@ public class TradeService {
     /**
      * Calculate average price for a symbol in the last X minutes.
      */
+    @UseDataSource(DataSourceRoute.ANALYTICS)
     public BigDecimal getAveragePrice(String symbol, int minutes) {
         long startTime = System.nanoTime();
         
+        if (rollingStats.covers(symbol, minutes, toEpochSecond(LocalDateTime.now()))) {
+            BigDecimal avgPrice = queryInMemory(symbol, minutes).getAveragePrice();
+            logger.debug("Calculated average price for {} in last {} minutes from memory: {} (took {} us)",
+                    symbol, minutes, avgPrice, (System.nanoTime() - startTime) / 1_000);
+            return avgPrice;
+        }
+        
         LocalDateTime cutoffTime = LocalDateTime.now().minusMinutes(minutes);
-        BigDecimal avgPrice = tradeRepository.calculateAveragePriceInTimeFrame(symbol, cutoffTime);
+        if (barRollup.isReady()) {
+            BigDecimal avgPrice = barRollup.windowStats(symbol, cutoffTime).getAveragePrice();
+            logger.debug("Calculated average price for {} in last {} minutes from 1-minute bars: {} (took {} ms)",
+                    symbol, minutes, avgPrice, (System.nanoTime() - startTime) / 1_000_000);
+            return avgPrice;
+        }
+        
+        BigDecimal avgPrice = compactStorage
+            ? compactTradeRepository.averagePrice(symbol, cutoffTime)
+            : tradeRepository.calculateAveragePriceInTimeFrame(symbol, cutoffTime);
         
         long endTime = System.nanoTime();
         long executionTime = (endTime - startTime) / 1_000_000;
@@ -111,11 +337,28 @@ public class TradeService {
     /**
      * Count total trades for a symbol in the last X minutes.
      */
+    @UseDataSource(DataSourceRoute.ANALYTICS)
     public long countTradesInTimeFrame(String symbol, int minutes) {
         long startTime = System.nanoTime();
         
+        if (rollingStats.covers(symbol, minutes, toEpochSecond(LocalDateTime.now()))) {
+            long tradeCount = queryInMemory(symbol, minutes).getCount();
+            logger.debug("Counted {} trades for {} in last {} minutes from memory (took {} us)",
+                    tradeCount, symbol, minutes, (System.nanoTime() - startTime) / 1_000);
+            return tradeCount;
+        }
+        
         LocalDateTime cutoffTime = LocalDateTime.now().minusMinutes(minutes);
-        long tradeCount = tradeRepository.countTradesInTimeFrame(symbol, cutoffTime);
+        if (barRollup.isReady()) {
+            long tradeCount = barRollup.windowStats(symbol, cutoffTime).getCount();
+            logger.debug("Counted {} trades for {} in last {} minutes from 1-minute bars (took {} ms)",
+                    tradeCount, symbol, minutes, (System.nanoTime() - startTime) / 1_000_000);
+            return tradeCount;
+        }
+        
+        long tradeCount = compactStorage
+            ? compactTradeRepository.countTrades(symbol, cutoffTime)
+            : tradeRepository.countTradesInTimeFrame(symbol, cutoffTime);
         
         long endTime = System.nanoTime();
         long executionTime = (endTime - startTime) / 1_000_000;
@@ -129,13 +372,34 @@ public class TradeService {
     /**
      * Find minimum and maximum trade price for a symbol over a time window.
      */
+    @UseDataSource(DataSourceRoute.ANALYTICS)
     public Map<String, BigDecimal> getMinMaxPrice(String symbol, int minutes) {
         long startTime = System.nanoTime();
         
+        Map<String, BigDecimal> minMax = new HashMap<>();
+        if (rollingStats.covers(symbol, minutes, toEpochSecond(LocalDateTime.now()))) {
+            RollingTradeStats.WindowStats stats = queryInMemory(symbol, minutes);
+            minMax.put("min", stats.getMinPrice());
+            minMax.put("max", stats.getMaxPrice());
+            logger.debug("Found min/max prices for {} in last {} minutes from memory: min={}, max={} (took {} us)",
+                    symbol, minutes, minMax.get("min"), minMax.get("max"), (System.nanoTime() - startTime) / 1_000);
+            return minMax;
+        }
+        
         LocalDateTime cutoffTime = LocalDateTime.now().minusMinutes(minutes);
-        Object[] result = tradeRepository.findMinMaxPriceInTimeFrame(symbol, cutoffTime);
+        if (barRollup.isReady()) {
+            RollingTradeStats.WindowStats stats = barRollup.windowStats(symbol, cutoffTime);
+            minMax.put("min", stats.getMinPrice());
+            minMax.put("max", stats.getMaxPrice());
+            logger.debug("Found min/max prices for {} in last {} minutes from 1-minute bars: min={}, max={} (took {} ms)",
+                    symbol, minutes, minMax.get("min"), minMax.get("max"), (System.nanoTime() - startTime) / 1_000_000);
+            return minMax;
+        }
+        
+        Object[] result = compactStorage
+            ? compactTradeRepository.minMaxPrice(symbol, cutoffTime)
+            : tradeRepository.findMinMaxPriceInTimeFrame(symbol, cutoffTime);
         
-        Map<String, BigDecimal> minMax = new HashMap<>();
         if (result != null && result.length == 2) {
             minMax.put("min", result[0] != null ? ((BigDecimal) result[0]).setScale(2, RoundingMode.HALF_UP) : BigDecimal.ZERO);
             minMax.put("max", result[1] != null ? ((BigDecimal) result[1]).setScale(2, RoundingMode.HALF_UP) : BigDecimal.ZERO);
@@ -156,12 +420,24 @@ public class TradeService {
     /**
      * Query top N symbols by trade volume over the last Y minutes.
      */
+    @UseDataSource(DataSourceRoute.ANALYTICS)
     public List<Map<String, Object>> getTopSymbolsByVolume(int minutes, int limit) {
         long startTime = System.nanoTime();
         
+        if (topVolumeTracker.covers(minutes)) {
+            List<Map<String, Object>> topSymbols = topVolumeTracker.top(
+                    minutes, limit, toEpochSecond(LocalDateTime.now()));
+            logger.debug("Found top {} symbols by volume in last {} minutes from memory (took {} us)",
+                    limit, minutes, (System.nanoTime() - startTime) / 1_000);
+            return topSymbols;
+        }
+        
         LocalDateTime cutoffTime = LocalDateTime.now().minusMinutes(minutes);
-        List<Object[]> results = tradeRepository.findTopSymbolsByVolumeInTimeFrame(
-                cutoffTime, PageRequest.of(0, limit));
+        List<Object[]> results = barRollup.isReady()
+                ? barRollup.topSymbolsByVolume(cutoffTime, limit)
+                : compactStorage
+                ? compactTradeRepository.topSymbolsByVolume(cutoffTime, limit)
+                : tradeRepository.findTopSymbolsByVolumeInTimeFrame(cutoffTime, PageRequest.of(0, limit));
         
         List<Map<String, Object>> topSymbols = new ArrayList<>();
         for (Object[] row : results) {
@@ -184,61 +460,93 @@ public class TradeService {
      * Insert a batch of trades for performance testing.
      */
     @Transactional
-    public Map<String, Object> insertBatchTrades(int count, String symbol) {
+    @UseDataSource(DataSourceRoute.BULK)
+    public Map<String, Object> insertBatchTrades(int count, String symbol, IngestMode mode) {
         long startTime = System.nanoTime();
         
-        // Build the batch insert SQL
-        StringBuilder sql = new StringBuilder(
-            "INSERT INTO trades (symbol, price, volume, timestamp, order_type) VALUES ");
-        
-        for (int i = 0; i < count; i++) {
-            BigDecimal price = BigDecimal.valueOf(20 + 980 * random.nextDouble())
-                .setScale(2, RoundingMode.HALF_UP);
+        // Seconds precision so the in-memory buckets match what DATETIME stores
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        TradeBarRollup.Batch bars = new TradeBarRollup.Batch();
+        SecondAggregates seconds = new SecondAggregates();
+        long inserted = bulkIngestor.ingest(mode, count, row -> {
+            long priceCents = randomPriceCents();
             int volume = 10 + random.nextInt(990);
             
             // Random timestamp in last 24 hours
-            LocalDateTime timestamp = LocalDateTime.now()
+            LocalDateTime timestamp = now
                 .minusHours(random.nextInt(24))
                 .minusMinutes(random.nextInt(60));
                 
             String orderType = ORDER_TYPES[random.nextInt(ORDER_TYPES.length)];
             
-            sql.append(String.format("('%s', %s, %d, '%s', '%s')", 
-                symbol, price, volume, timestamp, orderType));
-            
-            if (i < count - 1) {
-                sql.append(", ");
-            }
-        }
-        
-        jdbcTemplate.execute(sql.toString());
+            row.set(symbol, priceCents, volume, timestamp, orderType);
+            seconds.add(symbol, priceCents, volume, timestamp);
+            bars.add(symbol, priceCents, volume, timestamp, 0);
+        });
+        barRollup.flush(bars);
+        afterCommit(() -> {
+            seconds.forEach(this::recordSecondInMemory);
+            // Rows carry historical timestamps, so the ring cannot simply be appended to
+            recentTradesCache.invalidate(symbol);
+        });
         
         long endTime = System.nanoTime();
         long executionTimeMs = (endTime - startTime) / 1_000_000;
         
         Map<String, Object> result = new HashMap<>();
-        result.put("count", count);
+        result.put("count", inserted);
+        result.put("mode", mode.getLabel());
         result.put("executionTimeMs", executionTimeMs);
-        result.put("tradesPerSecond", count * 1000.0 / executionTimeMs);
+        result.put("tradesPerSecond", inserted * 1000.0 / executionTimeMs);
         
-        logger.debug("Inserted batch of {} trades for {} in {} ms ({} trades/sec)", 
-            count, symbol, executionTimeMs, result.get("tradesPerSecond"));
+        logger.debug("Inserted batch of {} trades for {} via {} in {} ms ({} trades/sec)", 
+            inserted, symbol, mode.getLabel(), executionTimeMs, result.get("tradesPerSecond"));
         
         return result;
     }
     
+    /**
+     * Insert the same number of trades with every ingest mode and compare throughput.
+     */
+    @UseDataSource(DataSourceRoute.BULK)
+    public Map<String, Object> runIngestBenchmark(int count, String symbol) {
+        Map<String, Object> results = new HashMap<>();
+        for (IngestMode mode : IngestMode.values()) {
+            try {
+                // Through the proxy so each mode runs in its own transaction
+                results.put(mode.getLabel(), self.getObject().insertBatchTrades(count, symbol, mode));
+            } catch (DataAccessException e) {
+                // LOAD DATA LOCAL is rejected unless the server allows local_infile
+                logger.warn("Ingest benchmark failed for mode {}: {}", mode.getLabel(), e.getMessage());
+                results.put(mode.getLabel(), Map.of("error", String.valueOf(e.getMostSpecificCause().getMessage())));
+            }
+        }
+        results.put("count", count);
+        return results;
+    }
+    
     /**
      * Reset the trades table by truncating it.
      */
     @Transactional
+    @UseDataSource(DataSourceRoute.BULK)
     public void resetTable() {
         jdbcTemplate.execute("TRUNCATE TABLE trades");
+        // Migrated copies and the migration watermark refer to the old ids
+        compactTradeMigrator.reset();
+        if (barRollup.isEnabled()) {
+            barRollup.clear();
+        }
+        rollingStats.clear();
+        topVolumeTracker.clear();
+        recentTradesCache.invalidateAll();
         logger.info("Trades table has been reset");
     }
     
     /**
      * Apply a single-column index on symbol.
      */
+    @UseDataSource(DataSourceRoute.BULK)
     public void applySingleColumnIndex() {
         dropAllIndexes();
         jdbcTemplate.execute("CREATE INDEX idx_symbol ON trades(symbol)");
@@ -248,6 +556,7 @@ public class TradeService {
     /**
      * Apply a composite index on symbol and timestamp.
      */
+    @UseDataSource(DataSourceRoute.BULK)
     public void applyCompositeIndex() {
         dropAllIndexes();
         jdbcTemplate.execute("CREATE INDEX idx_symbol_ts ON trades(symbol, timestamp)");
@@ -255,13 +564,16 @@ public class TradeService {
     }
     
     /**
-     * Drop all indexes on the trades table.
+     * Drop all indexes on the trades table except the primary key and
+     * idx_symbol_ts_id, which the keyset history pages rely on.
      */
+    @UseDataSource(DataSourceRoute.BULK)
     public void dropAllIndexes() {
-        // Query to get all indexes except PRIMARY
+        // Query to get all indexes except PRIMARY and the keyset index created at startup
         List<Map<String, Object>> indexes = jdbcTemplate.queryForList(
             "SELECT INDEX_NAME FROM INFORMATION_SCHEMA.STATISTICS " +
-            "WHERE TABLE_SCHEMA = 'stockmarket' AND TABLE_NAME = 'trades' AND INDEX_NAME != 'PRIMARY'"
+            "WHERE TABLE_SCHEMA = 'stockmarket' AND TABLE_NAME = 'trades' " +
+            "AND INDEX_NAME NOT IN ('PRIMARY', 'idx_symbol_ts_id')"
         );
         
         for (Map<String, Object> index : indexes) {
@@ -275,66 +587,101 @@ public class TradeService {
      * Generate and insert a bulk number of random trades.
      */
     @Transactional
-    public Map<String, Object> generateBulkTrades(int count) {
+    @UseDataSource(DataSourceRoute.BULK)
+    public Map<String, Object> generateBulkTrades(int count, IngestMode mode) {
         long startTime = System.nanoTime();
         
         // First delete all existing trades
         resetTable();
         
-        // Insert in batches for better performance
-        int batchSize = 5000;
-        int totalBatches = (count + batchSize - 1) / batchSize;
-        
-        for (int batch = 0; batch < totalBatches; batch++) {
-            int batchCount = Math.min(batchSize, count - batch * batchSize);
-            if (batchCount <= 0) break;
-            
-            // Create batch of random trades
-            StringBuilder sql = new StringBuilder(
-                "INSERT INTO trades (symbol, price, volume, timestamp, order_type) VALUES ");
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        partitionManager.coverFrom(now.minusDays(7));
+        TradeBarRollup.Batch bars = new TradeBarRollup.Batch();
+        SecondAggregates seconds = new SecondAggregates();
+        long inserted = bulkIngestor.ingest(mode, count, row -> {
+            String symbol = STOCK_SYMBOLS[random.nextInt(STOCK_SYMBOLS.length)];
+            long priceCents = randomPriceCents();
+            int volume = 10 + random.nextInt(990);
             
-            for (int i = 0; i < batchCount; i++) {
-                String symbol = STOCK_SYMBOLS[random.nextInt(STOCK_SYMBOLS.length)];
-                BigDecimal price = BigDecimal.valueOf(20 + 980 * random.nextDouble())
-                    .setScale(2, RoundingMode.HALF_UP);
-                int volume = 10 + random.nextInt(990);
-                
-                // Random timestamp in last 7 days
-                LocalDateTime timestamp = LocalDateTime.now().minusDays(random.nextInt(7))
-                    .minusHours(random.nextInt(24))
-                    .minusMinutes(random.nextInt(60));
-                    
-                String orderType = ORDER_TYPES[random.nextInt(ORDER_TYPES.length)];
-                
-                sql.append(String.format("('%s', %s, %d, '%s', '%s')", 
-                    symbol, price, volume, timestamp, orderType));
+            // Random timestamp in last 7 days
+            LocalDateTime timestamp = now.minusDays(random.nextInt(7))
+                .minusHours(random.nextInt(24))
+                .minusMinutes(random.nextInt(60));
                 
-                if (i < batchCount - 1) {
-                    sql.append(", ");
-                }
-            }
+            String orderType = ORDER_TYPES[random.nextInt(ORDER_TYPES.length)];
             
-            jdbcTemplate.execute(sql.toString());
-            logger.info("Inserted batch {} of {} ({} trades)", batch + 1, totalBatches, batchCount);
-        }
+            row.set(symbol, priceCents, volume, timestamp, orderType);
+            seconds.add(symbol, priceCents, volume, timestamp);
+            bars.add(symbol, priceCents, volume, timestamp, 0);
+        });
+        barRollup.flush(bars);
+        afterCommit(() -> {
+            seconds.forEach(this::recordSecondInMemory);
+            recentTradesCache.invalidateAll();
+        });
         
         long endTime = System.nanoTime();
         long executionTimeMs = (endTime - startTime) / 1_000_000;
         
         Map<String, Object> result = new HashMap<>();
-        result.put("count", count);
+        result.put("count", inserted);
+        result.put("mode", mode.getLabel());
         result.put("executionTimeMs", executionTimeMs);
-        result.put("tradesPerSecond", count * 1000.0 / executionTimeMs);
+        result.put("tradesPerSecond", inserted * 1000.0 / executionTimeMs);
         
-        logger.info("Generated {} random trades in {} ms ({} trades/sec)", 
-            count, executionTimeMs, result.get("tradesPerSecond"));
+        logger.info("Generated {} random trades via {} in {} ms ({} trades/sec)", 
+            inserted, mode.getLabel(), executionTimeMs, result.get("tradesPerSecond"));
         
         return result;
     }
     
     /**
-     * Run a benchmark with both index types.
+     * Start generating a large dataset in parallel after truncating the table.
+     * The in-memory statistics and caches are rebuilt from the database once
+     * the generation completes.
+     *
+     * @param symbolCount Number of symbols; the known symbols come first, then SYM00001 and so on
      */
+    @UseDataSource(DataSourceRoute.BULK)
+    public Map<String, Object> generateParallelTrades(long count, int threads, long seed, int symbolCount,
+                                                      double zipfExponent, int days, double volatility,
+                                                      IngestMode mode) {
+        String[] symbols = new String[symbolCount];
+        for (int i = 0; i < symbolCount; i++) {
+            symbols[i] = i < STOCK_SYMBOLS.length ? STOCK_SYMBOLS[i] : String.format("SYM%05d", i);
+        }
+        LocalDateTime to = LocalDateTime.now();
+        ParallelTradeGenerator.Spec spec = new ParallelTradeGenerator.Spec(
+            count, threads, seed, symbols, zipfExponent, to.minusDays(days), to, volatility, mode);
+        
+        return parallelTradeGenerator.start(spec, () -> {
+            resetTable();
+            partitionManager.coverFrom(to.minusDays(days));
+            // Bars are rebuilt from the generated rows once the workers finish
+            barRollup.setReady(false);
+        }, () -> {
+            barRollup.backfill(null);
+            barRollup.setReady(true);
+            rollingStats.clear();
+            topVolumeTracker.clear();
+            recentTradesCache.invalidateAll();
+            // Through the proxy so the statistics are read on the analytics route
+            self.getObject().primeInMemoryStats();
+        });
+    }
+    
+    /**
+     * Progress of the current or last parallel generation.
+     */
+    public Map<String, Object> getGenerationProgress() {
+        return parallelTradeGenerator.getProgress();
+    }
+    
+    /**
+     * Run a benchmark with both index types. The read queries go straight to
+     * the trades table, bypassing the in-memory statistics and caches.
+     */
+    @UseDataSource(DataSourceRoute.BULK)
     public Map<String, Object> runFullBenchmark(int tradeCount, String symbol, int lastTradesCount, 
                                                int timeWindowMinutes, int batchSize, int topSymbolsCount) {
         Map<String, Object> results = new HashMap<>();
@@ -342,7 +689,7 @@ public class TradeService {
         Map<String, Long> compositeIndexResults = new HashMap<>();
         
         // Generate data
-        generateBulkTrades(tradeCount);
+        generateBulkTrades(tradeCount, IngestMode.BATCH);
         
         // Test with single column index
         applySingleColumnIndex();
@@ -379,60 +726,249 @@ public class TradeService {
     }
     
     /**
-     * Benchmark the getLastTrades method.
+     * Compare the time-window queries on the partitioned trades table against
+     * an unpartitioned copy of the same rows, recording which partitions
+     * MySQL reads for each query. Reports the median of the iterations.
+     */
+    @UseDataSource(DataSourceRoute.BULK)
+    public Map<String, Object> runPartitionBenchmark(String symbol, int minutes, int iterations) {
+        if (!partitionManager.isPartitioned()) {
+            throw new IllegalStateException("The trades table is not partitioned");
+        }
+        
+        Map<String, String> queries = new LinkedHashMap<>();
+        queries.put("getAveragePrice", "SELECT AVG(price) FROM %s WHERE symbol = ? AND timestamp >= ?");
+        queries.put("countTrades", "SELECT COUNT(*) FROM %s WHERE symbol = ? AND timestamp >= ?");
+        queries.put("getMinMaxPrice", "SELECT MIN(price), MAX(price) FROM %s WHERE symbol = ? AND timestamp >= ?");
+        queries.put("topSymbolsByVolume", "SELECT symbol, SUM(volume) AS total_volume FROM %s " +
+            "WHERE timestamp >= ? GROUP BY symbol ORDER BY total_volume DESC LIMIT 5");
+        LocalDateTime cutoffTime = LocalDateTime.now().minusMinutes(minutes);
+        
+        Map<String, Double> unpartitionedResults = new LinkedHashMap<>();
+        Map<String, Double> partitionedResults = new LinkedHashMap<>();
+        Map<String, String> partitionsRead = new LinkedHashMap<>();
+        
+        jdbcTemplate.execute("DROP TABLE IF EXISTS trades_unpartitioned");
+        jdbcTemplate.execute("CREATE TABLE trades_unpartitioned LIKE trades");
+        try {
+            jdbcTemplate.execute("ALTER TABLE trades_unpartitioned REMOVE PARTITIONING");
+            jdbcTemplate.execute("INSERT INTO trades_unpartitioned SELECT * FROM trades");
+            
+            for (Map.Entry<String, String> query : queries.entrySet()) {
+                Object[] args = query.getValue().contains("symbol = ?")
+                    ? new Object[] {symbol, cutoffTime} : new Object[] {cutoffTime};
+                String unpartitionedSql = String.format(query.getValue(), "trades_unpartitioned");
+                String partitionedSql = String.format(query.getValue(), "trades");
+                
+                unpartitionedResults.put(query.getKey(), medianQueryMillis(unpartitionedSql, args, iterations));
+                partitionedResults.put(query.getKey(), medianQueryMillis(partitionedSql, args, iterations));
+                partitionsRead.put(query.getKey(), String.valueOf(
+                    jdbcTemplate.queryForList("EXPLAIN " + partitionedSql, args).get(0).get("partitions")));
+            }
+        } finally {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS trades_unpartitioned");
+        }
+        
+        Map<String, Object> results = new HashMap<>();
+        results.put("tradeCount", tradeRepository.count());
+        results.put("timeWindowMinutes", minutes);
+        results.put("unpartitioned", unpartitionedResults);
+        results.put("partitioned", partitionedResults);
+        results.put("partitionsRead", partitionsRead);
+        
+        try {
+            logPartitionBenchmarkResultsToCSV(results);
+        } catch (IOException e) {
+            logger.error("Failed to write partition benchmark results to CSV", e);
+        }
+        
+        return results;
+    }
+    
+    /**
+     * The newest trades of a symbol as primitive columns.
+     */
+    @UseDataSource(DataSourceRoute.ANALYTICS)
+    public TradeColumns getLatestTradeColumns(String symbol, int count) {
+        long startTime = System.nanoTime();
+        TradeColumns columns = compactStorage
+            ? compactTradeRepository.findLatestColumns(symbol, count)
+            : tradeReadRepository.findLatestColumns(symbol, count);
+        logger.debug("Retrieved {} trade columns for {} in {} ms",
+            columns.getSize(), symbol, (System.nanoTime() - startTime) / 1_000_000);
+        return columns;
+    }
+    
+    /**
+     * Compare reading the newest trades of a symbol as JPA entities through
+     * the repository against the JDBC projections, by latency and bytes
+     * allocated per call on the calling thread. Reads the standard table.
+     */
+    @UseDataSource(DataSourceRoute.BULK)
+    public Map<String, Object> runProjectionBenchmark(String symbol, int rows, int iterations) {
+        if (rows <= 0 || iterations <= 0) {
+            throw new IllegalArgumentException("rows and iterations must be positive");
+        }
+        Map<String, Supplier<Object>> readers = new LinkedHashMap<>();
+        readers.put("jpaEntities", () -> tradeRepository.findBySymbolOrderByTimestampDescIdDesc(
+            symbol, PageRequest.of(0, rows)));
+        readers.put("jdbcViews", () -> tradeReadRepository.findLatest(symbol, rows));
+        readers.put("jdbcColumns", () -> tradeReadRepository.findLatestColumns(symbol, rows));
+        
+        com.sun.management.ThreadMXBean threadBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        int warmupIterations = Math.max(5, iterations / 5);
+        Map<String, Object> readerResults = new LinkedHashMap<>();
+        for (Map.Entry<String, Supplier<Object>> reader : readers.entrySet()) {
+            for (int i = 0; i < warmupIterations; i++) {
+                reader.getValue().get();
+            }
+            
+            long[] timings = new long[iterations];
+            long allocatedBefore = threadBean.getCurrentThreadAllocatedBytes();
+            Object result = null;
+            for (int i = 0; i < iterations; i++) {
+                long startTime = System.nanoTime();
+                result = reader.getValue().get();
+                timings[i] = System.nanoTime() - startTime;
+            }
+            long allocatedBytes = threadBean.getCurrentThreadAllocatedBytes() - allocatedBefore;
+            
+            Map<String, Object> stats = DbBenchmarkHarness.latencyStats(timings);
+            stats.put("rowsReturned", result instanceof TradeColumns columns ? columns.getSize() : ((List<?>) result).size());
+            stats.put("allocatedBytesPerCall", allocatedBytes / iterations);
+            readerResults.put(reader.getKey(), stats);
+        }
+        
+        Map<String, Object> results = new LinkedHashMap<>();
+        results.put("symbol", symbol);
+        results.put("rows", rows);
+        results.put("iterations", iterations);
+        results.put("warmupIterations", warmupIterations);
+        results.put("readers", readerResults);
+        
+        try {
+            logProjectionBenchmarkResultsToCSV(results);
+        } catch (IOException e) {
+            logger.error("Failed to write projection benchmark results to CSV", e);
+        }
+        
+        return results;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private void logProjectionBenchmarkResultsToCSV(Map<String, Object> results) throws IOException {
+        String timestamp = LocalDateTime.now().format(DATE_FORMATTER);
+        String fileName = "benchmark-reports/db_projection_benchmark_results.csv";
+        
+        new java.io.File("benchmark-reports").mkdirs();
+        boolean fileExists = new java.io.File(fileName).exists();
+        
+        Map<String, Map<String, Object>> readerResults = (Map<String, Map<String, Object>>) results.get("readers");
+        try (FileWriter writer = new FileWriter(fileName, true)) {
+            if (!fileExists) {
+                writer.write("timestamp,rows,iterations,reader,p50_ns,p99_ns,mean_ns,allocated_bytes_per_call\n");
+            }
+            for (Map.Entry<String, Map<String, Object>> reader : readerResults.entrySet()) {
+                Map<String, Object> stats = reader.getValue();
+                writer.write(String.format("%s,%d,%d,%s,%d,%d,%d,%d\n",
+                    timestamp,
+                    (Integer) results.get("rows"),
+                    (Integer) results.get("iterations"),
+                    reader.getKey(),
+                    (Long) stats.get("p50Ns"),
+                    (Long) stats.get("p99Ns"),
+                    (Long) stats.get("meanNs"),
+                    (Long) stats.get("allocatedBytesPerCall")));
+            }
+        }
+        
+        logger.info("Projection benchmark results appended to {}", fileName);
+    }
+    
+    /**
+     * Benchmark the trade queries under several index strategies with
+     * warmup, concurrent readers and a background insert load.
+     */
+    @UseDataSource(DataSourceRoute.BULK)
+    public Map<String, Object> runBenchmarkHarness(DbBenchmarkHarness.Spec spec) {
+        return benchmarkHarness.run(spec);
+    }
+    
+    /**
+     * The partitions of the trades table, oldest first.
+     */
+    @UseDataSource(DataSourceRoute.ANALYTICS)
+    public List<Map<String, Object>> getPartitions() {
+        return partitionManager.describePartitions();
+    }
+    
+    private double medianQueryMillis(String sql, Object[] args, int iterations) {
+        double[] timings = new double[Math.max(1, iterations)];
+        for (int i = 0; i < timings.length; i++) {
+            long startTime = System.nanoTime();
+            jdbcTemplate.queryForList(sql, args);
+            timings[i] = (System.nanoTime() - startTime) / 1_000_000.0;
+        }
+        Arrays.sort(timings);
+        return timings[timings.length / 2];
+    }
+    
+    /**
+     * Benchmark the last-trades query.
      */
     private long benchmarkLastTrades(String symbol, int count) {
         long startTime = System.nanoTime();
         
-        getLastTrades(symbol, count);
+        tradeReadRepository.findLatest(symbol, count);
         
         long endTime = System.nanoTime();
         return (endTime - startTime) / 1_000_000;
     }
     
     /**
-     * Benchmark the getAveragePrice method.
+     * Benchmark the average price query.
      */
     private long benchmarkAveragePrice(String symbol, int minutes) {
         long startTime = System.nanoTime();
         
-        getAveragePrice(symbol, minutes);
+        tradeRepository.calculateAveragePriceInTimeFrame(symbol, LocalDateTime.now().minusMinutes(minutes));
         
         long endTime = System.nanoTime();
         return (endTime - startTime) / 1_000_000;
     }
     
     /**
-     * Benchmark the countTradesInTimeFrame method.
+     * Benchmark the trade count query.
      */
     private long benchmarkCountTrades(String symbol, int minutes) {
         long startTime = System.nanoTime();
         
-        countTradesInTimeFrame(symbol, minutes);
+        tradeRepository.countTradesInTimeFrame(symbol, LocalDateTime.now().minusMinutes(minutes));
         
         long endTime = System.nanoTime();
         return (endTime - startTime) / 1_000_000;
     }
     
     /**
-     * Benchmark the getMinMaxPrice method.
+     * Benchmark the min/max price query.
      */
     private long benchmarkMinMaxPrice(String symbol, int minutes) {
         long startTime = System.nanoTime();
         
-        getMinMaxPrice(symbol, minutes);
+        tradeRepository.findMinMaxPriceInTimeFrame(symbol, LocalDateTime.now().minusMinutes(minutes));
         
         long endTime = System.nanoTime();
         return (endTime - startTime) / 1_000_000;
     }
     
     /**
-     * Benchmark the getTopSymbolsByVolume method.
+     * Benchmark the top symbols by volume query.
      */
     private long benchmarkTopSymbolsByVolume(int minutes, int limit) {
         long startTime = System.nanoTime();
         
-        getTopSymbolsByVolume(minutes, limit);
+        tradeRepository.findTopSymbolsByVolumeInTimeFrame(LocalDateTime.now().minusMinutes(minutes), PageRequest.of(0, limit));
         
         long endTime = System.nanoTime();
         return (endTime - startTime) / 1_000_000;
@@ -444,7 +980,7 @@ public class TradeService {
     private long benchmarkInsertBatchTrades(int count, String symbol) {
         long startTime = System.nanoTime();
         
-        insertBatchTrades(count, symbol);
+        insertBatchTrades(count, symbol, IngestMode.BATCH);
         
         long endTime = System.nanoTime();
         return (endTime - startTime) / 1_000_000;
@@ -517,16 +1053,155 @@ public class TradeService {
         logger.info("Benchmark results appended to {}", fileName);
     }
     
+    /**
+     * Append partition benchmark results to their own CSV file.
+     */
+    @SuppressWarnings("unchecked")
+    private void logPartitionBenchmarkResultsToCSV(Map<String, Object> results) throws IOException {
+        String timestamp = LocalDateTime.now().format(DATE_FORMATTER);
+        String fileName = "benchmark-reports/db_partition_benchmark_results.csv";
+        
+        new java.io.File("benchmark-reports").mkdirs();
+        boolean fileExists = new java.io.File(fileName).exists();
+        
+        Map<String, Double> unpartitionedResults = (Map<String, Double>) results.get("unpartitioned");
+        Map<String, Double> partitionedResults = (Map<String, Double>) results.get("partitioned");
+        Map<String, String> partitionsRead = (Map<String, String>) results.get("partitionsRead");
+        
+        try (FileWriter writer = new FileWriter(fileName, true)) {
+            if (!fileExists) {
+                writer.write("timestamp,tradeCount,timeWindowMinutes,operation,unpartitioned_ms,partitioned_ms,partitions\n");
+            }
+            for (String operation : partitionedResults.keySet()) {
+                writer.write(String.format("%s,%d,%d,%s,%.3f,%.3f,\"%s\"\n",
+                    timestamp,
+                    (Long) results.get("tradeCount"),
+                    (Integer) results.get("timeWindowMinutes"),
+                    operation,
+                    unpartitionedResults.get(operation),
+                    partitionedResults.get(operation),
+                    partitionsRead.get(operation)));
+            }
+        }
+        
+        logger.info("Partition benchmark results appended to {}", fileName);
+    }
+    
+    /**
+     * Copy the standard trades table into the compact layout. Bulk loaders and
+     * the index benchmarks keep writing the standard table, so datasets are
+     * generated first and migrated afterwards.
+     */
+    @UseDataSource(DataSourceRoute.BULK)
+    public Map<String, Object> migrateToCompactStorage(int chunkSize) {
+        Map<String, Object> result = compactTradeMigrator.migrate(chunkSize);
+        result.put("activeLayout", compactStorage ? "compact" : "standard");
+        if (compactStorage) {
+            recentTradesCache.invalidateAll();
+        }
+        return result;
+    }
+    
+    /**
+     * Rebuild the 1-minute bars from the raw trades.
+     */
+    @UseDataSource(DataSourceRoute.BULK)
+    public Map<String, Object> backfillTradeBars() {
+        long startTime = System.nanoTime();
+        int days = barRollup.backfill(null);
+        barRollup.setReady(true);
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("days", days);
+        result.put("executionTimeMs", (System.nanoTime() - startTime) / 1_000_000);
+        return result;
+    }
+    
+    /**
+     * One page of a symbol's trade history, newest first. Pages after the
+     * first seek past the (timestamp, id) of the previous page on the
+     * (symbol, timestamp, id) index, so deep pages cost the same as the first.
+     *
+     * @param before Position to continue from, or null for the newest trades
+     * @param limit Trades per page
+     * @return The trades and the cursor of the next page, null on the last page
+     */
+    @UseDataSource(DataSourceRoute.ANALYTICS)
+    public Map<String, Object> getTradeHistory(String symbol, TradeHistoryCursor before, int limit) {
+        long startTime = System.nanoTime();
+        if (before != null && !before.getSymbol().equals(symbol)) {
+            throw new IllegalArgumentException("History cursor belongs to " + before.getSymbol() + ", not " + symbol);
+        }
+        
+        // One extra row tells whether another page follows
+        List<TradeView> trades;
+        if (before == null) {
+            trades = getLastTrades(symbol, limit + 1);
+        } else if (compactStorage) {
+            trades = compactTradeRepository.findBefore(symbol, before.getTimestamp(), before.getId(), limit + 1);
+        } else {
+            trades = tradeReadRepository.findBefore(symbol, before.getTimestamp(), before.getId(), limit + 1);
+        }
+        
+        String nextCursor = null;
+        if (trades.size() > limit) {
+            trades = trades.subList(0, limit);
+            TradeView last = trades.get(limit - 1);
+            nextCursor = new TradeHistoryCursor(symbol, last.getTimestamp(), last.getId()).encode();
+        }
+        
+        logger.debug("Retrieved {} history trades for {} in {} ms",
+            trades.size(), symbol, (System.nanoTime() - startTime) / 1_000_000);
+        
+        Map<String, Object> page = new HashMap<>();
+        page.put("trades", trades);
+        page.put("nextCursor", nextCursor);
+        return page;
+    }
+    
+    /**
+     * Stream the trades in [from, to) to the given output stream. Holds an
+     * analytics connection and bulkhead slot until the last row is written.
+     *
+     * @param symbol Only trades of this symbol, or all symbols if null
+     * @return The number of trades written
+     */
+    @UseDataSource(DataSourceRoute.ANALYTICS)
+    public long exportTrades(ExportFormat format, String symbol, LocalDateTime from, LocalDateTime to,
+                             OutputStream out) throws IOException {
+        long startTime = System.nanoTime();
+        long rows = tradeExporter.export(format, symbol, from, to, out);
+        logger.info("Exported {} trades as {} ({} to {}, symbol {}) in {} ms",
+            rows, format.getLabel(), from, to, symbol != null ? symbol : "*", (System.nanoTime() - startTime) / 1_000_000);
+        return rows;
+    }
+    
+    /**
+     * Connection usage of the write, analytics and bulk pools.
+     */
+    public Map<String, Object> getPoolStats() {
+        return routingDataSource.poolStats();
+    }
+    
+    /**
+     * Size of the standard and compact trade tables.
+     */
+    @UseDataSource(DataSourceRoute.ANALYTICS)
+    public Map<String, Object> getStorageStats() {
+        Map<String, Object> stats = compactTradeMigrator.tableSizes();
+        stats.put("activeLayout", compactStorage ? "compact" : "standard");
+        return stats;
+    }
+    
     /**
      * Get trades for a symbol only, without any timestamp sorting or filtering.
      * This method is designed to test pure symbol-only query performance.
      */
-    public List<TradeEntity> getTradesBySymbolOnly(String symbol, int count) {
+    @UseDataSource(DataSourceRoute.ANALYTICS)
+    public List<TradeView> getTradesBySymbolOnly(String symbol, int count) {
         long startTime = System.nanoTime();
         
-        List<TradeEntity> trades = tradeRepository.findBySymbolOnly(
-            symbol, PageRequest.of(0, count)
-        );
+        List<TradeView> trades = tradeReadRepository.findBySymbolOnly(symbol, count);
         
         long endTime = System.nanoTime();
         long executionTime = (endTime - startTime) / 1_000_000;
@@ -536,4 +1211,96 @@ public class TradeService {
         
         return trades;
     }
+    
+    /**
+     * Per-second aggregates of the rows of a bulk load, kept until the load
+     * commits and only then recorded in memory.
+     */
+    private static class SecondAggregates {
+        // count, sum of price, sum of volume, min and max price per symbol and epoch second
+        private final Map<String, Map<Long, long[]>> seconds = new HashMap<>();
+
+        private void add(String symbol, long priceCents, int volume, LocalDateTime timestamp) {
+            long[] second = seconds.computeIfAbsent(symbol, key -> new HashMap<>())
+                .computeIfAbsent(toEpochSecond(timestamp), key -> new long[] {0, 0, 0, Long.MAX_VALUE, Long.MIN_VALUE});
+            second[0]++;
+            second[1] += priceCents;
+            second[2] += volume;
+            second[3] = Math.min(second[3], priceCents);
+            second[4] = Math.max(second[4], priceCents);
+        }
+
+        private void forEach(SecondRecorder recorder) {
+            seconds.forEach((symbol, bySecond) -> bySecond.forEach((epochSecond, second) ->
+                recorder.record(symbol, epochSecond, second[0], second[1], second[2], second[3], second[4])));
+        }
+    }
+    
+    @FunctionalInterface
+    private interface SecondRecorder {
+        void record(String symbol, long epochSecond, long count, long sumPriceCents, long sumVolume,
+                    long minCents, long maxCents);
+    }
+    
+    private static TradeEntity toEntity(String symbol, int price, int shares, LocalDateTime timestamp, boolean isBuy) {
+        return new TradeEntity(
+            symbol,
+            BigDecimal.valueOf(price).setScale(2, RoundingMode.HALF_UP),
+            shares,
+            timestamp,
+            isBuy ? "BUY" : "SELL"
+        );
+    }
+    
+    /**
+     * Run an in-memory update once the current transaction commits, so a
+     * rollback leaves no trades in the caches that the database does not have.
+     * Runs immediately outside a transaction.
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+    
+    private RollingTradeStats.WindowStats queryInMemory(String symbol, int minutes) {
+        return rollingStats.query(symbol, minutes * 60, toEpochSecond(LocalDateTime.now()));
+    }
+    
+    private void recordSecondInMemory(String symbol, long epochSecond, long count, long sumPriceCents,
+                                      long sumVolume, long minCents, long maxCents) {
+        rollingStats.record(symbol, count, sumPriceCents, sumVolume, minCents, maxCents, epochSecond);
+        topVolumeTracker.record(symbol, sumVolume, epochSecond);
+    }
+    
+    private void recordInMemory(String symbol, BigDecimal price, int volume, LocalDateTime timestamp) {
+        recordInMemory(symbol, toCents(price), volume, timestamp);
+    }
+    
+    private void recordInMemory(String symbol, long priceCents, int volume, LocalDateTime timestamp) {
+        long epochSecond = toEpochSecond(timestamp);
+        rollingStats.record(symbol, priceCents, volume, epochSecond);
+        topVolumeTracker.record(symbol, volume, epochSecond);
+    }
+    
+    // Uniform between 20.00 and 1000.00
+    private long randomPriceCents() {
+        return 2_000 + random.nextInt(98_001);
+    }
+    
+    private static long toCents(BigDecimal price) {
+        return price.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+    }
+    
+    // Trade timestamps are zone-less; UTC is only used as a fixed reference for bucketing
+    private static long toEpochSecond(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC);
+    }
 }
\ No newline at end of file
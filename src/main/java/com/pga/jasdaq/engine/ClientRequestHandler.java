@@ -1,21 +1,35 @@
 package com.pga.jasdaq.engine;
 
+import com.pga.jasdaq.engine.dto.PlaceOrderRequest;
+import com.pga.jasdaq.engine.dto.TradeResponse;
+import com.pga.jasdaq.marketdata.Quote;
 import com.pga.jasdaq.orderbook.Order;
 import com.pga.jasdaq.orderbook.Trade;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/orders")
 public class ClientRequestHandler {
 
   private final IStockMarketEngine stockMarketEngine;
+  private final EngineEventRing eventRing;
+  private final PreTradeRiskCheck riskCheck;
 
   @Autowired
-  public ClientRequestHandler(IStockMarketEngine stockMarketEngine) {
+  public ClientRequestHandler(IStockMarketEngine stockMarketEngine, EngineEventRing eventRing,
+      PreTradeRiskCheck riskCheck) {
     this.stockMarketEngine = stockMarketEngine;
+    this.eventRing = eventRing;
+    this.riskCheck = riskCheck;
   }
 
   /**
@@ -25,16 +39,33 @@ public class ClientRequestHandler {
    * @return List of trades executed as a result of the order placement.
    */
   @PostMapping("/place")
-  public List<Trade> placeOrder(@RequestBody OrderRequest orderRequest) {
-    Order order = orderRequest.getOrder();
-    String clientId = orderRequest.getClientHostPort();
-    String stockSymbol = orderRequest.getStockSymbol();
+  public List<TradeResponse> placeOrder(@RequestBody PlaceOrderRequest orderRequest) {
+    Order order = orderRequest.order().toOrder();
+    String clientId = orderRequest.clientHostPort();
+    String stockSymbol = orderRequest.stockSymbol();
 
     // Log the request
     System.out.println("Placing order for clientId: " + clientId + ", stockSymbol: " + stockSymbol);
 
     // Call stock market engine to place the order
-    return stockMarketEngine.placeOrder(order, stockSymbol, clientId);
+    return toResponses(stockMarketEngine.placeOrder(order, stockSymbol, clientId));
+  }
+
+  /**
+   * Endpoint to place an order without holding a request thread while it
+   * waits for its symbol's book.
+   *
+   * @param orderRequest The order request details submitted by the client.
+   * @return Future of the trades executed as a result of the order placement,
+   *         completed by the symbol's matching thread.
+   */
+  @PostMapping("/place-async")
+  public CompletableFuture<List<TradeResponse>> placeOrderAsync(@RequestBody PlaceOrderRequest orderRequest) {
+    Order order = orderRequest.order().toOrder();
+    String clientId = orderRequest.clientHostPort();
+    String stockSymbol = orderRequest.stockSymbol();
+
+    return stockMarketEngine.placeOrderAsync(order, stockSymbol, clientId).thenApply(ClientRequestHandler::toResponses);
   }
 
   /**
@@ -77,47 +108,69 @@ public class ClientRequestHandler {
   }
 
   /**
-   * Endpoint to return a hello world message.
+   * Endpoint to get the latest quote of a stock symbol.
    *
-   * @return A simple "Hello, World!" message.
+   * @param stockSymbol The symbol of the stock.
+   * @return Best bid and ask with sizes, last price, volume and the quote sequence.
    */
-  @GetMapping("/sayhi")
-  public String helloWorld() {
-    return "Hello, World!";
+  @GetMapping("/quote/{stockSymbol}")
+  public Quote getQuote(@PathVariable String stockSymbol) {
+    return stockMarketEngine.getQuote(stockSymbol);
   }
 
-  // Request classes for encapsulating request data
-  public static class OrderRequest {
-    private Order order;
-    private String clientHostPort;
-    private String stockSymbol;
-
-    // Getters and setters
-    public Order getOrder() {
-      return order;
-    }
+  /**
+   * Endpoint to get the engine event ring sequence and the lag of each consumer.
+   *
+   * @return The ring cursor and per-consumer lag in events.
+   */
+  @GetMapping("/event-ring")
+  public Map<String, Object> getEventRingStatus() {
+    return eventRing.status();
+  }
 
-    public void setOrder(Order order) {
-      this.order = order;
-    }
+  /**
+   * Endpoint to get the pre-trade risk counters of a client.
+   *
+   * @param clientId The client, as sent in clientHostPort or bound to a /ws/orders API key.
+   * @return Open quantity and notional, orders in the current second and net position per symbol.
+   */
+  @GetMapping("/risk/{clientId}")
+  public ResponseEntity<Map<String, Object>> getRiskExposure(@PathVariable String clientId) {
+    Map<String, Object> exposure = riskCheck.exposure(clientId);
+    return exposure != null ? ResponseEntity.ok(exposure) : ResponseEntity.notFound().build();
+  }
 
-    public String getClientHostPort() {
-      return clientHostPort;
-    }
+  @ExceptionHandler(RiskRejectedException.class)
+  public ResponseEntity<String> handleRiskRejected(RiskRejectedException e) {
+    return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(e.getMessage());
+  }
 
-    public void setClientHostPort(String clientHostPort) {
-      this.clientHostPort = clientHostPort;
-    }
+  @ExceptionHandler(RejectedExecutionException.class)
+  public ResponseEntity<String> handleMatchingQueueFull(RejectedExecutionException e) {
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header("Retry-After", "1")
+        .body("Matching queue full, retry later");
+  }
 
-    public String getStockSymbol() {
-      return stockSymbol;
-    }
+  /**
+   * Endpoint to return a hello world message.
+   *
+   * @return A simple "Hello, World!" message.
+   */
+  @GetMapping("/sayhi")
+  public String helloWorld() {
+    return "Hello, World!";
+  }
 
-    public void setStockSymbol(String stockSymbol) {
-      this.stockSymbol = stockSymbol;
+  private static List<TradeResponse> toResponses(List<Trade> trades) {
+    List<TradeResponse> responses = new ArrayList<>(trades.size());
+    for (Trade trade : trades) {
+      responses.add(TradeResponse.of(trade));
     }
+    return responses;
   }
 
+  // Request classes for encapsulating request data
   public static class CancelRequest {
     private int orderId;
     private String stockSymbol;
@@ -0,0 +1,113 @@
+package com.pga.jasdaq.engine;
+
+/**
+ * A preallocated, reused slot of the {@link EngineEventRing}. The producer
+ * overwrites every field when it claims the slot, and consumers must copy
+ * whatever they keep before returning from their handler.
+ */
+public class EngineEvent {
+
+  public enum Type {
+    /**
+     * An incoming order was matched; shares is its original size, leaves what
+     * rests in the book afterwards, and price its limit or, for a market
+     * order, the reference price it was risk-checked at.
+     */
+    ACCEPTED,
+    /** A trade; orderId is the incoming order and isBuy its side. */
+    FILLED,
+    /** A resting order was removed by a cancel, an amend or its expiry. */
+    CANCELLED,
+    /** The resting volume at a price level changed; shares is the new volume. */
+    LEVEL_CHANGED
+  }
+
+  private long sequence;
+  private Type type;
+  private String symbol;
+  private String clientId;
+  private int orderId;
+  private boolean isBuy;
+  private int price;
+  private int shares;
+  private int leaves;
+  private int buyOrderId;
+  private int sellOrderId;
+  private long timestamp;
+
+  void set(Type type, String symbol, String clientId, int orderId, boolean isBuy, int price, int shares,
+      int leaves, int buyOrderId, int sellOrderId, long timestamp) {
+    this.type = type;
+    this.symbol = symbol;
+    this.clientId = clientId;
+    this.orderId = orderId;
+    this.isBuy = isBuy;
+    this.price = price;
+    this.shares = shares;
+    this.leaves = leaves;
+    this.buyOrderId = buyOrderId;
+    this.sellOrderId = sellOrderId;
+    this.timestamp = timestamp;
+  }
+
+  void setSequence(long sequence) {
+    this.sequence = sequence;
+  }
+
+  public long getSequence() {
+    return sequence;
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  public String getSymbol() {
+    return symbol;
+  }
+
+  /**
+   * The client that submitted the incoming order; null for level changes.
+   */
+  public String getClientId() {
+    return clientId;
+  }
+
+  public int getOrderId() {
+    return orderId;
+  }
+
+  public boolean isBuy() {
+    return isBuy;
+  }
+
+  public int getPrice() {
+    return price;
+  }
+
+  public int getShares() {
+    return shares;
+  }
+
+  /**
+   * Shares of an accepted order left resting in the book; 0 for other events.
+   */
+  public int getLeaves() {
+    return leaves;
+  }
+
+  public int getBuyOrderId() {
+    return buyOrderId;
+  }
+
+  public int getSellOrderId() {
+    return sellOrderId;
+  }
+
+  /**
+   * Event time in epoch milliseconds.
+   */
+  public long getTimestamp() {
+    return timestamp;
+  }
+}
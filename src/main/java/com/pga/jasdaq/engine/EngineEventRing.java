@@ -0,0 +1,222 @@
+package com.pga.jasdaq.engine;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Preallocated multicast ring of sequenced {@link EngineEvent}s.
+ *
+ * The engine claims slots, fills them in place and publishes them; every
+ * consumer reads the ring on its own thread with its own cursor, in batches
+ * of whatever has been published since its last pass. A producer only waits
+ * when the slowest consumer is a full ring behind, so that consumer is the
+ * only source of backpressure and faster ones never wait for each other.
+ *
+ * Producers may publish concurrently. Events published together get
+ * contiguous sequences, and a slot is visible to consumers once its sequence
+ * is stored in the published array.
+ */
+@Component
+public class EngineEventRing {
+
+  private static final Logger logger = LoggerFactory.getLogger(EngineEventRing.class);
+  private static final int IDLE_SPINS = 100;
+  private static final long IDLE_PARK_NANOS = 50_000;
+
+  /**
+   * Handles the events of one consumer, in sequence order.
+   */
+  @FunctionalInterface
+  public interface EventHandler {
+    /**
+     * @param event      The event; valid only until the handler returns.
+     * @param endOfBatch True for the last event currently published, a good
+     *                   point to flush work batched across events.
+     */
+    void onEvent(EngineEvent event, boolean endOfBatch) throws Exception;
+  }
+
+  /**
+   * Fills claimed slots in place.
+   */
+  @FunctionalInterface
+  public interface EventWriter {
+    /**
+     * @param event The slot to fill.
+     * @param index Position of the event within the published batch.
+     */
+    void write(EngineEvent event, int index);
+  }
+
+  private final EngineEvent[] slots;
+  private final int mask;
+  // Sequence most recently published in each slot, 0 before the first lap
+  private final AtomicLongArray published;
+  // Last claimed sequence; the first event has sequence 1
+  private final AtomicLong claimed = new AtomicLong();
+  private final List<Consumer> consumers = new CopyOnWriteArrayList<>();
+
+  public EngineEventRing(@Value("${jasdaq.event-ring.capacity:65536}") int capacity) {
+    if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+      throw new IllegalArgumentException("Event ring capacity must be a power of two: " + capacity);
+    }
+    this.slots = new EngineEvent[capacity];
+    for (int i = 0; i < capacity; i++) {
+      slots[i] = new EngineEvent();
+    }
+    this.mask = capacity - 1;
+    this.published = new AtomicLongArray(capacity);
+  }
+
+  /**
+   * Starts a consumer thread that sees every event published from now on.
+   *
+   * @param name    Name of the consumer, used for its thread and in status.
+   * @param handler Receives the events.
+   */
+  public void addConsumer(String name, EventHandler handler) {
+    Consumer consumer = new Consumer(name, handler, claimed.get());
+    consumers.add(consumer);
+    consumer.thread.start();
+  }
+
+  /**
+   * Publishes consecutive events filled by the writer. Batches larger than
+   * the ring are published a ring at a time, still in order.
+   *
+   * @param count  The number of events.
+   * @param writer Fills each claimed slot.
+   */
+  public void publish(int count, EventWriter writer) {
+    int offset = 0;
+    while (offset < count) {
+      int chunk = Math.min(count - offset, slots.length);
+      long first = claim(chunk);
+      for (int i = 0; i < chunk; i++) {
+        EngineEvent event = slots[(int) (first + i) & mask];
+        event.setSequence(first + i);
+        writer.write(event, offset + i);
+      }
+      publish(first, first + chunk - 1);
+      offset += chunk;
+    }
+  }
+
+  // Claims consecutive slots, waiting while the slowest consumer is a full ring behind the last of them
+  private long claim(int count) {
+    long last = claimed.addAndGet(count);
+    long wrapPoint = last - slots.length;
+    while (wrapPoint > minimumConsumerSequence()) {
+      LockSupport.parkNanos(IDLE_PARK_NANOS);
+    }
+    return last - count + 1;
+  }
+
+  private void publish(long firstSequence, long lastSequence) {
+    for (long sequence = firstSequence; sequence <= lastSequence; sequence++) {
+      published.lazySet((int) sequence & mask, sequence);
+    }
+    for (Consumer consumer : consumers) {
+      LockSupport.unpark(consumer.thread);
+    }
+  }
+
+  public Map<String, Object> status() {
+    Map<String, Object> status = new LinkedHashMap<>();
+    long cursor = claimed.get();
+    status.put("capacity", slots.length);
+    status.put("cursor", cursor);
+    Map<String, Object> lag = new LinkedHashMap<>();
+    for (Consumer consumer : consumers) {
+      lag.put(consumer.name, cursor - consumer.sequence.get());
+    }
+    status.put("consumerLag", lag);
+    return status;
+  }
+
+  /**
+   * Stops the consumers once they have handled everything already published.
+   */
+  @PreDestroy
+  public void shutdown() throws InterruptedException {
+    for (Consumer consumer : consumers) {
+      consumer.running = false;
+      LockSupport.unpark(consumer.thread);
+    }
+    for (Consumer consumer : consumers) {
+      consumer.thread.join(5_000);
+    }
+  }
+
+  private long minimumConsumerSequence() {
+    long minimum = Long.MAX_VALUE;
+    for (Consumer consumer : consumers) {
+      minimum = Math.min(minimum, consumer.sequence.get());
+    }
+    return minimum;
+  }
+
+  private class Consumer implements Runnable {
+    private final String name;
+    private final EventHandler handler;
+    // Last sequence handled
+    private final AtomicLong sequence;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    private Consumer(String name, EventHandler handler, long startAfter) {
+      this.name = name;
+      this.handler = handler;
+      this.sequence = new AtomicLong(startAfter);
+      this.thread = new Thread(this, "engine-events-" + name);
+      this.thread.setDaemon(true);
+    }
+
+    @Override
+    public void run() {
+      long next = sequence.get() + 1;
+      int idle = 0;
+      while (true) {
+        // Batch up to a full ring of contiguous published events
+        long available = next - 1;
+        while (available - next + 1 < slots.length
+            && published.get((int) (available + 1) & mask) == available + 1) {
+          available++;
+        }
+        if (available < next) {
+          if (!running) {
+            return;
+          }
+          if (++idle < IDLE_SPINS) {
+            Thread.onSpinWait();
+          } else {
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+          }
+          continue;
+        }
+        idle = 0;
+
+        for (long current = next; current <= available; current++) {
+          try {
+            handler.onEvent(slots[(int) current & mask], current == available);
+          } catch (Exception e) {
+            logger.error("Event consumer {} failed on event {}", name, current, e);
+          }
+        }
+        sequence.lazySet(available);
+        next = available + 1;
+      }
+    }
+  }
+}
@@ -0,0 +1,34 @@
+package com.pga.jasdaq.engine;
+
+import com.pga.jasdaq.orderbook.Order;
+import com.pga.jasdaq.orderbook.Trade;
+
+import java.util.List;
+
+/**
+ * Receives every order the engine has matched, together with its trades,
+ * and the resting orders it expired.
+ */
+@FunctionalInterface
+public interface ExecutionListener {
+
+  /**
+   * Called while holding the book lock of the symbol, so calls for one symbol
+   * arrive in matching order. Implementations must not block.
+   *
+   * @param stockSymbol The symbol of the stock.
+   * @param order       The incoming order, with its shares reduced by the fills.
+   * @param trades      The trades it executed, possibly empty.
+   */
+  void onExecution(String stockSymbol, Order order, List<Trade> trades);
+
+  /**
+   * Called while holding the book lock of the symbol after DAY or GTD orders
+   * were removed from the book at their expire time.
+   *
+   * @param stockSymbol The symbol of the stock.
+   * @param orders      The expired orders, with the shares they had left.
+   */
+  default void onExpired(String stockSymbol, List<Order> orders) {
+  }
+}
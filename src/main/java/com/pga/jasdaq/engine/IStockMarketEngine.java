@@ -1,9 +1,11 @@
 package com.pga.jasdaq.engine;
 
+import com.pga.jasdaq.marketdata.Quote;
 import com.pga.jasdaq.orderbook.Trade;
 import com.pga.jasdaq.orderbook.Order;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface IStockMarketEngine {
 
@@ -14,9 +16,36 @@ public interface IStockMarketEngine {
    * @param stockSymbol The symbol of the stock for which the order is placed.
    * @param clientId    The ID of the client placing the order.
    * @return A list of executed trades as a result of the order placement.
+   * @throws RiskRejectedException if the order exceeds a pre-trade risk limit of the client.
    */
   List<Trade> placeOrder(Order order, String stockSymbol, String clientId);
 
+  /**
+   * Places an order on the matching thread of its symbol without blocking the
+   * caller.
+   *
+   * @param order       The order to place (limit or market).
+   * @param stockSymbol The symbol of the stock for which the order is placed.
+   * @param clientId    The ID of the client placing the order.
+   * @return A future completed with the executed trades once the order has
+   *         been matched, or exceptionally if the symbol's queue is full.
+   */
+  CompletableFuture<List<Trade>> placeOrderAsync(Order order, String stockSymbol, String clientId);
+
+  /**
+   * Replaces a resting order: the order is removed and the replacement is
+   * matched under the same book lock, so nothing trades against the old
+   * order in between. The replacement takes a new place in the queue.
+   *
+   * @param orderId     The ID of the resting order to replace.
+   * @param replacement The order to place in its stead.
+   * @param stockSymbol The symbol of the stock.
+   * @param clientId    The ID of the client amending the order.
+   * @return A list of trades executed by the replacement.
+   * @throws IllegalStateException if the order is no longer resting.
+   */
+  List<Trade> amendOrder(int orderId, Order replacement, String stockSymbol, String clientId);
+
   /**
    * Cancels an existing order.
    *
@@ -42,4 +71,13 @@ public interface IStockMarketEngine {
    * @return The current price, or -1 if no trades have been executed.
    */
   int getCurrentPrice(String stockSymbol);
+
+  /**
+   * Retrieves the latest published quote of a stock without touching its
+   * book, so it never waits for matching.
+   *
+   * @param stockSymbol The symbol of the stock.
+   * @return Best bid and ask with sizes, last price and volume as of the last command.
+   */
+  Quote getQuote(String stockSymbol);
 }
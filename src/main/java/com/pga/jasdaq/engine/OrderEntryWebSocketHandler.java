@@ -0,0 +1,391 @@
+package com.pga.jasdaq.engine;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pga.jasdaq.config.OrderEntryHandshakeInterceptor;
+import com.pga.jasdaq.orderbook.Order;
+import com.pga.jasdaq.orderbook.TimeInForce;
+import com.pga.jasdaq.orderbook.Trade;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+
+/**
+ * Order entry and execution reports over a persistent WebSocket session.
+ *
+ * Authenticated clients send one order message per frame, as JSON text:
+ * <pre>
+ * {"type":"new","symbol":"TSLA","orderId":1,"isBuy":true,"shares":100,"limit":105}  (no limit: market order)
+ * {"type":"new","symbol":"TSLA","orderId":2,"isBuy":false,"shares":100,"limit":110,"timeInForce":"DAY"}
+ * (timeInForce DAY, GTD with "expireTime" in epoch milliseconds, or GTC)
+ * {"type":"cancel","symbol":"TSLA","orderId":1}
+ * {"type":"amend","symbol":"TSLA","orderId":1,"shares":50,"limit":104}
+ * </pre>
+ * or as big-endian binary: type (byte, 1 new, 2 cancel, 3 amend), symbol
+ * length (unsigned byte, at least 1), symbol (ASCII), orderId (int), then for new a flags byte
+ * (bit 0 buy, bit 1 market, bit 2 DAY), shares (int) and limit (int), and
+ * for amend shares (int) and limit (int). Orders are GTC unless they say
+ * otherwise; an amended order keeps its time in force.
+ *
+ * Replies are JSON text frames of type ack, reject, fill and expired,
+ * numbered by a per-session {@code seq}. An order's ack and fills, and the
+ * fills and expiries of resting orders, are sent under the book lock of the
+ * symbol, so a session sees the ack of an order before any of its fills and
+ * fills in matching order.
+ */
+@Component
+public class OrderEntryWebSocketHandler extends AbstractWebSocketHandler implements ExecutionListener {
+
+  private static final Logger logger = LoggerFactory.getLogger(OrderEntryWebSocketHandler.class);
+
+  private static final byte TYPE_NEW = 1;
+  private static final byte TYPE_CANCEL = 2;
+  private static final byte TYPE_AMEND = 3;
+  private static final int FLAG_BUY = 1;
+  private static final int FLAG_MARKET = 2;
+  private static final int FLAG_DAY = 4;
+
+  private static final int SEND_TIME_LIMIT_MS = 1000;
+  private static final int SEND_BUFFER_LIMIT_BYTES = 512 * 1024;
+
+  private final IStockMarketEngine stockMarketEngine;
+  private final boolean cancelOnDisconnect;
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  // Session id to its order entry state
+  private final Map<String, OrderSession> sessions = new ConcurrentHashMap<>();
+  // "SYMBOL:orderId" to the resting order and the session that owns it; the engine lets an id
+  // rest only once per symbol, so orders of different clients never share a key
+  private final Map<String, OwnedOrder> ownedOrders = new ConcurrentHashMap<>();
+  // Orders being matched for a session, acknowledged from onExecution (Order has identity equality)
+  private final Map<Order, PendingOrder> pendingOrders = new ConcurrentHashMap<>();
+
+  public OrderEntryWebSocketHandler(StockMarketEngine stockMarketEngine,
+      @Value("${jasdaq.order-entry.cancel-on-disconnect:true}") boolean cancelOnDisconnect) {
+    this.stockMarketEngine = stockMarketEngine;
+    this.cancelOnDisconnect = cancelOnDisconnect;
+    stockMarketEngine.setExecutionListener(this);
+  }
+
+  @Override
+  public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+    String clientId = (String) session.getAttributes().get(OrderEntryHandshakeInterceptor.CLIENT_ID_ATTRIBUTE);
+    OrderSession orderSession = new OrderSession(clientId,
+        new ConcurrentWebSocketSessionDecorator(session, SEND_TIME_LIMIT_MS, SEND_BUFFER_LIMIT_BYTES));
+    sessions.put(session.getId(), orderSession);
+    logger.info("Order entry session {} opened for client {}", session.getId(), clientId);
+  }
+
+  @Override
+  public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
+    OrderSession orderSession = sessions.remove(session.getId());
+    if (orderSession == null) {
+      return;
+    }
+    List<Map.Entry<String, OwnedOrder>> owned = new ArrayList<>();
+    for (Map.Entry<String, OwnedOrder> entry : ownedOrders.entrySet()) {
+      if (entry.getValue().session == orderSession) {
+        owned.add(entry);
+      }
+    }
+    for (Map.Entry<String, OwnedOrder> entry : owned) {
+      ownedOrders.remove(entry.getKey(), entry.getValue());
+      if (cancelOnDisconnect) {
+        stockMarketEngine.cancelOrder(entry.getValue().order.getIdNumber(), entry.getValue().symbol);
+      }
+    }
+    logger.info("Order entry session {} of client {} closed, {} resting orders {}", session.getId(),
+        orderSession.clientId, owned.size(), cancelOnDisconnect ? "canceled" : "left in the book");
+  }
+
+  @Override
+  protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+    OrderSession orderSession = sessions.get(session.getId());
+    if (orderSession == null) {
+      return;
+    }
+
+    JsonNode request;
+    try {
+      request = objectMapper.readTree(message.getPayload());
+    } catch (JsonProcessingException e) {
+      reject(orderSession, "unknown", null, 0, "Malformed JSON");
+      return;
+    }
+    String type = request.path("type").asText();
+    String stockSymbol = request.path("symbol").asText().toUpperCase();
+    int orderId = request.path("orderId").asInt();
+    if (stockSymbol.isEmpty() || !request.hasNonNull("orderId")) {
+      reject(orderSession, type, stockSymbol, orderId, "symbol and orderId are required");
+      return;
+    }
+
+    switch (type) {
+      case "new" -> {
+        Order order = new Order(orderId, request.path("isBuy").asBoolean(), request.path("shares").asInt(),
+            request.hasNonNull("limit") ? request.get("limit").asInt() : null);
+        try {
+          order.setTimeInForce(TimeInForce.valueOf(request.path("timeInForce").asText("GTC").toUpperCase()));
+        } catch (IllegalArgumentException e) {
+          reject(orderSession, type, stockSymbol, orderId,
+              "Unknown timeInForce: " + request.path("timeInForce").asText());
+          return;
+        }
+        order.setExpireTime(request.path("expireTime").asLong());
+        placeOrder(orderSession, stockSymbol, order);
+      }
+      case "cancel" -> cancelOrder(orderSession, stockSymbol, orderId);
+      case "amend" -> {
+        if (!request.hasNonNull("limit")) {
+          reject(orderSession, type, stockSymbol, orderId, "limit is required");
+          return;
+        }
+        amendOrder(orderSession, stockSymbol, orderId, request.path("shares").asInt(), request.get("limit").asInt());
+      }
+      default -> reject(orderSession, type, stockSymbol, orderId, "Unknown type: " + type);
+    }
+  }
+
+  @Override
+  protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) throws Exception {
+    OrderSession orderSession = sessions.get(session.getId());
+    if (orderSession == null) {
+      return;
+    }
+
+    ByteBuffer buffer = message.getPayload();
+    try {
+      byte type = buffer.get();
+      int symbolLength = Byte.toUnsignedInt(buffer.get());
+      if (symbolLength == 0 || symbolLength > buffer.remaining()) {
+        reject(orderSession, "unknown", null, 0, "Malformed binary frame: bad symbol length " + symbolLength);
+        return;
+      }
+      byte[] symbolBytes = new byte[symbolLength];
+      buffer.get(symbolBytes);
+      String stockSymbol = new String(symbolBytes, StandardCharsets.US_ASCII).toUpperCase();
+      int orderId = buffer.getInt();
+      switch (type) {
+        case TYPE_NEW -> {
+          byte flags = buffer.get();
+          int shares = buffer.getInt();
+          int limit = buffer.getInt();
+          Order order = new Order(orderId, (flags & FLAG_BUY) != 0, shares, (flags & FLAG_MARKET) != 0 ? null : limit);
+          if ((flags & FLAG_DAY) != 0) {
+            order.setTimeInForce(TimeInForce.DAY);
+          }
+          placeOrder(orderSession, stockSymbol, order);
+        }
+        case TYPE_CANCEL -> cancelOrder(orderSession, stockSymbol, orderId);
+        case TYPE_AMEND -> amendOrder(orderSession, stockSymbol, orderId, buffer.getInt(), buffer.getInt());
+        default -> reject(orderSession, "unknown", stockSymbol, orderId, "Unknown type: " + type);
+      }
+    } catch (BufferUnderflowException e) {
+      reject(orderSession, "unknown", null, 0, "Truncated binary frame");
+    }
+  }
+
+  @Override
+  public void onExecution(String stockSymbol, Order order, List<Trade> trades) {
+    PendingOrder pending = pendingOrders.remove(order);
+    if (pending != null) {
+      String key = orderKey(stockSymbol, order.getIdNumber());
+      int leaves = order.getShares();
+      for (Trade trade : trades) {
+        leaves += trade.getSharesTraded();
+      }
+      pending.session.send(report("ack", pending.action, stockSymbol, order.getIdNumber(), leaves));
+      for (Trade trade : trades) {
+        leaves -= trade.getSharesTraded();
+        pending.session.send(fill(stockSymbol, order.getIdNumber(), order.isBuy(), trade, leaves));
+      }
+      if (!order.isMarketOrder() && order.getShares() > 0) {
+        ownedOrders.put(key, new OwnedOrder(pending.session, stockSymbol, order));
+      } else {
+        ownedOrders.remove(key);
+      }
+    }
+
+    // Fills of resting orders owned by sessions
+    for (Trade trade : trades) {
+      int restingOrderId = order.isBuy() ? trade.getSellOrderId() : trade.getBuyOrderId();
+      String key = orderKey(stockSymbol, restingOrderId);
+      OwnedOrder owned = ownedOrders.get(key);
+      if (owned != null) {
+        owned.session.send(fill(stockSymbol, restingOrderId, !order.isBuy(), trade, owned.order.getShares()));
+        if (owned.order.getShares() <= 0) {
+          ownedOrders.remove(key, owned);
+        }
+      }
+    }
+  }
+
+  @Override
+  public void onExpired(String stockSymbol, List<Order> orders) {
+    for (Order order : orders) {
+      String key = orderKey(stockSymbol, order.getIdNumber());
+      OwnedOrder owned = ownedOrders.get(key);
+      if (owned != null && owned.order == order) {
+        ownedOrders.remove(key, owned);
+        Map<String, Object> frame = report("expired", null, stockSymbol, order.getIdNumber(), 0);
+        frame.remove("action");
+        frame.put("expiredShares", order.getShares());
+        owned.session.send(frame);
+      }
+    }
+  }
+
+  private void placeOrder(OrderSession session, String stockSymbol, Order order) {
+    OwnedOrder existing = ownedOrders.get(orderKey(stockSymbol, order.getIdNumber()));
+    if (existing != null) {
+      reject(session, "new", stockSymbol, order.getIdNumber(), "Order ID is already resting");
+      return;
+    }
+    execute(session, "new", stockSymbol, order, () -> stockMarketEngine.placeOrder(order, stockSymbol, session.clientId));
+  }
+
+  private void amendOrder(OrderSession session, String stockSymbol, int orderId, int shares, int limit) {
+    OwnedOrder owned = ownedOrders.get(orderKey(stockSymbol, orderId));
+    if (owned == null || owned.session != session) {
+      reject(session, "amend", stockSymbol, orderId, "Unknown order");
+      return;
+    }
+    Order replacement = new Order(orderId, owned.order.isBuy(), shares, limit);
+    replacement.setTimeInForce(owned.order.getTimeInForce());
+    replacement.setExpireTime(owned.order.getExpireTime());
+    execute(session, "amend", stockSymbol, replacement,
+        () -> stockMarketEngine.amendOrder(orderId, replacement, stockSymbol, session.clientId));
+  }
+
+  private void execute(OrderSession session, String action, String stockSymbol, Order order, Runnable submit) {
+    pendingOrders.put(order, new PendingOrder(session, action));
+    try {
+      submit.run();
+    } catch (IllegalArgumentException | IllegalStateException e) {
+      // Rejected before matching, so onExecution did not acknowledge it
+      reject(session, action, stockSymbol, order.getIdNumber(), e.getMessage());
+    } finally {
+      pendingOrders.remove(order);
+    }
+  }
+
+  private void cancelOrder(OrderSession session, String stockSymbol, int orderId) {
+    String key = orderKey(stockSymbol, orderId);
+    OwnedOrder owned = ownedOrders.get(key);
+    if (owned == null || owned.session != session) {
+      reject(session, "cancel", stockSymbol, orderId, "Unknown order");
+      return;
+    }
+    stockMarketEngine.cancelOrder(orderId, stockSymbol);
+    ownedOrders.remove(key, owned);
+    // No fill can reach the order after the cancel, and earlier fills were already sent
+    if (owned.order.getShares() > 0) {
+      session.send(report("ack", "cancel", stockSymbol, orderId, 0));
+    } else {
+      reject(session, "cancel", stockSymbol, orderId, "Order already filled");
+    }
+  }
+
+  private void reject(OrderSession session, String action, String stockSymbol, int orderId, String reason) {
+    Map<String, Object> frame = report("reject", action, stockSymbol, orderId, 0);
+    frame.remove("leaves");
+    frame.put("reason", reason);
+    session.send(frame);
+  }
+
+  private static Map<String, Object> report(String type, String action, String stockSymbol, int orderId, int leaves) {
+    Map<String, Object> frame = new LinkedHashMap<>();
+    frame.put("type", type);
+    frame.put("action", action);
+    frame.put("symbol", stockSymbol);
+    frame.put("orderId", orderId);
+    frame.put("leaves", leaves);
+    return frame;
+  }
+
+  private static Map<String, Object> fill(String stockSymbol, int orderId, boolean isBuy, Trade trade, int leaves) {
+    Map<String, Object> frame = new LinkedHashMap<>();
+    frame.put("type", "fill");
+    frame.put("symbol", stockSymbol);
+    frame.put("orderId", orderId);
+    frame.put("isBuy", isBuy);
+    frame.put("price", trade.getTradePrice());
+    frame.put("shares", trade.getSharesTraded());
+    frame.put("leaves", leaves);
+    frame.put("counterOrderId", isBuy ? trade.getSellOrderId() : trade.getBuyOrderId());
+    frame.put("timestamp", trade.getTimestamp());
+    return frame;
+  }
+
+  private static String orderKey(String stockSymbol, int orderId) {
+    return stockSymbol + ":" + orderId;
+  }
+
+  private class OrderSession {
+    private final String clientId;
+    private final WebSocketSession session;
+    // Numbers and sends frames atomically so seq follows send order across symbols
+    private final ReentrantLock sendLock = new ReentrantLock();
+    private long sequence;
+
+    private OrderSession(String clientId, WebSocketSession session) {
+      this.clientId = clientId;
+      this.session = session;
+    }
+
+    private void send(Map<String, Object> frame) {
+      sendLock.lock();
+      try {
+        if (!session.isOpen()) {
+          return;
+        }
+        frame.put("seq", ++sequence);
+        session.sendMessage(new TextMessage(objectMapper.writeValueAsString(frame)));
+      } catch (Exception e) {
+        logger.warn("Failed to send to order entry session {}: {}", session.getId(), e.getMessage());
+      } finally {
+        sendLock.unlock();
+      }
+    }
+  }
+
+  private static class OwnedOrder {
+    private final OrderSession session;
+    private final String symbol;
+    private final Order order;
+
+    private OwnedOrder(OrderSession session, String symbol, Order order) {
+      this.session = session;
+      this.symbol = symbol;
+      this.order = order;
+    }
+  }
+
+  private static class PendingOrder {
+    private final OrderSession session;
+    private final String action;
+
+    private PendingOrder(OrderSession session, String action) {
+      this.session = session;
+      this.action = action;
+    }
+  }
+}
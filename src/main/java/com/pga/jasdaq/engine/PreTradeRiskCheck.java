@@ -0,0 +1,301 @@
+package com.pga.jasdaq.engine;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Pre-trade risk stage run ahead of the matching engine.
+ *
+ * Every client gets a dense slot on its first order; its open quantity, open
+ * notional, order rate, and per-symbol net position and open buy and sell
+ * quantity live in primitive arrays indexed by that slot, so a check is a
+ * handful of atomic array operations with no locks and no allocation. The
+ * position limit applies to the position the client would reach if all its
+ * open orders on the side of the new order filled.
+ *
+ * {@link #reserve} adds an order to the open counters before it is matched,
+ * atomically against concurrent orders of the same client. The engine's
+ * events then settle the reservation on the "risk" consumer of the
+ * {@link EngineEventRing}: an accepted order keeps only what rests in the
+ * book, fills move shares from open to position on both sides, and
+ * cancellations release what was resting. Positions therefore trail the
+ * matching engine by the consumer lag, while open exposure never
+ * undercounts.
+ */
+@Component
+public class PreTradeRiskCheck {
+
+  // Order rate window packed as (epoch second << RATE_COUNT_BITS) | orders in that second
+  private static final int RATE_COUNT_BITS = 32;
+  private static final long RATE_COUNT_MASK = (1L << RATE_COUNT_BITS) - 1;
+
+  private final boolean enabled;
+  private final long maxOpenQuantity;
+  private final long maxOpenNotional;
+  private final long maxPosition;
+  private final int maxOrdersPerSecond;
+  private final int maxClients;
+  private final int maxSymbols;
+
+  private final Map<String, Integer> clientSlots = new ConcurrentHashMap<>();
+  private final Map<String, Integer> symbolSlots = new ConcurrentHashMap<>();
+  private final AtomicInteger nextClientSlot = new AtomicInteger();
+  private final AtomicInteger nextSymbolSlot = new AtomicInteger();
+
+  private final AtomicLongArray openQuantity;
+  private final AtomicLongArray openNotional;
+  private final AtomicLongArray rateWindow;
+  // Net shares and open shares per side, per client and symbol at client * maxSymbols + symbol
+  private final AtomicLongArray positions;
+  private final AtomicLongArray openBuys;
+  private final AtomicLongArray openSells;
+
+  // Resting orders by symbol slot and order id; only touched by the event consumer. The engine
+  // refuses an id that is already resting on the symbol, so a key names one client's order.
+  private final Map<Long, RestingOrder> restingOrders = new HashMap<>();
+
+  public PreTradeRiskCheck(@Value("${jasdaq.risk.enabled:true}") boolean enabled,
+      @Value("${jasdaq.risk.max-open-quantity:1000000}") long maxOpenQuantity,
+      @Value("${jasdaq.risk.max-open-notional:100000000}") long maxOpenNotional,
+      @Value("${jasdaq.risk.max-position:500000}") long maxPosition,
+      @Value("${jasdaq.risk.max-orders-per-second:1000}") int maxOrdersPerSecond,
+      @Value("${jasdaq.risk.max-clients:4096}") int maxClients,
+      @Value("${jasdaq.risk.max-symbols:64}") int maxSymbols) {
+    this.enabled = enabled;
+    this.maxOpenQuantity = maxOpenQuantity;
+    this.maxOpenNotional = maxOpenNotional;
+    this.maxPosition = maxPosition;
+    this.maxOrdersPerSecond = maxOrdersPerSecond;
+    this.maxClients = maxClients;
+    this.maxSymbols = maxSymbols;
+    this.openQuantity = new AtomicLongArray(maxClients);
+    this.openNotional = new AtomicLongArray(maxClients);
+    this.rateWindow = new AtomicLongArray(maxClients);
+    this.positions = new AtomicLongArray(maxClients * maxSymbols);
+    this.openBuys = new AtomicLongArray(maxClients * maxSymbols);
+    this.openSells = new AtomicLongArray(maxClients * maxSymbols);
+  }
+
+  private static class RestingOrder {
+    private final int account;
+    private final boolean isBuy;
+    private final int price;
+    private int remaining;
+
+    private RestingOrder(int account, boolean isBuy, int price, int remaining) {
+      this.account = account;
+      this.isBuy = isBuy;
+      this.price = price;
+      this.remaining = remaining;
+    }
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Checks an order against the limits of its client and reserves it in the
+   * open counters. The order only counts towards the rate limit once every
+   * other check has passed.
+   *
+   * @param clientId    The client placing the order; null counts as one anonymous client.
+   * @param stockSymbol The symbol of the order.
+   * @param isBuy       The side of the order.
+   * @param shares      The size of the order.
+   * @param price       The limit, or for a market order the reference price to value it at.
+   * @return The reservation to pass to {@link #release} if the order never reaches the book,
+   *         or -1 when the stage is disabled.
+   * @throws RiskRejectedException If a limit would be exceeded, or a market order has no
+   *                               reference price; nothing is reserved then.
+   */
+  public int reserve(String clientId, String stockSymbol, boolean isBuy, int shares, int price) {
+    if (!enabled) {
+      return -1;
+    }
+    if (price <= 0) {
+      throw new RiskRejectedException("No reference price to value the order at");
+    }
+    int client = slot(clientSlots, nextClientSlot, clientId == null ? "" : clientId, maxClients, "clients");
+    int symbol = slot(symbolSlots, nextSymbolSlot, stockSymbol, maxSymbols, "symbols");
+    int account = client * maxSymbols + symbol;
+    long epochSecond = System.currentTimeMillis() / 1000;
+    if (ordersIn(rateWindow.get(client), epochSecond) >= maxOrdersPerSecond) {
+      throw rateLimitExceeded();
+    }
+
+    // Position if every open order on this side filled, limited in the direction of the order only
+    AtomicLongArray openSide = isBuy ? openBuys : openSells;
+    long sideQuantity = openSide.addAndGet(account, shares);
+    long projectedPosition = positions.get(account) + (isBuy ? sideQuantity : -sideQuantity);
+    if (isBuy ? projectedPosition > maxPosition : projectedPosition < -maxPosition) {
+      openSide.addAndGet(account, -shares);
+      throw new RiskRejectedException("Position limit exceeded: " + projectedPosition + " beyond " + maxPosition);
+    }
+    long quantity = openQuantity.addAndGet(client, shares);
+    if (quantity > maxOpenQuantity) {
+      release(account, isBuy, shares, 0);
+      throw new RiskRejectedException("Open quantity limit exceeded: " + quantity + " > " + maxOpenQuantity);
+    }
+    long value = (long) shares * price;
+    long notional = openNotional.addAndGet(client, value);
+    if (notional > maxOpenNotional) {
+      release(account, isBuy, shares, price);
+      throw new RiskRejectedException("Open notional limit exceeded: " + notional + " > " + maxOpenNotional);
+    }
+    if (!countOrder(client, epochSecond)) {
+      // Filled up by concurrent orders of the client since the first look
+      release(account, isBuy, shares, price);
+      throw rateLimitExceeded();
+    }
+    return account;
+  }
+
+  /**
+   * Releases a reservation whose order was refused by the matching engine
+   * and so produces no events.
+   */
+  public void release(int account, boolean isBuy, int shares, int price) {
+    if (account < 0) {
+      return;
+    }
+    int client = account / maxSymbols;
+    (isBuy ? openBuys : openSells).addAndGet(account, -shares);
+    openQuantity.addAndGet(client, -shares);
+    openNotional.addAndGet(client, -(long) shares * price);
+  }
+
+  /**
+   * Settles reservations and positions from engine events. Must run on a
+   * single consumer thread.
+   */
+  public void onEvent(EngineEvent event, boolean endOfBatch) {
+    if (!enabled) {
+      return;
+    }
+    switch (event.getType()) {
+      case ACCEPTED -> onAccepted(event);
+      case FILLED -> onFilled(event);
+      case CANCELLED -> onCancelled(event);
+      default -> {
+      }
+    }
+  }
+
+  private void onAccepted(EngineEvent event) {
+    Integer client = clientSlots.get(event.getClientId() == null ? "" : event.getClientId());
+    Integer symbol = symbolSlots.get(event.getSymbol());
+    if (client == null || symbol == null) {
+      return;
+    }
+    int account = client * maxSymbols + symbol;
+    // Filled shares move to the position with their fills; anything neither filled nor resting was dropped
+    release(account, event.isBuy(), event.getShares() - event.getLeaves(), event.getPrice());
+    if (event.getLeaves() > 0) {
+      restingOrders.put(orderKey(symbol, event.getOrderId()),
+          new RestingOrder(account, event.isBuy(), event.getPrice(), event.getLeaves()));
+    }
+  }
+
+  private void onFilled(EngineEvent event) {
+    Integer client = clientSlots.get(event.getClientId() == null ? "" : event.getClientId());
+    Integer symbol = symbolSlots.get(event.getSymbol());
+    if (client == null || symbol == null) {
+      return;
+    }
+    int shares = event.getShares();
+    positions.addAndGet(client * maxSymbols + symbol, event.isBuy() ? shares : -shares);
+
+    int passiveOrderId = event.isBuy() ? event.getSellOrderId() : event.getBuyOrderId();
+    long key = orderKey(symbol, passiveOrderId);
+    RestingOrder passive = restingOrders.get(key);
+    if (passive == null) {
+      return;
+    }
+    positions.addAndGet(passive.account, passive.isBuy ? shares : -shares);
+    release(passive.account, passive.isBuy, shares, passive.price);
+    passive.remaining -= shares;
+    if (passive.remaining <= 0) {
+      restingOrders.remove(key);
+    }
+  }
+
+  private void onCancelled(EngineEvent event) {
+    Integer symbol = symbolSlots.get(event.getSymbol());
+    if (symbol == null) {
+      return;
+    }
+    RestingOrder resting = restingOrders.remove(orderKey(symbol, event.getOrderId()));
+    if (resting != null) {
+      release(resting.account, resting.isBuy, resting.remaining, resting.price);
+    }
+  }
+
+  /**
+   * Current counters of a client, or null if it never placed an order.
+   */
+  public Map<String, Object> exposure(String clientId) {
+    Integer client = clientSlots.get(clientId == null ? "" : clientId);
+    if (client == null) {
+      return null;
+    }
+    Map<String, Object> exposure = new LinkedHashMap<>();
+    exposure.put("openQuantity", openQuantity.get(client));
+    exposure.put("openNotional", openNotional.get(client));
+    exposure.put("ordersThisSecond", ordersIn(rateWindow.get(client), System.currentTimeMillis() / 1000));
+    Map<String, Long> symbolPositions = new LinkedHashMap<>();
+    for (Map.Entry<String, Integer> symbol : symbolSlots.entrySet()) {
+      symbolPositions.put(symbol.getKey(), positions.get(client * maxSymbols + symbol.getValue()));
+    }
+    exposure.put("positions", symbolPositions);
+    return exposure;
+  }
+
+  // Counts an order in the client's one-second window; false once the window is full
+  private boolean countOrder(int client, long epochSecond) {
+    while (true) {
+      long window = rateWindow.get(client);
+      long count = ordersIn(window, epochSecond);
+      if (count >= maxOrdersPerSecond) {
+        return false;
+      }
+      if (rateWindow.compareAndSet(client, window, (epochSecond << RATE_COUNT_BITS) | (count + 1))) {
+        return true;
+      }
+    }
+  }
+
+  private static long ordersIn(long window, long epochSecond) {
+    return window >>> RATE_COUNT_BITS == epochSecond ? window & RATE_COUNT_MASK : 0;
+  }
+
+  private RiskRejectedException rateLimitExceeded() {
+    return new RiskRejectedException("Order rate limit exceeded: " + maxOrdersPerSecond + " per second");
+  }
+
+  // Slots are only stored below the capacity, so a key seen once over it is never cached
+  private static int slot(Map<String, Integer> slots, AtomicInteger next, String key, int capacity, String kind) {
+    Integer slot = slots.get(key);
+    if (slot == null) {
+      slot = slots.computeIfAbsent(key, k -> {
+        int claimed = next.getAndUpdate(n -> n < capacity ? n + 1 : n);
+        return claimed < capacity ? claimed : null;
+      });
+    }
+    if (slot == null || slot >= capacity) {
+      throw new RiskRejectedException("Too many " + kind + " for the risk stage (max " + capacity + ")");
+    }
+    return slot;
+  }
+
+  private static long orderKey(int symbol, int orderId) {
+    return ((long) symbol << 32) | (orderId & 0xFFFFFFFFL);
+  }
+}
@@ -0,0 +1,12 @@
+package com.pga.jasdaq.engine;
+
+/**
+ * Thrown when the pre-trade risk stage refuses an order before it reaches the
+ * matching engine. Nothing was reserved for a rejected order.
+ */
+public class RiskRejectedException extends IllegalStateException {
+
+  public RiskRejectedException(String message) {
+    super(message);
+  }
+}
@@ -1,112 +1,580 @@
 package com.pga.jasdaq.engine;
 
+import com.pga.jasdaq.db.service.TradeOutbox;
 import com.pga.jasdaq.db.service.TradeService;
+import com.pga.jasdaq.marketdata.CandleAggregator;
+import com.pga.jasdaq.marketdata.Quote;
+import com.pga.jasdaq.marketdata.TickerConflator;
 import com.pga.jasdaq.matchingengine.IMatchingEngine;
 import com.pga.jasdaq.matchingengine.MatchingEngine;
-import com.pga.jasdaq.orderbook.IBook;
+import com.pga.jasdaq.matchingengine.TimingWheel;
+import com.pga.jasdaq.matchingengine.TradeTape;
+import com.pga.jasdaq.orderbook.Book;
 import com.pga.jasdaq.orderbook.Order;
+import com.pga.jasdaq.orderbook.PriceLevel;
+import com.pga.jasdaq.orderbook.TimeInForce;
 import com.pga.jasdaq.orderbook.Trade;
+import com.pga.jasdaq.utils.MarketDataSnapshotProvider;
 import com.pga.jasdaq.utils.WebSocketHandler;
 
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 @Service
-public class StockMarketEngine implements IStockMarketEngine {
+public class StockMarketEngine implements IStockMarketEngine, MarketDataSnapshotProvider {
 
   private static final Logger logger = LoggerFactory.getLogger(StockMarketEngine.class);
-  
+  private static final int CANDLE_SNAPSHOT_BARS = 100;
+
   private final Map<String, IMatchingEngine> matchingEngines;
-  private final IBook orderBook;
   private final WebSocketHandler webSocketHandler;
   private final TradeService tradeService;
+  private final TradeOutbox tradeOutbox;
+  private final CandleAggregator candleAggregator;
+  private final EngineEventRing eventRing;
+  private final PreTradeRiskCheck riskCheck;
+  // Last published top of book per symbol: bid, bid size, ask, ask size
+  private final Map<String, int[]> publishedTops = new ConcurrentHashMap<>();
+  // Quote per symbol, replaced under the book lock and read by request threads without it
+  private final Map<String, AtomicReference<Quote>> quotes = new ConcurrentHashMap<>();
+  private final TickerConflator tickerConflator = new TickerConflator();
+  private final int tradeTapeCapacity;
+  private final TradeTape.OverflowPolicy tradeTapeOverflowPolicy;
+  // Book locks are ReentrantLocks rather than monitors so virtual request threads
+  // waiting on a busy symbol unmount instead of pinning their carrier
+  private final Map<String, ReentrantLock> bookLocks = new ConcurrentHashMap<>();
+  // One matching thread per symbol for placeOrderAsync, with a bounded queue
+  private final Map<String, ExecutorService> matchingExecutors = new ConcurrentHashMap<>();
+  private final int matchingQueueCapacity;
+  // Expiry of DAY and GTD orders per symbol, advanced under the book lock between commands
+  private final Map<String, TimingWheel<Order>> expiryWheels = new ConcurrentHashMap<>();
+  private final Map<String, List<Order>> expiryBuffers = new ConcurrentHashMap<>();
+  private final long expiryTickMillis;
+  private final int expiryWheelSize;
+  private final int expiryWheelLevels;
+  private final LocalTime sessionCloseTime;
+  private final ZoneId sessionZone;
+  private volatile ExecutionListener executionListener;
 
-  public StockMarketEngine(Map<String, IMatchingEngine> matchingEngines, IBook orderBook,
-      WebSocketHandler webSocketHandler, TradeService tradeService) {
+  public StockMarketEngine(Map<String, IMatchingEngine> matchingEngines,
+      WebSocketHandler webSocketHandler, TradeService tradeService, TradeOutbox tradeOutbox,
+      CandleAggregator candleAggregator, EngineEventRing eventRing, PreTradeRiskCheck riskCheck,
+      @Value("${jasdaq.trade-tape.capacity:65536}") int tradeTapeCapacity,
+      @Value("${jasdaq.trade-tape.overflow-policy:OVERWRITE_OLDEST}") TradeTape.OverflowPolicy tradeTapeOverflowPolicy,
+      @Value("${jasdaq.matching.queue-capacity:10000}") int matchingQueueCapacity,
+      @Value("${jasdaq.expiry.tick-ms:100}") long expiryTickMillis,
+      @Value("${jasdaq.expiry.wheel-size:64}") int expiryWheelSize,
+      @Value("${jasdaq.expiry.levels:4}") int expiryWheelLevels,
+      @Value("${jasdaq.session.close-time:16:00}") String sessionCloseTime,
+      @Value("${jasdaq.session.zone:}") String sessionZone) {
     this.matchingEngines = matchingEngines;
-    this.orderBook = orderBook;
     this.webSocketHandler = webSocketHandler;
     this.tradeService = tradeService;
+    this.tradeOutbox = tradeOutbox;
+    this.candleAggregator = candleAggregator;
+    this.eventRing = eventRing;
+    this.riskCheck = riskCheck;
+    this.tradeTapeCapacity = tradeTapeCapacity;
+    this.tradeTapeOverflowPolicy = tradeTapeOverflowPolicy;
+    this.matchingQueueCapacity = matchingQueueCapacity;
+    this.expiryTickMillis = expiryTickMillis;
+    this.expiryWheelSize = expiryWheelSize;
+    this.expiryWheelLevels = expiryWheelLevels;
+    this.sessionCloseTime = LocalTime.parse(sessionCloseTime);
+    this.sessionZone = sessionZone.isEmpty() ? ZoneId.systemDefault() : ZoneId.of(sessionZone);
 
     // Initialize the map with empty engines for the specified stock symbols
     initializeMatchingEngines();
+    webSocketHandler.setSnapshotProvider(this);
+
+    // Persistence, candles and risk settlement run off the matching path, each at its own pace
+    eventRing.addConsumer("persistence", this::persistTrade);
+    eventRing.addConsumer("candles", (event, endOfBatch) -> {
+      if (event.getType() == EngineEvent.Type.FILLED) {
+        candleAggregator.onTrade(event.getSymbol(), event.getPrice(), event.getShares(), event.getTimestamp());
+      }
+    });
+    if (riskCheck.isEnabled()) {
+      eventRing.addConsumer("risk", riskCheck::onEvent);
+    }
   }
 
   private void initializeMatchingEngines() {
-    matchingEngines.put("TSLA", new MatchingEngine(orderBook));
-    matchingEngines.put("HIND", new MatchingEngine(orderBook));
-    matchingEngines.put("RELI", new MatchingEngine(orderBook));
-    matchingEngines.put("ADNI", new MatchingEngine(orderBook));
+    // Each symbol gets its own book so per-symbol depth and prices stay separate
+    for (String stockSymbol : List.of("TSLA", "HIND", "RELI", "ADNI")) {
+      IMatchingEngine matchingEngine =
+          new MatchingEngine(new Book(), new TradeTape(tradeTapeCapacity, tradeTapeOverflowPolicy));
+      matchingEngines.put(stockSymbol, matchingEngine);
+      int[] top = currentTop(matchingEngine);
+      quotes.put(stockSymbol, new AtomicReference<>(new Quote(0, top[0], top[1], top[2], top[3],
+          matchingEngine.getCurrentPrice(), 0, System.currentTimeMillis())));
+      bookLocks.put(stockSymbol, new ReentrantLock());
+      matchingExecutors.put(stockSymbol, newMatchingExecutor(stockSymbol));
+      expiryWheels.put(stockSymbol, new TimingWheel<>(expiryTickMillis, expiryWheelSize, expiryWheelLevels,
+          System.currentTimeMillis()));
+      expiryBuffers.put(stockSymbol, new ArrayList<>());
+    }
+  }
+
+  private ExecutorService newMatchingExecutor(String stockSymbol) {
+    return new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(matchingQueueCapacity), runnable -> {
+          Thread thread = new Thread(runnable, "matching-" + stockSymbol);
+          thread.setDaemon(true);
+          return thread;
+        });
+  }
+
+  public void setExecutionListener(ExecutionListener executionListener) {
+    this.executionListener = executionListener;
   }
 
   @Override
   public List<Trade> placeOrder(Order order, String stockSymbol, String clientId) {
-    IMatchingEngine matchingEngine = matchingEngines.get(stockSymbol);
     logger.info("In placeOrder in matchingEngine, stockSymbol: {}", stockSymbol);
-    if (matchingEngine == null) {
-      throw new IllegalArgumentException("No matching engine found for stock: " + stockSymbol);
-    }
+    return executeOrder(order, stockSymbol, clientId, null);
+  }
+
+  @Override
+  public List<Trade> amendOrder(int orderId, Order replacement, String stockSymbol, String clientId) {
+    logger.info("In amendOrder in matchingEngine, stockSymbol: {}, orderId: {}", stockSymbol, orderId);
+    return executeOrder(replacement, stockSymbol, clientId, orderId);
+  }
+
+  /**
+   * Price a market order is risk-checked at: the higher of the last trade and
+   * the best price on the side it takes from. Not positive if there is
+   * neither, which the risk stage rejects.
+   */
+  private int marketReferencePrice(String stockSymbol, boolean isBuy) {
+    Quote quote = getQuote(stockSymbol);
+    return Math.max(quote.getLastPrice(), isBuy ? quote.getAsk() : quote.getBid());
+  }
+
+  /**
+   * Risk-checks and matches an order, optionally replacing a resting one in
+   * the same critical section, and publishes the resulting events.
+   *
+   * @throws RiskRejectedException If the order exceeds a limit of its client.
+   */
+  private List<Trade> executeOrder(Order order, String stockSymbol, String clientId, Integer replacedOrderId) {
+    IMatchingEngine matchingEngine = getMatchingEngine(stockSymbol);
+    resolveExpireTime(order, System.currentTimeMillis());
 
     List<Trade> tradesExecuted;
 
-    // Determine the type of order and call the appropriate matching engine method
-    if (order.isMarketOrder()) {
-      tradesExecuted = matchingEngine.placeMarketOrder(order);
-    } else {
-      tradesExecuted = matchingEngine.placeLimitOrder(order);
+    // Validate first, so an amend never cancels the resting order for a replacement that is then refused
+    matchingEngine.validateOrder(order);
+
+    // Reserve before taking the book lock
+    int originalShares = order.getShares();
+    int riskPrice = order.isMarketOrder() ? marketReferencePrice(stockSymbol, order.isBuy()) : order.getLimit();
+    int riskReservation = riskCheck.reserve(clientId, stockSymbol, order.isBuy(), originalShares, riskPrice);
+
+    // Match and publish under the book lock so market data deltas follow snapshots in order
+    ReentrantLock lock = bookLocks.get(stockSymbol);
+    lock.lock();
+    boolean published = false;
+    try {
+      expireOrders(stockSymbol, matchingEngine, System.currentTimeMillis());
+      // The book indexes resting orders by id alone, so an id may rest only once per symbol whoever sent it
+      if (matchingEngine.hasOrder(order.getIdNumber()) && !Integer.valueOf(order.getIdNumber()).equals(replacedOrderId)) {
+        throw new IllegalArgumentException("Order " + order.getIdNumber() + " is already resting");
+      }
+      if (replacedOrderId != null) {
+        if (!matchingEngine.hasOrder(replacedOrderId)) {
+          throw new IllegalStateException("Order " + replacedOrderId + " is no longer resting");
+        }
+        matchingEngine.cancelOrder(replacedOrderId);
+      }
+      // Determine the type of order and call the appropriate matching engine method
+      if (order.isMarketOrder()) {
+        tradesExecuted = matchingEngine.placeMarketOrder(order);
+      } else {
+        tradesExecuted = matchingEngine.placeLimitOrder(order);
+      }
+      int leaves = !order.isMarketOrder() && matchingEngine.hasOrder(order.getIdNumber()) ? order.getShares() : 0;
+      if (leaves > 0 && order.getExpireTime() > 0) {
+        expiryWheels.get(stockSymbol).schedule(order, order.getExpireTime());
+      }
+      // Always drain so the change tracking does not grow between subscriptions
+      List<PriceLevel> levelChanges = matchingEngine.drainLevelChanges();
+      publishEvents(stockSymbol, clientId, replacedOrderId != null ? List.of(replacedOrderId) : List.of(), order,
+          originalShares, riskPrice, leaves, tradesExecuted, levelChanges);
+      published = true;
+      publishMarketData(stockSymbol, matchingEngine, tradesExecuted, levelChanges);
+      ExecutionListener listener = executionListener;
+      if (listener != null) {
+        listener.onExecution(stockSymbol, order, tradesExecuted);
+      }
+    } catch (RuntimeException e) {
+      // Once published, the events settle the reservation
+      if (!published) {
+        riskCheck.release(riskReservation, order.isBuy(), originalShares, riskPrice);
+      }
+      throw e;
+    } finally {
+      lock.unlock();
     }
 
     // Log trades executed or notify another component as necessary
     logger.info("Trades executed for client {} for stock {}: {}", clientId, stockSymbol, tradesExecuted);
 
-    // Store trades in the database
-    for (Trade trade : tradesExecuted) {
-      // Save trade to database (isBuy reflects whether the original order was a buy)
+    return tradesExecuted;
+  }
+
+  /**
+   * Publishes what one command did to the event ring. Must be called while
+   * holding the book lock of the symbol, so events of a symbol are sequenced
+   * in matching order.
+   */
+  private void publishEvents(String stockSymbol, String clientId, List<Integer> cancelledOrderIds, Order order,
+      int originalShares, int acceptedPrice, int leaves, List<Trade> trades, List<PriceLevel> levelChanges) {
+    int cancelled = cancelledOrderIds.size();
+    int accepted = order != null ? 1 : 0;
+    int firstTrade = cancelled + accepted;
+    int firstLevel = firstTrade + trades.size();
+    long now = System.currentTimeMillis();
+    eventRing.publish(firstLevel + levelChanges.size(), (event, index) -> {
+      if (index < cancelled) {
+        event.set(EngineEvent.Type.CANCELLED, stockSymbol, clientId, cancelledOrderIds.get(index), false, 0, 0, 0, 0,
+            0, now);
+      } else if (index < firstTrade) {
+        event.set(EngineEvent.Type.ACCEPTED, stockSymbol, clientId, order.getIdNumber(), order.isBuy(),
+            acceptedPrice, originalShares, leaves, 0, 0, now);
+      } else if (index < firstLevel) {
+        Trade trade = trades.get(index - firstTrade);
+        event.set(EngineEvent.Type.FILLED, stockSymbol, clientId, order.getIdNumber(), order.isBuy(),
+            trade.getTradePrice(), trade.getSharesTraded(), 0, trade.getBuyOrderId(), trade.getSellOrderId(),
+            trade.getTimestamp());
+      } else {
+        PriceLevel level = levelChanges.get(index - firstLevel);
+        event.set(EngineEvent.Type.LEVEL_CHANGED, stockSymbol, null, 0, level.isBuy(), level.getPrice(),
+            level.getVolume(), 0, 0, 0, now);
+      }
+    });
+  }
+
+  /**
+   * Stores filled trades in the outbox, relayed to the database in the
+   * background, or directly when the outbox is disabled or failing.
+   */
+  private void persistTrade(EngineEvent event, boolean endOfBatch) {
+    if (event.getType() != EngineEvent.Type.FILLED) {
+      return;
+    }
+    // isBuy reflects whether the incoming order was a buy
+    if (tradeOutbox.isEnabled()) {
       try {
-        tradeService.saveTrade(trade, stockSymbol, order.isBuy());
-      } catch (Exception e) {
-        logger.error("Failed to save trade to database: {}", e.getMessage(), e);
+        tradeOutbox.append(event.getSymbol(), event.getPrice(), event.getShares(), event.getTimestamp(),
+            event.getBuyOrderId(), event.getSellOrderId(), event.isBuy());
+        return;
+      } catch (RuntimeException e) {
+        logger.error("Failed to append trade to the outbox, saving directly: {}", e.getMessage(), e);
       }
-      
-      // Broadcast each trade to WebSocket clients
-      webSocketHandler.sendToBroadcast(stockSymbol, trade.getTradePrice());
     }
+    try {
+      Trade trade = new Trade(event.getBuyOrderId(), event.getSellOrderId(), event.getShares(), event.getPrice(),
+          event.getTimestamp());
+      tradeService.saveTrade(trade, event.getSymbol(), event.isBuy());
+    } catch (Exception e) {
+      logger.error("Failed to save trade to database: {}", e.getMessage(), e);
+    }
+  }
 
-    return tradesExecuted;
+  @Override
+  public CompletableFuture<List<Trade>> placeOrderAsync(Order order, String stockSymbol, String clientId) {
+    getMatchingEngine(stockSymbol);
+    // Rejected with RejectedExecutionException once the symbol's queue is full
+    return CompletableFuture.supplyAsync(() -> placeOrder(order, stockSymbol, clientId),
+        matchingExecutors.get(stockSymbol));
   }
 
   @Override
   public void cancelOrder(int orderId, String stockSymbol) {
-    IMatchingEngine matchingEngine = matchingEngines.get(stockSymbol);
-    if (matchingEngine == null) {
-      throw new IllegalArgumentException("No matching engine found for stock: " + stockSymbol);
-    }
+    IMatchingEngine matchingEngine = getMatchingEngine(stockSymbol);
 
-    matchingEngine.cancelOrder(orderId);
+    ReentrantLock lock = bookLocks.get(stockSymbol);
+    lock.lock();
+    try {
+      expireOrders(stockSymbol, matchingEngine, System.currentTimeMillis());
+      boolean resting = matchingEngine.hasOrder(orderId);
+      matchingEngine.cancelOrder(orderId);
+      List<PriceLevel> levelChanges = matchingEngine.drainLevelChanges();
+      publishEvents(stockSymbol, null, resting ? List.of(orderId) : List.of(), null, 0, 0, 0, List.of(), levelChanges);
+      publishMarketData(stockSymbol, matchingEngine, List.of(), levelChanges);
+    } finally {
+      lock.unlock();
+    }
     logger.info("Order {} canceled for stock {}.", orderId, stockSymbol);
   }
 
+  /**
+   * Sets the expire time of a DAY order to the next session close and checks
+   * that a GTD order has one in the future. GTC and market orders never expire.
+   */
+  private void resolveExpireTime(Order order, long now) {
+    TimeInForce timeInForce = order.getTimeInForce() != null ? order.getTimeInForce() : TimeInForce.GTC;
+    if (order.isMarketOrder() || timeInForce == TimeInForce.GTC) {
+      order.setExpireTime(0);
+    } else if (timeInForce == TimeInForce.DAY) {
+      ZonedDateTime current = Instant.ofEpochMilli(now).atZone(sessionZone);
+      ZonedDateTime close = current.toLocalDate().atTime(sessionCloseTime).atZone(sessionZone);
+      if (!close.isAfter(current)) {
+        close = close.plusDays(1);
+      }
+      order.setExpireTime(close.toInstant().toEpochMilli());
+    } else if (order.getExpireTime() <= now) {
+      throw new IllegalArgumentException("GTD orders need an expireTime in the future");
+    }
+  }
+
+  /**
+   * Advances the expiry wheel of every symbol on its matching thread, so
+   * expiries run between commands even when a book is idle. Symbols whose
+   * queue is full are skipped; their commands expire orders as they run.
+   */
+  @Scheduled(fixedRateString = "${jasdaq.expiry.tick-ms:100}")
+  public void scheduleExpiries() {
+    for (Map.Entry<String, ExecutorService> entry : matchingExecutors.entrySet()) {
+      String stockSymbol = entry.getKey();
+      try {
+        entry.getValue().execute(() -> runExclusive(stockSymbol,
+            () -> expireOrders(stockSymbol, matchingEngines.get(stockSymbol), System.currentTimeMillis())));
+      } catch (RejectedExecutionException e) {
+        logger.debug("Matching queue of {} is full, expiring with its next command", stockSymbol);
+      }
+    }
+  }
+
+  /**
+   * Removes the orders of a symbol whose expiry came due, one batch per wheel
+   * advance: the whole batch is cancelled before its events and market data
+   * are published once. Must be called while holding the book lock.
+   */
+  private void expireOrders(String stockSymbol, IMatchingEngine matchingEngine, long now) {
+    List<Order> due = expiryBuffers.get(stockSymbol);
+    if (expiryWheels.get(stockSymbol).advance(now, due) == 0) {
+      return;
+    }
+    // Entries are never removed from the wheel, so skip orders that have since filled, been cancelled or replaced
+    List<Order> expired = new ArrayList<>(due.size());
+    List<Integer> expiredOrderIds = new ArrayList<>(due.size());
+    for (Order order : due) {
+      if (matchingEngine.getOrder(order.getIdNumber()) == order) {
+        matchingEngine.cancelOrder(order.getIdNumber());
+        expired.add(order);
+        expiredOrderIds.add(order.getIdNumber());
+      }
+    }
+    due.clear();
+    if (expired.isEmpty()) {
+      return;
+    }
+
+    List<PriceLevel> levelChanges = matchingEngine.drainLevelChanges();
+    publishEvents(stockSymbol, null, expiredOrderIds, null, 0, 0, 0, List.of(), levelChanges);
+    publishMarketData(stockSymbol, matchingEngine, List.of(), levelChanges);
+    ExecutionListener listener = executionListener;
+    if (listener != null) {
+      listener.onExpired(stockSymbol, expired);
+    }
+    logger.info("Expired {} orders for stock {}", expired.size(), stockSymbol);
+  }
+
   @Override
   public String getOrderBookSnapshot(String stockSymbol) {
-    IMatchingEngine matchingEngine = matchingEngines.get(stockSymbol);
-    if (matchingEngine == null) {
+    IMatchingEngine matchingEngine = getMatchingEngine(stockSymbol);
+
+    ReentrantLock lock = bookLocks.get(stockSymbol);
+    lock.lock();
+    try {
+      return matchingEngine.getOrderBookSnapshot();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public int getCurrentPrice(String stockSymbol) {
+    return getQuote(stockSymbol).getLastPrice();
+  }
+
+  @Override
+  public Quote getQuote(String stockSymbol) {
+    AtomicReference<Quote> quote = quotes.get(stockSymbol);
+    if (quote == null) {
       throw new IllegalArgumentException("No matching engine found for stock: " + stockSymbol);
     }
+    return quote.get();
+  }
 
-    return matchingEngine.getOrderBookSnapshot();
+  /**
+   * Publishes the conflated ticker and current candles of every symbol that
+   * changed since the previous run, bounding frames regardless of the trade
+   * rate.
+   */
+  @Scheduled(fixedRateString = "${jasdaq.ticker.publish-interval-ms:100}")
+  public void publishTickers() {
+    for (Map.Entry<String, ReentrantLock> entry : bookLocks.entrySet()) {
+      String stockSymbol = entry.getKey();
+      ReentrantLock lock = entry.getValue();
+      lock.lock();
+      try {
+        Map<String, Object> ticker = tickerConflator.drainIfChanged(stockSymbol);
+        if (ticker != null) {
+          webSocketHandler.publish(stockSymbol, WebSocketHandler.CHANNEL_TICKER, ticker);
+        }
+        Map<String, Object> candles = candleAggregator.drainIfChanged(stockSymbol);
+        if (candles != null) {
+          webSocketHandler.publish(stockSymbol, WebSocketHandler.CHANNEL_CANDLES, candles);
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
   }
 
   @Override
-  public int getCurrentPrice(String stockSymbol) {
+  public void runExclusive(String stockSymbol, Runnable action) {
+    getMatchingEngine(stockSymbol);
+
+    ReentrantLock lock = bookLocks.get(stockSymbol);
+    lock.lock();
+    try {
+      action.run();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @PreDestroy
+  public void shutdownMatchingExecutors() {
+    matchingExecutors.values().forEach(ExecutorService::shutdown);
+  }
+
+  @Override
+  public Map<String, Object> snapshot(String stockSymbol, String channel) {
+    IMatchingEngine matchingEngine = getMatchingEngine(stockSymbol);
+
+    Map<String, Object> snapshot = new HashMap<>();
+    switch (channel) {
+      case WebSocketHandler.CHANNEL_TRADES -> snapshot.put("lastPrice", matchingEngine.getCurrentPrice());
+      case WebSocketHandler.CHANNEL_TOP -> putTop(snapshot, currentTop(matchingEngine));
+      case WebSocketHandler.CHANNEL_TICKER -> snapshot.putAll(tickerConflator.snapshot(stockSymbol));
+      case WebSocketHandler.CHANNEL_CANDLES -> snapshot.putAll(candleAggregator.snapshot(stockSymbol, CANDLE_SNAPSHOT_BARS));
+      case WebSocketHandler.CHANNEL_DEPTH -> {
+        snapshot.put("bids", toLevelArrays(matchingEngine.getDepth(true, Integer.MAX_VALUE), true));
+        snapshot.put("asks", toLevelArrays(matchingEngine.getDepth(false, Integer.MAX_VALUE), false));
+      }
+      default -> throw new IllegalArgumentException("Unknown channel: " + channel);
+    }
+    return snapshot;
+  }
+
+  private IMatchingEngine getMatchingEngine(String stockSymbol) {
     IMatchingEngine matchingEngine = matchingEngines.get(stockSymbol);
     if (matchingEngine == null) {
       throw new IllegalArgumentException("No matching engine found for stock: " + stockSymbol);
     }
+    return matchingEngine;
+  }
+
+  /**
+   * Publishes the deltas caused by the last command to topic subscribers.
+   * Must be called while holding the book lock of the symbol.
+   */
+  private void publishMarketData(String stockSymbol, IMatchingEngine matchingEngine, List<Trade> trades,
+      List<PriceLevel> levelChanges) {
+    if (!trades.isEmpty() && webSocketHandler.hasSubscribers(stockSymbol, WebSocketHandler.CHANNEL_TRADES)) {
+      List<long[]> tradeRows = new ArrayList<>(trades.size());
+      for (Trade trade : trades) {
+        tradeRows.add(new long[] { trade.getTradePrice(), trade.getSharesTraded(), trade.getTimestamp() });
+      }
+      Map<String, Object> payload = new HashMap<>();
+      payload.put("trades", tradeRows);
+      webSocketHandler.publish(stockSymbol, WebSocketHandler.CHANNEL_TRADES, payload);
+    }
+
+    if (!levelChanges.isEmpty() && webSocketHandler.hasSubscribers(stockSymbol, WebSocketHandler.CHANNEL_DEPTH)) {
+      Map<String, Object> payload = new HashMap<>();
+      payload.put("bids", toLevelArrays(levelChanges, true));
+      payload.put("asks", toLevelArrays(levelChanges, false));
+      webSocketHandler.publish(stockSymbol, WebSocketHandler.CHANNEL_DEPTH, payload);
+    }
 
-    return matchingEngine.getCurrentPrice();
+    int[] top = currentTop(matchingEngine);
+    tickerConflator.onTrades(stockSymbol, trades);
+    tickerConflator.onTopOfBook(stockSymbol, top[0], top[2]);
+    publishQuote(stockSymbol, matchingEngine, trades, top);
+
+    int[] previousTop = publishedTops.put(stockSymbol, top);
+    if (!Arrays.equals(top, previousTop)) {
+      Map<String, Object> payload = new HashMap<>();
+      putTop(payload, top);
+      webSocketHandler.publish(stockSymbol, WebSocketHandler.CHANNEL_TOP, payload);
+    }
+  }
+
+  /**
+   * Replaces the quote of a symbol. Must be called while holding the book
+   * lock of the symbol, which makes it the only writer.
+   */
+  private void publishQuote(String stockSymbol, IMatchingEngine matchingEngine, List<Trade> trades, int[] top) {
+    AtomicReference<Quote> quote = quotes.get(stockSymbol);
+    Quote previous = quote.get();
+    long volume = previous.getVolume();
+    for (Trade trade : trades) {
+      volume += trade.getSharesTraded();
+    }
+    quote.set(new Quote(previous.getSequence() + 1, top[0], top[1], top[2], top[3],
+        matchingEngine.getCurrentPrice(), volume, System.currentTimeMillis()));
+  }
+
+  private static int[] currentTop(IMatchingEngine matchingEngine) {
+    return new int[] {
+        matchingEngine.getBestBid(), matchingEngine.getBestBidSize(),
+        matchingEngine.getBestOffer(), matchingEngine.getBestOfferSize() };
+  }
+
+  private static void putTop(Map<String, Object> payload, int[] top) {
+    payload.put("bid", top[0]);
+    payload.put("bidSize", top[1]);
+    payload.put("ask", top[2]);
+    payload.put("askSize", top[3]);
+  }
+
+  // Encodes levels of one side as [price, volume] pairs to keep frames small
+  private static List<int[]> toLevelArrays(List<PriceLevel> levels, boolean isBuy) {
+    List<int[]> rows = new ArrayList<>();
+    for (PriceLevel level : levels) {
+      if (level.isBuy() == isBuy) {
+        rows.add(new int[] { level.getPrice(), level.getVolume() });
+      }
+    }
+    return rows;
   }
 }
@@ -0,0 +1,54 @@
+package com.pga.jasdaq.engine;
+
+import com.pga.jasdaq.config.TcpClientConfig.TcpNotificationGateway;
+import com.pga.jasdaq.matchingengine.TradeProcessor;
+import com.pga.jasdaq.orderbook.Trade;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Event ring consumer that sends TCP trade notifications through the
+ * {@link TradeProcessor} to the clients on both sides of every fill.
+ * Orders are mapped to their client when accepted and unmapped when
+ * cancelled.
+ */
+@Component
+public class TradeNotificationConsumer {
+
+  private static final Logger logger = LoggerFactory.getLogger(TradeNotificationConsumer.class);
+
+  public TradeNotificationConsumer(EngineEventRing eventRing,
+      ObjectProvider<TcpNotificationGateway> notificationGateway,
+      @Value("${jasdaq.notifications.tcp.enabled:false}") boolean enabled) {
+    if (!enabled) {
+      return;
+    }
+    TcpNotificationGateway gateway = notificationGateway.getIfAvailable();
+    if (gateway == null) {
+      logger.warn("TCP trade notifications are enabled but no notification gateway is available");
+      return;
+    }
+
+    TradeProcessor tradeProcessor = new TradeProcessor(gateway);
+    eventRing.addConsumer("notifications", (event, endOfBatch) -> {
+      switch (event.getType()) {
+        case ACCEPTED -> {
+          if (event.getClientId() != null) {
+            tradeProcessor.registerOrder(event.getOrderId(), event.getClientId());
+          }
+        }
+        case FILLED -> tradeProcessor.processTrades(List.of(new Trade(event.getBuyOrderId(),
+            event.getSellOrderId(), event.getShares(), event.getPrice(), event.getTimestamp())));
+        case CANCELLED -> tradeProcessor.unregisterOrder(event.getOrderId());
+        default -> {
+        }
+      }
+    });
+  }
+}
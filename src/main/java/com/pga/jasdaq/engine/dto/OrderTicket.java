@@ -0,0 +1,40 @@
+package com.pga.jasdaq.engine.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.pga.jasdaq.orderbook.Order;
+import com.pga.jasdaq.orderbook.TimeInForce;
+
+/**
+ * The order fields a client submits. Unlike {@link Order} it carries no book
+ * links, so binding it never touches engine state.
+ *
+ * @param idNumber    The order ID.
+ * @param isBuy       True for buy orders, false for sell orders.
+ * @param shares      The number of shares.
+ * @param limit       The limit price, or null for a market order.
+ * @param timeInForce How long the order rests; null for GTC.
+ * @param expireTime  Epoch milliseconds at which a GTD order expires.
+ */
+public record OrderTicket(
+    int idNumber,
+    @JsonProperty("isBuy") boolean isBuy,
+    int shares,
+    Integer limit,
+    TimeInForce timeInForce,
+    Long expireTime) {
+
+  public OrderTicket(int idNumber, boolean isBuy, int shares, Integer limit) {
+    this(idNumber, isBuy, shares, limit, null, null);
+  }
+
+  public Order toOrder() {
+    Order order = new Order(idNumber, isBuy, shares, limit);
+    if (timeInForce != null) {
+      order.setTimeInForce(timeInForce);
+    }
+    if (expireTime != null) {
+      order.setExpireTime(expireTime);
+    }
+    return order;
+  }
+}
@@ -0,0 +1,11 @@
+package com.pga.jasdaq.engine.dto;
+
+/**
+ * Request body of the order placement endpoints.
+ *
+ * @param order          The order to place.
+ * @param clientHostPort The ID of the client placing the order.
+ * @param stockSymbol    The symbol of the stock for which the order is placed.
+ */
+public record PlaceOrderRequest(OrderTicket order, String clientHostPort, String stockSymbol) {
+}
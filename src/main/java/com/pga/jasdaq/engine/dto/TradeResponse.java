@@ -0,0 +1,23 @@
+package com.pga.jasdaq.engine.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.pga.jasdaq.orderbook.Trade;
+
+/**
+ * An executed trade as returned to clients. Written by
+ * {@link TradeResponseSerializer} rather than through bean introspection.
+ *
+ * @param buyOrderId   ID of the buy order.
+ * @param sellOrderId  ID of the sell order.
+ * @param sharesTraded Number of shares exchanged.
+ * @param tradePrice   Execution price.
+ * @param timestamp    Execution time in epoch milliseconds.
+ */
+@JsonSerialize(using = TradeResponseSerializer.class)
+public record TradeResponse(int buyOrderId, int sellOrderId, int sharesTraded, int tradePrice, long timestamp) {
+
+  public static TradeResponse of(Trade trade) {
+    return new TradeResponse(trade.getBuyOrderId(), trade.getSellOrderId(), trade.getSharesTraded(),
+        trade.getTradePrice(), trade.getTimestamp());
+  }
+}
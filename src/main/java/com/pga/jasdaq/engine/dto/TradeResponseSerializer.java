@@ -0,0 +1,43 @@
+package com.pga.jasdaq.engine.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Streams a {@link TradeResponse} straight to the generator. Field names are
+ * pre-encoded once, and no bean properties are looked up or invoked
+ * reflectively per trade.
+ */
+public class TradeResponseSerializer extends StdSerializer<TradeResponse> {
+
+  private static final SerializedString BUY_ORDER_ID = new SerializedString("buyOrderId");
+  private static final SerializedString SELL_ORDER_ID = new SerializedString("sellOrderId");
+  private static final SerializedString SHARES_TRADED = new SerializedString("sharesTraded");
+  private static final SerializedString TRADE_PRICE = new SerializedString("tradePrice");
+  private static final SerializedString TIMESTAMP = new SerializedString("timestamp");
+
+  public TradeResponseSerializer() {
+    super(TradeResponse.class);
+  }
+
+  @Override
+  public void serialize(TradeResponse trade, JsonGenerator generator, SerializerProvider provider)
+      throws IOException {
+    generator.writeStartObject(trade);
+    generator.writeFieldName(BUY_ORDER_ID);
+    generator.writeNumber(trade.buyOrderId());
+    generator.writeFieldName(SELL_ORDER_ID);
+    generator.writeNumber(trade.sellOrderId());
+    generator.writeFieldName(SHARES_TRADED);
+    generator.writeNumber(trade.sharesTraded());
+    generator.writeFieldName(TRADE_PRICE);
+    generator.writeNumber(trade.tradePrice());
+    generator.writeFieldName(TIMESTAMP);
+    generator.writeNumber(trade.timestamp());
+    generator.writeEndObject();
+  }
+}
@@ -0,0 +1,64 @@
+package com.pga.jasdaq.marketdata;
+
+/**
+ * Immutable OHLCV bar copied out of a {@link CandleSeries}.
+ */
+public class Candle {
+  private final long startTime; // Epoch milliseconds of the bar open
+  private final int open;
+  private final int high;
+  private final int low;
+  private final int close;
+  private final long volume;
+  private final double vwap;
+  private final int tradeCount;
+
+  public Candle(long startTime, int open, int high, int low, int close, long volume, double vwap, int tradeCount) {
+    this.startTime = startTime;
+    this.open = open;
+    this.high = high;
+    this.low = low;
+    this.close = close;
+    this.volume = volume;
+    this.vwap = vwap;
+    this.tradeCount = tradeCount;
+  }
+
+  public long getStartTime() {
+    return startTime;
+  }
+
+  public int getOpen() {
+    return open;
+  }
+
+  public int getHigh() {
+    return high;
+  }
+
+  public int getLow() {
+    return low;
+  }
+
+  public int getClose() {
+    return close;
+  }
+
+  public long getVolume() {
+    return volume;
+  }
+
+  public double getVwap() {
+    return vwap;
+  }
+
+  public int getTradeCount() {
+    return tradeCount;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("Candle{start=%d, o=%d, h=%d, l=%d, c=%d, v=%d, vwap=%.2f, trades=%d}",
+        startTime, open, high, low, close, volume, vwap, tradeCount);
+  }
+}
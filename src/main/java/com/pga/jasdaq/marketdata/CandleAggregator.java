@@ -0,0 +1,107 @@
+package com.pga.jasdaq.marketdata;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maintains live OHLCV + VWAP bars per symbol for every {@link CandleInterval},
+ * built incrementally from executed trades so chart queries for the running
+ * session never hit the database.
+ */
+@Component
+public class CandleAggregator {
+
+  private final int capacity;
+  private final Map<String, CandleSeries[]> seriesBySymbol = new ConcurrentHashMap<>();
+
+  public CandleAggregator(@Value("${jasdaq.candles.capacity:1440}") int capacity) {
+    this.capacity = capacity;
+  }
+
+  /**
+   * Folds one executed trade into the bars of a symbol.
+   *
+   * @param stockSymbol The symbol of the stock.
+   * @param price       The trade price.
+   * @param shares      The shares traded.
+   * @param timestamp   The execution time in epoch milliseconds.
+   */
+  public void onTrade(String stockSymbol, int price, int shares, long timestamp) {
+    for (CandleSeries intervalSeries : seriesFor(stockSymbol)) {
+      intervalSeries.update(price, shares, timestamp);
+    }
+  }
+
+  /**
+   * Returns the most recent bars of a symbol, oldest first.
+   *
+   * @param stockSymbol The symbol of the stock.
+   * @param interval    The bar interval.
+   * @param limit       The maximum number of bars.
+   * @return The bars, oldest first.
+   */
+  public List<Candle> getCandles(String stockSymbol, CandleInterval interval, int limit) {
+    CandleSeries[] series = seriesBySymbol.get(stockSymbol);
+    if (series == null) {
+      return List.of();
+    }
+    return series[interval.ordinal()].latest(limit);
+  }
+
+  /**
+   * Returns the current bar of every interval that changed since the last
+   * call, keyed by interval label.
+   *
+   * @param stockSymbol The symbol of the stock.
+   * @return The changed bars, or null if none changed.
+   */
+  public Map<String, Object> drainIfChanged(String stockSymbol) {
+    CandleSeries[] series = seriesBySymbol.get(stockSymbol);
+    if (series == null) {
+      return null;
+    }
+    Map<String, Object> changed = null;
+    for (CandleInterval interval : CandleInterval.values()) {
+      Candle candle = series[interval.ordinal()].drainIfChanged();
+      if (candle != null) {
+        if (changed == null) {
+          changed = new HashMap<>();
+        }
+        changed.put(interval.getLabel(), candle);
+      }
+    }
+    return changed;
+  }
+
+  /**
+   * Returns the recent bars of every interval, keyed by interval label.
+   *
+   * @param stockSymbol The symbol of the stock.
+   * @param limit       The maximum number of bars per interval.
+   * @return The bars per interval, oldest first.
+   */
+  public Map<String, Object> snapshot(String stockSymbol, int limit) {
+    Map<String, Object> snapshot = new HashMap<>();
+    for (CandleInterval interval : CandleInterval.values()) {
+      snapshot.put(interval.getLabel(), new ArrayList<>(getCandles(stockSymbol, interval, limit)));
+    }
+    return snapshot;
+  }
+
+  private CandleSeries[] seriesFor(String stockSymbol) {
+    return seriesBySymbol.computeIfAbsent(stockSymbol, key -> {
+      CandleInterval[] intervals = CandleInterval.values();
+      CandleSeries[] series = new CandleSeries[intervals.length];
+      for (CandleInterval interval : intervals) {
+        series[interval.ordinal()] = new CandleSeries(interval.getMillis(), capacity);
+      }
+      return series;
+    });
+  }
+}
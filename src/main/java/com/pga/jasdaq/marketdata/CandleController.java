@@ -0,0 +1,44 @@
+package com.pga.jasdaq.marketdata;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/candles")
+public class CandleController {
+
+  private final CandleAggregator candleAggregator;
+
+  @Autowired
+  public CandleController(CandleAggregator candleAggregator) {
+    this.candleAggregator = candleAggregator;
+  }
+
+  /**
+   * Endpoint to get the live-session bars of a symbol from memory.
+   *
+   * @param symbol   The stock symbol.
+   * @param interval The bar interval: 1s, 1m, 5m or 1h.
+   * @param limit    The maximum number of bars, most recent last.
+   * @return The bars, oldest first.
+   */
+  @GetMapping("/{symbol}")
+  public ResponseEntity<List<Candle>> getCandles(
+      @PathVariable String symbol,
+      @RequestParam(defaultValue = "1m") String interval,
+      @RequestParam(defaultValue = "100") int limit) {
+    if (limit <= 0) {
+      throw new IllegalArgumentException("limit must be positive");
+    }
+    return ResponseEntity.ok(candleAggregator.getCandles(symbol, CandleInterval.fromLabel(interval), limit));
+  }
+
+  @ExceptionHandler(IllegalArgumentException.class)
+  public ResponseEntity<Map<String, Object>> handleBadRequest(IllegalArgumentException e) {
+    return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage())));
+  }
+}
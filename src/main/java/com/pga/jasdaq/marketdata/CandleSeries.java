@@ -0,0 +1,133 @@
+package com.pga.jasdaq.marketdata;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-size ring of OHLCV bars for one symbol and interval, stored in
+ * parallel primitive arrays so that updates never allocate.
+ *
+ * Intervals without trades are not materialized; the ring keeps the most
+ * recent {@code capacity} bars that had at least one trade.
+ */
+public class CandleSeries {
+
+  private final long intervalMillis;
+  private final int capacity;
+
+  private final long[] startTimes;
+  private final int[] opens;
+  private final int[] highs;
+  private final int[] lows;
+  private final int[] closes;
+  private final long[] volumes;
+  private final long[] notionals; // Sum of price * shares, for VWAP
+  private final int[] tradeCounts;
+
+  private int head = -1; // Slot of the most recent bar
+  private int size;
+  private boolean changed;
+
+  public CandleSeries(long intervalMillis, int capacity) {
+    this.intervalMillis = intervalMillis;
+    this.capacity = capacity;
+    this.startTimes = new long[capacity];
+    this.opens = new int[capacity];
+    this.highs = new int[capacity];
+    this.lows = new int[capacity];
+    this.closes = new int[capacity];
+    this.volumes = new long[capacity];
+    this.notionals = new long[capacity];
+    this.tradeCounts = new int[capacity];
+  }
+
+  /**
+   * Folds a trade into the bar covering its timestamp. Trades older than the
+   * oldest retained bar are ignored.
+   *
+   * @param price     The trade price.
+   * @param shares    The number of shares traded.
+   * @param timestamp The trade time in epoch milliseconds.
+   */
+  public synchronized void update(int price, int shares, long timestamp) {
+    long barStart = timestamp - Math.floorMod(timestamp, intervalMillis);
+    int slot;
+
+    if (size == 0 || barStart > startTimes[head]) {
+      // Open a new bar, overwriting the oldest one once the ring is full
+      head = (head + 1) % capacity;
+      size = Math.min(size + 1, capacity);
+      startTimes[head] = barStart;
+      opens[head] = price;
+      highs[head] = price;
+      lows[head] = price;
+      closes[head] = price;
+      volumes[head] = 0;
+      notionals[head] = 0;
+      tradeCounts[head] = 0;
+      slot = head;
+    } else {
+      slot = findSlot(barStart);
+      if (slot < 0) {
+        return;
+      }
+      highs[slot] = Math.max(highs[slot], price);
+      lows[slot] = Math.min(lows[slot], price);
+      if (slot == head) {
+        closes[slot] = price;
+      }
+    }
+
+    volumes[slot] += shares;
+    notionals[slot] += (long) price * shares;
+    tradeCounts[slot]++;
+    changed = true;
+  }
+
+  /**
+   * Copies the most recent bars, oldest first.
+   *
+   * @param limit The maximum number of bars to return.
+   * @return The bars, oldest first.
+   */
+  public synchronized List<Candle> latest(int limit) {
+    int count = Math.min(limit, size);
+    List<Candle> candles = new ArrayList<>(count);
+    for (int i = count - 1; i >= 0; i--) {
+      candles.add(toCandle(Math.floorMod(head - i, capacity)));
+    }
+    return candles;
+  }
+
+  /**
+   * Returns the current bar if it changed since the last call.
+   *
+   * @return The most recent bar, or null if nothing changed.
+   */
+  public synchronized Candle drainIfChanged() {
+    if (!changed || size == 0) {
+      return null;
+    }
+    changed = false;
+    return toCandle(head);
+  }
+
+  private int findSlot(long barStart) {
+    for (int i = 0; i < size; i++) {
+      int slot = Math.floorMod(head - i, capacity);
+      if (startTimes[slot] == barStart) {
+        return slot;
+      }
+      if (startTimes[slot] < barStart) {
+        return -1; // No bar exists for this interval; late trades do not create one
+      }
+    }
+    return -1;
+  }
+
+  private Candle toCandle(int slot) {
+    double vwap = volumes[slot] == 0 ? 0 : (double) notionals[slot] / volumes[slot];
+    return new Candle(startTimes[slot], opens[slot], highs[slot], lows[slot], closes[slot],
+        volumes[slot], vwap, tradeCounts[slot]);
+  }
+}
@@ -0,0 +1,77 @@
+package com.pga.jasdaq.marketdata;
+
+/**
+ * Immutable top of book and last trade of a symbol, published by the engine
+ * after every command that touched the book.
+ *
+ * The engine swaps in a new quote through a volatile reference, so a reader
+ * gets a consistent view of all fields with a single read, never blocks and
+ * never touches the book. The sequence grows by one per published quote.
+ */
+public final class Quote {
+  private final long sequence;
+  private final int bid; // -1 if there are no bids
+  private final int bidSize;
+  private final int ask; // -1 if there are no asks
+  private final int askSize;
+  private final int lastPrice; // 0 before the first trade
+  private final long volume; // Shares traded since startup
+  private final long timestamp; // Epoch milliseconds of publication
+
+  public Quote(long sequence, int bid, int bidSize, int ask, int askSize, int lastPrice, long volume,
+      long timestamp) {
+    this.sequence = sequence;
+    this.bid = bid;
+    this.bidSize = bidSize;
+    this.ask = ask;
+    this.askSize = askSize;
+    this.lastPrice = lastPrice;
+    this.volume = volume;
+    this.timestamp = timestamp;
+  }
+
+  public long getSequence() {
+    return sequence;
+  }
+
+  public int getBid() {
+    return bid;
+  }
+
+  public int getBidSize() {
+    return bidSize;
+  }
+
+  public int getAsk() {
+    return ask;
+  }
+
+  public int getAskSize() {
+    return askSize;
+  }
+
+  /**
+   * Ask minus bid, or -1 unless both sides have orders.
+   */
+  public int getSpread() {
+    return bid < 0 || ask < 0 ? -1 : ask - bid;
+  }
+
+  public int getLastPrice() {
+    return lastPrice;
+  }
+
+  public long getVolume() {
+    return volume;
+  }
+
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("Quote{seq=%d, bid=%d x %d, ask=%d x %d, last=%d, volume=%d}",
+        sequence, bid, bidSize, ask, askSize, lastPrice, volume);
+  }
+}
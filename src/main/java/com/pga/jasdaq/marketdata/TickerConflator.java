@@ -0,0 +1,112 @@
+package com.pga.jasdaq.marketdata;
+
+import com.pga.jasdaq.orderbook.Trade;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the latest ticker state per symbol so it can be published at a fixed
+ * cadence instead of once per trade.
+ *
+ * Updates and drains for a symbol must be serialized by the caller, which
+ * holds the per-symbol book ReentrantLock of StockMarketEngine; different
+ * symbols may be updated concurrently.
+ */
+public class TickerConflator {
+
+  private final Map<String, TickerState> states = new ConcurrentHashMap<>();
+
+  /**
+   * Folds executed trades into the ticker state of a symbol.
+   *
+   * @param stockSymbol The symbol of the stock.
+   * @param trades      The trades executed by the last command.
+   */
+  public void onTrades(String stockSymbol, List<Trade> trades) {
+    if (trades.isEmpty()) {
+      return;
+    }
+    TickerState state = stateFor(stockSymbol);
+    for (Trade trade : trades) {
+      int price = trade.getTradePrice();
+      state.lastPrice = price;
+      state.volume += trade.getSharesTraded();
+      state.tradeCount++;
+      state.high = state.tradeCount == 1 ? price : Math.max(state.high, price);
+      state.low = state.tradeCount == 1 ? price : Math.min(state.low, price);
+    }
+    state.dirty = true;
+  }
+
+  /**
+   * Records the current best bid and offer of a symbol.
+   *
+   * @param stockSymbol The symbol of the stock.
+   * @param bid         The best bid price, or -1 if none.
+   * @param ask         The best offer price, or -1 if none.
+   */
+  public void onTopOfBook(String stockSymbol, int bid, int ask) {
+    TickerState state = stateFor(stockSymbol);
+    if (state.bid != bid || state.ask != ask) {
+      state.bid = bid;
+      state.ask = ask;
+      state.dirty = true;
+    }
+  }
+
+  /**
+   * Returns the ticker payload if it changed since the last drain, clearing the
+   * change flag.
+   *
+   * @param stockSymbol The symbol of the stock.
+   * @return The ticker fields, or null if nothing changed.
+   */
+  public Map<String, Object> drainIfChanged(String stockSymbol) {
+    TickerState state = states.get(stockSymbol);
+    if (state == null || !state.dirty) {
+      return null;
+    }
+    state.dirty = false;
+    return state.toPayload();
+  }
+
+  /**
+   * Returns the current ticker payload without touching the change flag.
+   *
+   * @param stockSymbol The symbol of the stock.
+   * @return The ticker fields.
+   */
+  public Map<String, Object> snapshot(String stockSymbol) {
+    return stateFor(stockSymbol).toPayload();
+  }
+
+  private TickerState stateFor(String stockSymbol) {
+    return states.computeIfAbsent(stockSymbol, key -> new TickerState());
+  }
+
+  private static class TickerState {
+    private int lastPrice = -1;
+    private long volume;
+    private long tradeCount;
+    private int high = -1;
+    private int low = -1;
+    private int bid = -1;
+    private int ask = -1;
+    private boolean dirty;
+
+    private Map<String, Object> toPayload() {
+      Map<String, Object> payload = new HashMap<>();
+      payload.put("lastPrice", lastPrice);
+      payload.put("volume", volume);
+      payload.put("tradeCount", tradeCount);
+      payload.put("high", high);
+      payload.put("low", low);
+      payload.put("bid", bid);
+      payload.put("ask", ask);
+      return payload;
+    }
+  }
+}
@@ -21,6 +21,14 @@ public interface IMatchingEngine {
    */
   List<Trade> placeMarketOrder(Order order);
 
+  /**
+   * Checks an order before it is placed, without touching the book.
+   *
+   * @param order The order to validate.
+   * @throws IllegalArgumentException if the order would be refused.
+   */
+  void validateOrder(Order order);
+
   /**
    * Cancels an order.
    *
@@ -28,6 +36,22 @@ public interface IMatchingEngine {
    */
   void cancelOrder(int orderId);
 
+  /**
+   * Checks whether an order is resting in the book.
+   *
+   * @param orderId The ID of the order.
+   * @return True if the order has unfilled shares in the book.
+   */
+  boolean hasOrder(int orderId);
+
+  /**
+   * Looks up a resting order.
+   *
+   * @param orderId The ID of the order.
+   * @return The order, or null if it is not resting in the book.
+   */
+  Order getOrder(int orderId);
+
   /**
    * Retrieves the current best bid price.
    *
@@ -49,6 +73,36 @@ public interface IMatchingEngine {
    */
   int getSpread();
 
+  /**
+   * Retrieves the resting volume at the best bid.
+   *
+   * @return The volume at the best bid.
+   */
+  int getBestBidSize();
+
+  /**
+   * Retrieves the resting volume at the best offer.
+   *
+   * @return The volume at the best offer.
+   */
+  int getBestOfferSize();
+
+  /**
+   * Retrieves the aggregated price levels of one side of the book.
+   *
+   * @param isBuy     True for the bid side, false for the offer side.
+   * @param maxLevels The maximum number of levels to return.
+   * @return The price levels, best price first.
+   */
+  List<PriceLevel> getDepth(boolean isBuy, int maxLevels);
+
+  /**
+   * Returns the price levels changed since the previous call.
+   *
+   * @return The changed price levels with their current volume.
+   */
+  List<PriceLevel> drainLevelChanges();
+
   /**
    * Retrieves the last traded price.
    *
@@ -71,9 +125,17 @@ public interface IMatchingEngine {
   int getCurrentPrice();
 
   /**
-   * Returns the trade history stored locally in the matching engine.
+   * Returns the trades still retained on the trade tape. Copies every
+   * retained trade; prefer paging with {@link #getTradeTape()} cursors.
    *
-   * @return List of trades executed so far.
+   * @return List of retained trades, oldest first.
    */
   List<Trade> getTradeHistory();
+
+  /**
+   * Returns the bounded tape of executed trades.
+   *
+   * @return The trade tape.
+   */
+  TradeTape getTradeTape();
 }
\ No newline at end of file
@@ -3,20 +3,24 @@ package com.pga.jasdaq.matchingengine;
 import com.pga.jasdaq.orderbook.*;
 import java.util.List;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
-
 @Service
 public class MatchingEngine implements IMatchingEngine {
 
   private final IBook orderBook;
-  private final List<Trade> tradeHistory; // Keeps a local history of trades
+  private final TradeTape tradeTape; // Bounded local history of trades
   private int lastTradedPrice = -1; // Stores the last traded price
 
+  @Autowired
   public MatchingEngine(IBook orderBook) {
+    this(orderBook, new TradeTape(TradeTape.DEFAULT_CAPACITY, TradeTape.OverflowPolicy.OVERWRITE_OLDEST));
+  }
+
+  public MatchingEngine(IBook orderBook, TradeTape tradeTape) {
     this.orderBook = orderBook;
-    this.tradeHistory = new ArrayList<Trade>();
+    this.tradeTape = tradeTape;
   }
 
   /**
@@ -47,6 +51,16 @@ public class MatchingEngine implements IMatchingEngine {
     return trades;
   }
 
+  /**
+   * Checks an order against the rules of the order book before it is placed.
+   *
+   * @param order The order to validate.
+   */
+  @Override
+  public void validateOrder(Order order) {
+    orderBook.validateOrder(order);
+  }
+
   /**
    * Cancels an order in the order book.
    *
@@ -57,6 +71,28 @@ public class MatchingEngine implements IMatchingEngine {
     orderBook.removeOrder(orderId);
   }
 
+  /**
+   * Checks whether an order is resting in the order book.
+   *
+   * @param orderId The ID of the order.
+   * @return True if the order has unfilled shares in the book.
+   */
+  @Override
+  public boolean hasOrder(int orderId) {
+    return orderBook.hasOrder(orderId);
+  }
+
+  /**
+   * Looks up a resting order in the order book.
+   *
+   * @param orderId The ID of the order.
+   * @return The order, or null if it is not resting in the book.
+   */
+  @Override
+  public Order getOrder(int orderId) {
+    return orderBook.getOrder(orderId);
+  }
+
   /**
    * Retrieves the best bid price.
    *
@@ -87,6 +123,48 @@ public class MatchingEngine implements IMatchingEngine {
     return orderBook.getSpread();
   }
 
+  /**
+   * Retrieves the resting volume at the best bid.
+   *
+   * @return The volume at the best bid.
+   */
+  @Override
+  public int getBestBidSize() {
+    return orderBook.getBestBidSize();
+  }
+
+  /**
+   * Retrieves the resting volume at the best offer.
+   *
+   * @return The volume at the best offer.
+   */
+  @Override
+  public int getBestOfferSize() {
+    return orderBook.getBestOfferSize();
+  }
+
+  /**
+   * Retrieves the aggregated price levels of one side of the book.
+   *
+   * @param isBuy     True for the bid side, false for the offer side.
+   * @param maxLevels The maximum number of levels to return.
+   * @return The price levels, best price first.
+   */
+  @Override
+  public List<PriceLevel> getDepth(boolean isBuy, int maxLevels) {
+    return orderBook.getDepth(isBuy, maxLevels);
+  }
+
+  /**
+   * Returns the price levels changed since the previous call.
+   *
+   * @return The changed price levels with their current volume.
+   */
+  @Override
+  public List<PriceLevel> drainLevelChanges() {
+    return orderBook.drainLevelChanges();
+  }
+
   /**
    * Returns the last traded price.
    *
@@ -109,13 +187,13 @@ public class MatchingEngine implements IMatchingEngine {
 
   /**
    * Handles the trades executed during an order placement.
-   * Updates the trade history and the last traded price.
+   * Appends them to the trade tape and updates the last traded price.
    *
    * @param trades List of trades executed.
    */
   private void handleExecutedTrades(List<Trade> trades) {
     for (Trade trade : trades) {
-      tradeHistory.add(trade); // Append trade to local history
+      tradeTape.append(trade); // Append trade to local history
       lastTradedPrice = trade.getTradePrice(); // Update last traded price
       // notify related parties using UDP multicast
       System.out.println("Trade Executed: " + trade);
@@ -133,12 +211,22 @@ public class MatchingEngine implements IMatchingEngine {
   }
 
   /**
-   * Returns the trade history stored locally in the matching engine.
+   * Returns the trades still retained on the trade tape.
    *
-   * @return List of trades executed so far.
+   * @return List of retained trades, oldest first.
    */
   @Override
   public List<Trade> getTradeHistory() {
-    return new ArrayList<>(tradeHistory); // Return a copy of the trade history
+    return tradeTape.read(tradeTape.getFirstSequence(), tradeTape.size());
+  }
+
+  /**
+   * Returns the bounded tape of executed trades for paging with cursors.
+   *
+   * @return The trade tape.
+   */
+  @Override
+  public TradeTape getTradeTape() {
+    return tradeTape;
   }
 }
\ No newline at end of file
@@ -0,0 +1,165 @@
+package com.pga.jasdaq.matchingengine;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel of deadlines with a fixed tick.
+ *
+ * Level 0 has one bucket per tick; every higher level has buckets as wide as
+ * a full turn of the level below. An item goes to the lowest level whose span
+ * covers its deadline, and when a level turns over, the next bucket of the
+ * level above is cascaded down. Scheduling and expiring are O(1); an item is
+ * moved at most once per level on its way down. Deadlines beyond the top
+ * level are parked in its furthest bucket and placed again when it cascades.
+ *
+ * Items are expired a whole level-0 bucket at a time, never before their
+ * deadline and at most a tick after it. There is no removal: callers check
+ * whether an expired item still matters, so cancelling stays free.
+ *
+ * Not thread-safe; a wheel belongs to the thread or lock of its book.
+ */
+public class TimingWheel<T> {
+
+  private final long tickMillis;
+  private final int levelBits;
+  private final int mask;
+  private final int levels;
+  private final Bucket<T>[][] buckets;
+  private long currentTick;
+  private int size;
+
+  /**
+   * @param tickMillis Resolution of the wheel.
+   * @param wheelSize  Buckets per level, a power of two.
+   * @param levels     Number of levels; the wheel spans wheelSize^levels ticks.
+   * @param startTime  Current time in epoch milliseconds.
+   */
+  @SuppressWarnings("unchecked")
+  public TimingWheel(long tickMillis, int wheelSize, int levels, long startTime) {
+    if (wheelSize <= 1 || Integer.bitCount(wheelSize) != 1) {
+      throw new IllegalArgumentException("Wheel size must be a power of two: " + wheelSize);
+    }
+    if (levels < 1 || (long) Integer.numberOfTrailingZeros(wheelSize) * levels > 62) {
+      throw new IllegalArgumentException("Unsupported number of levels: " + levels);
+    }
+    this.tickMillis = tickMillis;
+    this.levelBits = Integer.numberOfTrailingZeros(wheelSize);
+    this.mask = wheelSize - 1;
+    this.levels = levels;
+    this.buckets = new Bucket[levels][wheelSize];
+    for (Bucket<T>[] level : buckets) {
+      for (int i = 0; i < wheelSize; i++) {
+        level[i] = new Bucket<>();
+      }
+    }
+    this.currentTick = startTime / tickMillis;
+  }
+
+  /**
+   * Schedules an item; deadlines already past expire on the next advance.
+   *
+   * @param item     The item.
+   * @param deadline Epoch milliseconds at which it expires.
+   */
+  public void schedule(T item, long deadline) {
+    // Round up so nothing expires early; the current bucket has already fired
+    long deadlineTick = Math.max((deadline + tickMillis - 1) / tickMillis, currentTick + 1);
+    place(item, deadline, deadlineTick);
+    size++;
+  }
+
+  /**
+   * Advances the wheel to the given time and collects the items that expired.
+   *
+   * @param now     Current time in epoch milliseconds.
+   * @param expired Receives the expired items, bucket by bucket in deadline order.
+   * @return The number of items expired.
+   */
+  public int advance(long now, List<T> expired) {
+    long targetTick = now / tickMillis;
+    int count = 0;
+    while (currentTick < targetTick) {
+      if (size == 0) {
+        currentTick = targetTick;
+        break;
+      }
+      currentTick++;
+      cascade();
+      Bucket<T> bucket = buckets[0][(int) (currentTick & mask)];
+      for (int i = 0; i < bucket.size; i++) {
+        expired.add(bucket.items[i]);
+      }
+      count += bucket.size;
+      size -= bucket.size;
+      bucket.clear();
+    }
+    return count;
+  }
+
+  /**
+   * Number of scheduled items, including those the caller no longer needs.
+   */
+  public int size() {
+    return size;
+  }
+
+  // Moves the current bucket of every level that just turned over one level down
+  private void cascade() {
+    for (int level = 1; level < levels; level++) {
+      if ((currentTick & ((1L << (levelBits * level)) - 1)) != 0) {
+        return;
+      }
+      // Everything in the bucket is due within this turn of the level, so it lands in lower levels
+      Bucket<T> bucket = buckets[level][(int) ((currentTick >>> (levelBits * level)) & mask)];
+      for (int i = 0; i < bucket.size; i++) {
+        long deadline = bucket.deadlines[i];
+        place(bucket.items[i], deadline, Math.max((deadline + tickMillis - 1) / tickMillis, currentTick));
+      }
+      bucket.clear();
+    }
+  }
+
+  private void place(T item, long deadline, long deadlineTick) {
+    long delta = deadlineTick - currentTick;
+    for (int level = 0; level < levels; level++) {
+      if (delta < 1L << (levelBits * (level + 1))) {
+        buckets[level][(int) ((deadlineTick >>> (levelBits * level)) & mask)].add(item, deadline);
+        return;
+      }
+    }
+    // Beyond the span: park in the furthest top-level bucket and place again when it cascades
+    int top = levels - 1;
+    long parkedTick = currentTick + (1L << (levelBits * levels)) - 1;
+    buckets[top][(int) ((parkedTick >>> (levelBits * top)) & mask)].add(item, deadline);
+  }
+
+  private static class Bucket<T> {
+    private static final int INITIAL_CAPACITY = 8;
+
+    private T[] items;
+    private long[] deadlines;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    private Bucket() {
+      this.items = (T[]) new Object[INITIAL_CAPACITY];
+      this.deadlines = new long[INITIAL_CAPACITY];
+    }
+
+    private void add(T item, long deadline) {
+      if (size == items.length) {
+        items = Arrays.copyOf(items, size * 2);
+        deadlines = Arrays.copyOf(deadlines, size * 2);
+      }
+      items[size] = item;
+      deadlines[size] = deadline;
+      size++;
+    }
+
+    private void clear() {
+      Arrays.fill(items, 0, size, null);
+      size = 0;
+    }
+  }
+}
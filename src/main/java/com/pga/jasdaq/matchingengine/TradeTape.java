@@ -0,0 +1,218 @@
+package com.pga.jasdaq.matchingengine;
+
+import com.pga.jasdaq.orderbook.Trade;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-capacity tape of executed trades stored as packed 32-byte records in
+ * an off-heap ring, so memory stays flat however long the session runs.
+ *
+ * Every trade gets a sequence number starting at 1. Readers page through the
+ * tape with a {@link Cursor}, which reads fields straight from the buffer
+ * without materializing Trade objects. Like the book, the tape is not
+ * thread-safe; writers and readers must hold the per-symbol ReentrantLock
+ * that StockMarketEngine keeps for the owning book.
+ */
+public class TradeTape {
+
+  /**
+   * What to do with a new trade once the tape is full.
+   */
+  public enum OverflowPolicy {
+    /** Overwrite the oldest trade; cursors that fall behind skip ahead. */
+    OVERWRITE_OLDEST,
+    /** Keep the retained trades and count the new trade as dropped. */
+    DROP_NEWEST
+  }
+
+  public static final int DEFAULT_CAPACITY = 65536;
+
+  // Record layout: buyOrderId, sellOrderId, shares, price (int), timestamp, sequence (long)
+  private static final int BUY_ORDER_ID = 0;
+  private static final int SELL_ORDER_ID = 4;
+  private static final int SHARES = 8;
+  private static final int PRICE = 12;
+  private static final int TIMESTAMP = 16;
+  private static final int SEQUENCE = 24;
+  private static final int RECORD_SIZE = 32;
+
+  private final ByteBuffer buffer;
+  private final int capacity;
+  private final OverflowPolicy overflowPolicy;
+  private long lastSequence; // Sequence of the newest retained trade, 0 if empty
+  private long firstSequence = 1; // Sequence of the oldest retained trade
+  private long droppedCount;
+
+  public TradeTape(int capacity, OverflowPolicy overflowPolicy) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Trade tape capacity must be positive");
+    }
+    long bytes = (long) capacity * RECORD_SIZE;
+    if (bytes > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Trade tape capacity must not exceed "
+          + Integer.MAX_VALUE / RECORD_SIZE + " trades");
+    }
+    this.capacity = capacity;
+    this.overflowPolicy = overflowPolicy;
+    this.buffer = ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder());
+  }
+
+  /**
+   * Appends a trade to the tape.
+   *
+   * @param trade The executed trade.
+   * @return The sequence number of the trade, or -1 if it was dropped.
+   */
+  public long append(Trade trade) {
+    if (size() == capacity) {
+      if (overflowPolicy == OverflowPolicy.DROP_NEWEST) {
+        droppedCount++;
+        return -1;
+      }
+      firstSequence++;
+    }
+
+    long sequence = ++lastSequence;
+    int offset = offsetOf(sequence);
+    buffer.putInt(offset + BUY_ORDER_ID, trade.getBuyOrderId());
+    buffer.putInt(offset + SELL_ORDER_ID, trade.getSellOrderId());
+    buffer.putInt(offset + SHARES, trade.getSharesTraded());
+    buffer.putInt(offset + PRICE, trade.getTradePrice());
+    buffer.putLong(offset + TIMESTAMP, trade.getTimestamp());
+    buffer.putLong(offset + SEQUENCE, sequence);
+    return sequence;
+  }
+
+  /**
+   * Opens a cursor positioned before the given sequence. Sequences older than
+   * the tape retains start at the oldest retained trade.
+   *
+   * @param fromSequence The first sequence to read.
+   * @return A cursor over the tape.
+   */
+  public Cursor cursor(long fromSequence) {
+    return new Cursor(fromSequence);
+  }
+
+  /**
+   * Copies up to {@code limit} trades starting at a sequence into Trade objects.
+   *
+   * @param fromSequence The first sequence to read.
+   * @param limit        The maximum number of trades to return.
+   * @return The trades, oldest first.
+   */
+  public List<Trade> read(long fromSequence, int limit) {
+    List<Trade> trades = new ArrayList<>();
+    Cursor cursor = cursor(fromSequence);
+    while (trades.size() < limit && cursor.next()) {
+      trades.add(cursor.toTrade());
+    }
+    return trades;
+  }
+
+  public long getFirstSequence() {
+    return firstSequence;
+  }
+
+  public long getLastSequence() {
+    return lastSequence;
+  }
+
+  public int size() {
+    return (int) (lastSequence - firstSequence + 1);
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  public OverflowPolicy getOverflowPolicy() {
+    return overflowPolicy;
+  }
+
+  public long getDroppedCount() {
+    return droppedCount;
+  }
+
+  private int offsetOf(long sequence) {
+    return (int) ((sequence - 1) % capacity) * RECORD_SIZE;
+  }
+
+  /**
+   * Flyweight reader over the tape. {@link #next()} advances to the next
+   * trade, after which the getters read the current record in place.
+   */
+  public class Cursor {
+    private long nextSequence;
+    private int offset = -1;
+    private long skipped;
+
+    private Cursor(long fromSequence) {
+      this.nextSequence = Math.max(fromSequence, 1);
+    }
+
+    /**
+     * Advances to the next trade.
+     *
+     * @return False if the cursor has caught up with the tape.
+     */
+    public boolean next() {
+      if (nextSequence < firstSequence) {
+        // Overwritten before it was read; continue at the oldest retained trade
+        skipped += firstSequence - nextSequence;
+        nextSequence = firstSequence;
+      }
+      if (nextSequence > lastSequence) {
+        return false;
+      }
+      offset = offsetOf(nextSequence++);
+      return true;
+    }
+
+    /**
+     * Returns the sequence to resume from with {@link TradeTape#cursor(long)}.
+     */
+    public long getNextSequence() {
+      return nextSequence;
+    }
+
+    /**
+     * Returns the number of trades overwritten before this cursor reached them.
+     */
+    public long getSkipped() {
+      return skipped;
+    }
+
+    public long getSequence() {
+      return buffer.getLong(offset + SEQUENCE);
+    }
+
+    public int getBuyOrderId() {
+      return buffer.getInt(offset + BUY_ORDER_ID);
+    }
+
+    public int getSellOrderId() {
+      return buffer.getInt(offset + SELL_ORDER_ID);
+    }
+
+    public int getSharesTraded() {
+      return buffer.getInt(offset + SHARES);
+    }
+
+    public int getTradePrice() {
+      return buffer.getInt(offset + PRICE);
+    }
+
+    public long getTimestamp() {
+      return buffer.getLong(offset + TIMESTAMP);
+    }
+
+    public Trade toTrade() {
+      return new Trade(getBuyOrderId(), getSellOrderId(), getSharesTraded(), getTradePrice(), getTimestamp());
+    }
+  }
+}
@@ -3,7 +3,9 @@ package com.pga.jasdaq.orderbook;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
 
 import org.springframework.stereotype.Service;
@@ -22,6 +24,10 @@ public class Book implements IBook {
   Limit lowestSell;
   private int currentPrice = 0; // Initialize currentPrice
 
+  // Price levels touched since the last drainLevelChanges() call
+  private final Set<Integer> changedBuyLevels = new LinkedHashSet<>();
+  private final Set<Integer> changedSellLevels = new LinkedHashSet<>();
+
   public void addOrder(Order order) {
     long startTime = System.nanoTime();
 
@@ -38,6 +44,7 @@ public class Book implements IBook {
 
     // Add the order to the limit
     limit.addOrder(order);
+    markLevelChanged(order.isBuy, order.limit);
 
     // Update best prices
     updateBestPrices(order);
@@ -51,6 +58,7 @@ public class Book implements IBook {
     if (order != null) {
       Limit limit = order.parentLimit;
       limit.removeOrder(order);
+      markLevelChanged(order.isBuy, limit.limitPrice);
 
       // If the limit is now empty, remove it from both TreeMap and HashMap
       if (limit.size == 0) {
@@ -62,11 +70,20 @@ public class Book implements IBook {
     }
   }
 
+  public boolean hasOrder(int orderId) {
+    return orders.containsKey(orderId);
+  }
+
+  public Order getOrder(int orderId) {
+    return orders.get(orderId);
+  }
+
   public void executeOrder(int orderId, int sharesToExecute) {
     Order order = orders.get(orderId);
     if (order != null) {
       order.shares -= sharesToExecute;
       order.parentLimit.totalVolume -= sharesToExecute;
+      markLevelChanged(order.isBuy, order.parentLimit.limitPrice);
 
       if (order.shares <= 0) {
         removeOrder(orderId); // Fully executed, remove order
@@ -206,6 +223,49 @@ public class Book implements IBook {
     return sellLimits.firstKey() - buyLimits.firstKey();
   }
 
+  public int getBestBidSize() {
+    return buyLimits.isEmpty() ? 0 : buyLimits.firstEntry().getValue().totalVolume;
+  }
+
+  public int getBestOfferSize() {
+    return sellLimits.isEmpty() ? 0 : sellLimits.firstEntry().getValue().totalVolume;
+  }
+
+  public List<PriceLevel> getDepth(boolean isBuy, int maxLevels) {
+    TreeMap<Integer, Limit> limitTree = isBuy ? buyLimits : sellLimits;
+    List<PriceLevel> levels = new ArrayList<>(Math.min(maxLevels, limitTree.size()));
+    for (Limit limit : limitTree.values()) {
+      if (levels.size() >= maxLevels) {
+        break;
+      }
+      levels.add(new PriceLevel(isBuy, limit.limitPrice, limit.totalVolume));
+    }
+    return levels;
+  }
+
+  public List<PriceLevel> drainLevelChanges() {
+    List<PriceLevel> changes = new ArrayList<>(changedBuyLevels.size() + changedSellLevels.size());
+    for (int price : changedBuyLevels) {
+      Limit limit = buyLimits.get(price);
+      changes.add(new PriceLevel(true, price, limit == null ? 0 : limit.totalVolume));
+    }
+    for (int price : changedSellLevels) {
+      Limit limit = sellLimits.get(price);
+      changes.add(new PriceLevel(false, price, limit == null ? 0 : limit.totalVolume));
+    }
+    changedBuyLevels.clear();
+    changedSellLevels.clear();
+    return changes;
+  }
+
+  private void markLevelChanged(boolean isBuy, int price) {
+    if (isBuy) {
+      changedBuyLevels.add(price);
+    } else {
+      changedSellLevels.add(price);
+    }
+  }
+
   private void updateBestPrices(Order order) {
     if (order.isBuy) {
       highestBuy = buyLimits.isEmpty() ? null : buyLimits.firstEntry().getValue();
@@ -11,6 +11,22 @@ public interface IBook {
    */
   void removeOrder(int orderId);
 
+  /**
+   * Checks whether an order is resting in the book.
+   *
+   * @param orderId The ID of the order.
+   * @return True if the order has unfilled shares in the book.
+   */
+  boolean hasOrder(int orderId);
+
+  /**
+   * Looks up a resting order.
+   *
+   * @param orderId The ID of the order.
+   * @return The order, or null if it is not resting in the book.
+   */
+  Order getOrder(int orderId);
+
   /**
    * Places an incoming limit order after matching against existing orders in the
    * book.
@@ -70,4 +86,35 @@ public interface IBook {
    * @return The current price, or -1 if no trades have been executed.
    */
   int getCurrentPrice();
+
+  /**
+   * Retrieves the resting volume at the best bid.
+   *
+   * @return The volume at the best bid, or 0 if no bids are available.
+   */
+  int getBestBidSize();
+
+  /**
+   * Retrieves the resting volume at the best offer.
+   *
+   * @return The volume at the best offer, or 0 if no offers are available.
+   */
+  int getBestOfferSize();
+
+  /**
+   * Retrieves the aggregated price levels of one side of the book, best first.
+   *
+   * @param isBuy     True for the bid side, false for the offer side.
+   * @param maxLevels The maximum number of levels to return.
+   * @return The price levels, best price first.
+   */
+  List<PriceLevel> getDepth(boolean isBuy, int maxLevels);
+
+  /**
+   * Returns the price levels changed since the previous call and resets the
+   * tracking. Removed levels are reported with a volume of 0.
+   *
+   * @return The changed price levels with their current volume.
+   */
+  List<PriceLevel> drainLevelChanges();
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.pga.jasdaq.orderbook;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.time.Instant;
 
@@ -12,6 +13,8 @@ public class Order {
   public int limit; // Ignored for market orders
   public long entryTime;
   public long eventTime;
+  public TimeInForce timeInForce = TimeInForce.GTC;
+  public long expireTime; // Epoch milliseconds, 0 for orders that do not expire
   public Order nextOrder;
   public Order prevOrder;
   public Limit parentLimit;
@@ -113,7 +116,26 @@ public class Order {
     this.eventTime = eventTime;
   }
 
-  @JsonProperty("nextOrder")
+  @JsonProperty("timeInForce")
+  public TimeInForce getTimeInForce() {
+    return timeInForce;
+  }
+
+  public void setTimeInForce(TimeInForce timeInForce) {
+    this.timeInForce = timeInForce;
+  }
+
+  @JsonProperty("expireTime")
+  public long getExpireTime() {
+    return expireTime;
+  }
+
+  public void setExpireTime(long expireTime) {
+    this.expireTime = expireTime;
+  }
+
+  // Book links; serializing them would walk the whole price level
+  @JsonIgnore
   public Order getNextOrder() {
     return nextOrder;
   }
@@ -122,7 +144,7 @@ public class Order {
     this.nextOrder = nextOrder;
   }
 
-  @JsonProperty("prevOrder")
+  @JsonIgnore
   public Order getPrevOrder() {
     return prevOrder;
   }
@@ -131,7 +153,7 @@ public class Order {
     this.prevOrder = prevOrder;
   }
 
-  @JsonProperty("parentLimit")
+  @JsonIgnore
   public Limit getParentLimit() {
     return parentLimit;
   }
@@ -143,12 +165,13 @@ public class Order {
   @Override
   public String toString() {
     return String.format(
-        "Order{id=%d, type=%s, side=%s, shares=%d, limit=%d, entryTime=%d}",
+        "Order{id=%d, type=%s, side=%s, shares=%d, limit=%d, tif=%s, entryTime=%d}",
         idNumber,
         isMarketOrder ? "MARKET" : "LIMIT",
         isBuy ? "BUY" : "SELL",
         shares,
         limit,
+        timeInForce,
         entryTime);
   }
 }
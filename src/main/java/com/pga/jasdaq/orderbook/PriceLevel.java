@@ -0,0 +1,34 @@
+package com.pga.jasdaq.orderbook;
+
+/**
+ * Aggregated view of a single price level on one side of the book.
+ * A volume of 0 means the level no longer exists.
+ */
+public class PriceLevel {
+  private final boolean isBuy;
+  private final int price;
+  private final int volume;
+
+  public PriceLevel(boolean isBuy, int price, int volume) {
+    this.isBuy = isBuy;
+    this.price = price;
+    this.volume = volume;
+  }
+
+  public boolean isBuy() {
+    return isBuy;
+  }
+
+  public int getPrice() {
+    return price;
+  }
+
+  public int getVolume() {
+    return volume;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("PriceLevel{side=%s, price=%d, volume=%d}", isBuy ? "BUY" : "SELL", price, volume);
+  }
+}
@@ -0,0 +1,13 @@
+package com.pga.jasdaq.orderbook;
+
+/**
+ * How long the unfilled part of a limit order rests in the book.
+ */
+public enum TimeInForce {
+  /** Until the close of the trading session it was entered in. */
+  DAY,
+  /** Until the order's expire time. */
+  GTD,
+  /** Until cancelled. */
+  GTC
+}
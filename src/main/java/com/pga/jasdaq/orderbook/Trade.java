@@ -17,6 +17,14 @@ public class Trade {
     this.timestamp = Instant.now().toEpochMilli(); // Set trade execution time
   }
 
+  public Trade(int buyOrderId, int sellOrderId, int sharesTraded, int tradePrice, long timestamp) {
+    this.buyOrderId = buyOrderId;
+    this.sellOrderId = sellOrderId;
+    this.sharesTraded = sharesTraded;
+    this.tradePrice = tradePrice;
+    this.timestamp = timestamp;
+  }
+
   public int getTradePrice() {
     return tradePrice;
   }
@@ -33,6 +41,10 @@ public class Trade {
     return sellOrderId;
   }
 
+  public long getTimestamp() {
+    return timestamp;
+  }
+
   @Override
   public String toString() {
     return String.format("Trade{buyOrderId=%d, sellOrderId=%d, shares=%d, price=%d, timestamp=%d}",
@@ -0,0 +1,29 @@
+package com.pga.jasdaq.utils;
+
+import java.util.Map;
+
+/**
+ * Source of book snapshots used to bootstrap new WebSocket subscribers.
+ */
+public interface MarketDataSnapshotProvider {
+
+  /**
+   * Runs an action while no market data updates for the symbol can be
+   * published, so that a snapshot and the subscription it bootstraps are
+   * consistent with the following deltas.
+   *
+   * @param stockSymbol The symbol to lock.
+   * @param action      The action to run.
+   */
+  void runExclusive(String stockSymbol, Runnable action);
+
+  /**
+   * Builds the snapshot payload for a channel of a symbol. Only called from
+   * within {@link #runExclusive(String, Runnable)}.
+   *
+   * @param stockSymbol The symbol of the stock.
+   * @param channel     The channel being subscribed to.
+   * @return The snapshot fields, without type or sequence information.
+   */
+  Map<String, Object> snapshot(String stockSymbol, String channel);
+}
@@ -1,49 +1,223 @@
 package com.pga.jasdaq.utils;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
 
-// import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Publishes market data to WebSocket clients over per-topic subscriptions.
+ *
+ * Clients send {@code SUBSCRIBE <symbol> <channel>} or
+ * {@code UNSUBSCRIBE <symbol> <channel>} text frames. A new subscriber first
+ * receives a snapshot tagged with the topic sequence number and then every
+ * delta with the next sequence numbers, so gaps can be detected client side.
+ */
 public class WebSocketHandler extends TextWebSocketHandler {
-  // Thread-safe list to store active WebSocket sessions
-  private final List<WebSocketSession> sessions = new ArrayList<>();
+
+  private static final Logger logger = LoggerFactory.getLogger(WebSocketHandler.class);
+
+  public static final String CHANNEL_TRADES = "trades";
+  public static final String CHANNEL_TOP = "top";
+  public static final String CHANNEL_DEPTH = "depth";
+  public static final String CHANNEL_TICKER = "ticker";
+  public static final String CHANNEL_CANDLES = "candles";
+  private static final Set<String> CHANNELS = Set.of(
+      CHANNEL_TRADES, CHANNEL_TOP, CHANNEL_DEPTH, CHANNEL_TICKER, CHANNEL_CANDLES);
+
+  private static final int SEND_TIME_LIMIT_MS = 1000;
+  private static final int SEND_BUFFER_LIMIT_BYTES = 512 * 1024;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  // Topic key ("SYMBOL:channel") to its subscribers
+  private final Map<String, Topic> topics = new ConcurrentHashMap<>();
+  // Session id to the thread-safe session wrapper and its topics
+  private final Map<String, Subscriber> subscribers = new ConcurrentHashMap<>();
+  private volatile MarketDataSnapshotProvider snapshotProvider;
+
+  public void setSnapshotProvider(MarketDataSnapshotProvider snapshotProvider) {
+    this.snapshotProvider = snapshotProvider;
+  }
 
   @Override
   public void afterConnectionEstablished(WebSocketSession session) throws Exception {
-    // Add the session to the list
-    System.out.println("sessions list 1: " + sessions);
-    sessions.add(session);
-    System.out.println("sessions list 2: " + sessions);
-    // Send a welcome message with the current count
-    session.sendMessage(new TextMessage("WELCOME"));
+    Subscriber subscriber = new Subscriber(
+        new ConcurrentWebSocketSessionDecorator(session, SEND_TIME_LIMIT_MS, SEND_BUFFER_LIMIT_BYTES));
+    subscribers.put(session.getId(), subscriber);
+    subscriber.session.sendMessage(new TextMessage("WELCOME"));
+  }
+
+  @Override
+  public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
+    Subscriber subscriber = subscribers.remove(session.getId());
+    if (subscriber != null) {
+      for (String topicKey : subscriber.topics) {
+        Topic topic = topics.get(topicKey);
+        if (topic != null) {
+          topic.sessions.remove(subscriber.session);
+        }
+      }
+    }
   }
 
   @Override
-  public void afterConnectionClosed(WebSocketSession session, org.springframework.web.socket.CloseStatus status)
-      throws Exception {
-    // Remove the session when it's closed
-    sessions.remove(session);
+  protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+    Subscriber subscriber = subscribers.get(session.getId());
+    if (subscriber == null) {
+      return;
+    }
+
+    String[] parts = message.getPayload().trim().split("\\s+");
+    if (parts.length != 3) {
+      sendError(subscriber, "Expected: SUBSCRIBE|UNSUBSCRIBE <symbol> <channel>");
+      return;
+    }
+
+    String action = parts[0].toUpperCase();
+    String stockSymbol = parts[1].toUpperCase();
+    String channel = parts[2].toLowerCase();
+    if (!CHANNELS.contains(channel)) {
+      sendError(subscriber, "Unknown channel: " + channel);
+      return;
+    }
+
+    switch (action) {
+      case "SUBSCRIBE" -> subscribe(subscriber, stockSymbol, channel);
+      case "UNSUBSCRIBE" -> unsubscribe(subscriber, stockSymbol, channel);
+      default -> sendError(subscriber, "Unknown action: " + action);
+    }
+  }
+
+  /**
+   * Checks whether a topic currently has subscribers, so publishers can skip
+   * building payloads nobody receives.
+   */
+  public boolean hasSubscribers(String stockSymbol, String channel) {
+    Topic topic = topics.get(topicKey(stockSymbol, channel));
+    return topic != null && !topic.sessions.isEmpty();
   }
 
-  public void sendToBroadcast(String stockSymbol, int price) {
-    broadcastToClients(stockSymbol + " " + price);
+  /**
+   * Publishes a delta to the subscribers of a topic. Callers must publish
+   * under the same exclusion used by {@link MarketDataSnapshotProvider#runExclusive}.
+   *
+   * @param stockSymbol The symbol of the stock.
+   * @param channel     The channel of the update.
+   * @param payload     The update fields.
+   */
+  public void publish(String stockSymbol, String channel, Map<String, Object> payload) {
+    Topic topic = topics.get(topicKey(stockSymbol, channel));
+    if (topic == null || topic.sessions.isEmpty()) {
+      return;
+    }
+
+    TextMessage message = toMessage(channel, stockSymbol, channel, topic.sequence.incrementAndGet(), payload);
+    if (message == null) {
+      return;
+    }
+    for (WebSocketSession session : topic.sessions) {
+      send(session, message);
+    }
   }
 
-  private void broadcastToClients(String message) {
-    System.out.println("Sessions: " + sessions);
-    for (WebSocketSession session : sessions) {
-      try {
-        if (session.isOpen()) { // Check if the session is still open
-          session.sendMessage(new TextMessage(message));
+  private void subscribe(Subscriber subscriber, String stockSymbol, String channel) {
+    MarketDataSnapshotProvider provider = snapshotProvider;
+    if (provider == null) {
+      sendError(subscriber, "Market data is not available yet");
+      return;
+    }
+
+    String topicKey = topicKey(stockSymbol, channel);
+    try {
+      provider.runExclusive(stockSymbol, () -> {
+        Topic topic = topics.computeIfAbsent(topicKey, key -> new Topic());
+        TextMessage snapshot = toMessage("snapshot", stockSymbol, channel, topic.sequence.get(),
+            provider.snapshot(stockSymbol, channel));
+        if (snapshot != null && send(subscriber.session, snapshot)) {
+          topic.sessions.add(subscriber.session);
+          subscriber.topics.add(topicKey);
         }
-      } catch (Exception e) {
-        System.out.println("Exception in broadcastToClients");
-        e.printStackTrace();
+      });
+    } catch (IllegalArgumentException e) {
+      sendError(subscriber, e.getMessage());
+    }
+  }
+
+  private void unsubscribe(Subscriber subscriber, String stockSymbol, String channel) {
+    String topicKey = topicKey(stockSymbol, channel);
+    Topic topic = topics.get(topicKey);
+    if (topic != null) {
+      topic.sessions.remove(subscriber.session);
+    }
+    subscriber.topics.remove(topicKey);
+  }
+
+  private TextMessage toMessage(String type, String stockSymbol, String channel, long sequence,
+      Map<String, Object> payload) {
+    Map<String, Object> frame = new LinkedHashMap<>();
+    frame.put("type", type);
+    frame.put("symbol", stockSymbol);
+    frame.put("channel", channel);
+    frame.put("seq", sequence);
+    frame.putAll(payload);
+    try {
+      return new TextMessage(objectMapper.writeValueAsString(frame));
+    } catch (JsonProcessingException e) {
+      logger.error("Failed to serialize {} frame for {}", type, stockSymbol, e);
+      return null;
+    }
+  }
+
+  private void sendError(Subscriber subscriber, String error) {
+    Map<String, Object> frame = new LinkedHashMap<>();
+    frame.put("type", "error");
+    frame.put("message", error);
+    try {
+      send(subscriber.session, new TextMessage(objectMapper.writeValueAsString(frame)));
+    } catch (JsonProcessingException e) {
+      logger.error("Failed to serialize error frame", e);
+    }
+  }
+
+  private boolean send(WebSocketSession session, TextMessage message) {
+    try {
+      if (session.isOpen()) { // Check if the session is still open
+        session.sendMessage(message);
+        return true;
       }
+    } catch (Exception e) {
+      logger.warn("Failed to send to WebSocket session {}: {}", session.getId(), e.getMessage());
+    }
+    return false;
+  }
+
+  private static String topicKey(String stockSymbol, String channel) {
+    return stockSymbol + ":" + channel;
+  }
+
+  private static class Topic {
+    private final Set<WebSocketSession> sessions = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequence = new AtomicLong();
+  }
+
+  private static class Subscriber {
+    private final WebSocketSession session;
+    private final Set<String> topics = ConcurrentHashMap.newKeySet();
+
+    private Subscriber(WebSocketSession session) {
+      this.session = session;
     }
   }
 }
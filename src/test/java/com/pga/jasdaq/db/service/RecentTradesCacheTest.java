@@ -0,0 +1,114 @@
+package com.pga.jasdaq.db.service;
+
+import com.pga.jasdaq.db.entity.TradeView;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RecentTradesCacheTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 2, 9, 30);
+
+    @Test
+    void warmRingIsServedWithoutReloading() {
+        RecentTradesCache cache = new RecentTradesCache(3);
+        AtomicInteger loads = new AtomicInteger();
+        List<TradeView> stored = List.of(trade(2, 2), trade(1, 1));
+
+        assertEquals(2, cache.latest("AAPL", 3, () -> load(loads, stored)).size());
+        cache.add(trade(3, 3));
+        cache.add(trade(4, 4));
+
+        List<TradeView> latest = cache.latest("AAPL", 3, () -> load(loads, stored));
+        assertEquals(1, loads.get());
+        assertEquals(List.of(4L, 3L, 2L), ids(latest));
+    }
+
+    @Test
+    void invalidateReloadsOnNextRead() {
+        RecentTradesCache cache = new RecentTradesCache(3);
+        AtomicInteger loads = new AtomicInteger();
+        cache.latest("AAPL", 3, () -> load(loads, List.of(trade(1, 1))));
+
+        cache.invalidate("AAPL");
+        List<TradeView> latest = cache.latest("AAPL", 3, () -> load(loads, List.of(trade(5, 5), trade(1, 1))));
+        assertEquals(2, loads.get());
+        assertEquals(List.of(5L, 1L), ids(latest));
+
+        cache.invalidateAll();
+        cache.latest("AAPL", 3, () -> load(loads, List.of()));
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void outOfOrderTradeInvalidatesTheRing() {
+        RecentTradesCache cache = new RecentTradesCache(3);
+        AtomicInteger loads = new AtomicInteger();
+        cache.latest("AAPL", 3, () -> load(loads, List.of(trade(5, 5))));
+
+        // Older than the newest cached trade, so it cannot simply be pushed
+        cache.add(trade(6, 1));
+        List<TradeView> latest = cache.latest("AAPL", 3, () -> load(loads, List.of(trade(5, 5), trade(6, 1))));
+        assertEquals(2, loads.get());
+        assertEquals(List.of(5L, 6L), ids(latest));
+    }
+
+    @Test
+    void writeDuringLoadDiscardsTheLoadedRing() {
+        RecentTradesCache cache = new RecentTradesCache(3);
+        AtomicInteger loads = new AtomicInteger();
+
+        // The loaded rows predate a trade written while loading; they must not be installed
+        cache.latest("AAPL", 3, () -> {
+            cache.add(trade(2, 2));
+            return load(loads, List.of(trade(1, 1)));
+        });
+        List<TradeView> latest = cache.latest("AAPL", 3, () -> load(loads, List.of(trade(2, 2), trade(1, 1))));
+        assertEquals(2, loads.get());
+        assertEquals(List.of(2L, 1L), ids(latest));
+    }
+
+    @Test
+    void tradeAlreadyLoadedIsNotPushedAgain() {
+        RecentTradesCache cache = new RecentTradesCache(3);
+        AtomicInteger loads = new AtomicInteger();
+
+        // Loaded after the trade committed but before its write-through arrived
+        cache.latest("AAPL", 3, () -> load(loads, List.of(trade(2, 2), trade(1, 1))));
+        cache.add(trade(2, 2));
+
+        List<TradeView> latest = cache.latest("AAPL", 3, () -> load(loads, List.of()));
+        assertEquals(1, loads.get());
+        assertEquals(List.of(2L, 1L), ids(latest));
+    }
+
+    @Test
+    void negativeCountIsRejected() {
+        RecentTradesCache cache = new RecentTradesCache(3);
+        assertThrows(IllegalArgumentException.class, () -> cache.latest("AAPL", -1, List::of));
+    }
+
+    private static List<TradeView> load(AtomicInteger loads, List<TradeView> trades) {
+        loads.incrementAndGet();
+        return trades;
+    }
+
+    private static TradeView trade(long id, int second) {
+        return new TradeView(id, "AAPL", BigDecimal.valueOf(10_000, 2), 100, START.plusSeconds(second), "BUY");
+    }
+
+    private static List<Long> ids(List<TradeView> trades) {
+        List<Long> ids = new ArrayList<>();
+        for (TradeView trade : trades) {
+            ids.add(trade.getId());
+        }
+        return ids;
+    }
+}
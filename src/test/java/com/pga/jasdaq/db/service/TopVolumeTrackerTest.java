@@ -0,0 +1,80 @@
+package com.pga.jasdaq.db.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TopVolumeTrackerTest {
+
+    private static final long START = 1_700_000_000L;
+
+    @Test
+    void ranksSymbolsByVolumeWithinEachWindow() {
+        TopVolumeTracker tracker = new TopVolumeTracker(new int[] {1, 5}, 100);
+        tracker.record("AAPL", 100, START);
+        tracker.record("TSLA", 300, START + 120);
+        tracker.record("AAPL", 50, START + 130);
+
+        List<Map<String, Object>> lastMinute = tracker.top(1, 10, START + 130);
+        assertEquals(2, lastMinute.size());
+        assertEquals("TSLA", lastMinute.get(0).get("symbol"));
+        assertEquals(300L, lastMinute.get(0).get("totalVolume"));
+        assertEquals("AAPL", lastMinute.get(1).get("symbol"));
+        assertEquals(50L, lastMinute.get(1).get("totalVolume"));
+
+        List<Map<String, Object>> lastFiveMinutes = tracker.top(5, 1, START + 130);
+        assertEquals(1, lastFiveMinutes.size());
+        assertEquals("TSLA", lastFiveMinutes.get(0).get("symbol"));
+        assertEquals(150L, tracker.top(5, 2, START + 130).get(1).get("totalVolume"));
+    }
+
+    @Test
+    void bucketsSlideOutOfTheWindow() {
+        TopVolumeTracker tracker = new TopVolumeTracker(new int[] {1}, 100);
+        tracker.record("AAPL", 100, START);
+        tracker.record("TSLA", 10, START + 30);
+
+        assertEquals("AAPL", tracker.top(1, 1, START + 59).get(0).get("symbol"));
+        // AAPL's second has left the window, TSLA's has not
+        List<Map<String, Object>> top = tracker.top(1, 10, START + 60);
+        assertEquals(1, top.size());
+        assertEquals("TSLA", top.get(0).get("symbol"));
+        assertTrue(tracker.top(1, 10, START + 90).isEmpty());
+    }
+
+    @Test
+    void overflowIsApproximateUntilItSlidesOut() {
+        TopVolumeTracker tracker = new TopVolumeTracker(new int[] {1}, 2);
+        tracker.record("AAPL", 500, START);
+        tracker.record("TSLA", 300, START);
+        tracker.record("MSFT", 1, START + 1);
+
+        List<Map<String, Object>> approximate = tracker.top(1, 1, START + 1);
+        assertEquals("AAPL", approximate.get(0).get("symbol"));
+        assertEquals(true, approximate.get(0).get("approximate"));
+
+        // The overflowing second has left the window, so the totals are exact again
+        tracker.record("MSFT", 1, START + 61);
+        List<Map<String, Object>> exact = tracker.top(1, 10, START + 61);
+        assertEquals(1, exact.size());
+        assertEquals("MSFT", exact.get(0).get("symbol"));
+        assertEquals(1L, exact.get(0).get("totalVolume"));
+        assertEquals(false, exact.get(0).get("approximate"));
+    }
+
+    @Test
+    void untrackedWindowIsRejected() {
+        TopVolumeTracker tracker = new TopVolumeTracker(new int[] {1, 5}, 100);
+        tracker.markPrimed();
+
+        assertTrue(tracker.covers(5));
+        assertFalse(tracker.covers(15));
+        assertThrows(IllegalArgumentException.class, () -> tracker.top(15, 5, START));
+    }
+}
@@ -0,0 +1,100 @@
+package com.pga.jasdaq.db.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TradeOutboxTest {
+
+    private static final int RECORD_SIZE = 64;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recordsSurviveReopening() {
+        TradeOutbox outbox = open();
+        outbox.append("AAPL", 10_500, 100, 1_000L, 1, 2, true);
+        outbox.append("TSLA", 20_000, 50, 2_000L, 3, 4, false);
+        outbox.close();
+
+        TradeOutbox reopened = open();
+        assertEquals(2, reopened.getLastSequence());
+        List<TradeOutbox.Entry> entries = reopened.read(0, 10);
+        assertEquals(2, entries.size());
+        assertEquals("AAPL", entries.get(0).getSymbol());
+        assertEquals(10_500, entries.get(0).getPrice());
+        assertEquals(100, entries.get(0).getShares());
+        assertEquals(1_000L, entries.get(0).getTimestamp());
+        assertTrue(entries.get(0).isBuy());
+        assertEquals("TSLA", entries.get(1).getSymbol());
+        assertFalse(entries.get(1).isBuy());
+        assertEquals(3, reopened.append("MSFT", 30_000, 10, 3_000L, 5, 6, true));
+    }
+
+    @Test
+    void tornRecordIsDiscardedOnRecovery() throws IOException {
+        TradeOutbox outbox = open();
+        outbox.append("AAPL", 10_500, 100, 1_000L, 1, 2, true);
+        outbox.append("AAPL", 10_600, 100, 2_000L, 3, 4, true);
+        outbox.append("AAPL", 10_700, 100, 3_000L, 5, 6, true);
+        outbox.close();
+
+        // A crash after the fields but before the commit marker of the third record
+        Path segment;
+        try (var files = Files.list(directory)) {
+            segment = files.filter(file -> file.getFileName().toString().endsWith(".outbox")).findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Long.BYTES).order(ByteOrder.nativeOrder()).putLong(0, 0), 2 * RECORD_SIZE);
+        }
+
+        TradeOutbox recovered = open();
+        assertEquals(2, recovered.getLastSequence());
+        assertEquals(2, recovered.read(0, 10).size());
+        // The torn slot is reused by the next trade
+        assertEquals(3, recovered.append("AAPL", 10_800, 100, 4_000L, 7, 8, true));
+        assertEquals(10_800, recovered.read(2, 10).get(0).getPrice());
+    }
+
+    @Test
+    void relayedSegmentsAreDeleted() throws IOException {
+        TradeOutbox outbox = new TradeOutbox(true, directory.toString(), 2, false);
+        for (int i = 0; i < 5; i++) {
+            outbox.append("AAPL", 10_000 + i, 100, 1_000L + i, i, i, true);
+        }
+        assertEquals(3, countSegments());
+
+        outbox.markRelayed(4);
+        assertEquals(4, outbox.getRelayedSequence());
+        assertEquals(1, countSegments());
+        assertEquals(List.of(5L), outbox.read(4, 10).stream().map(TradeOutbox.Entry::getSequence).toList());
+        outbox.close();
+
+        TradeOutbox reopened = new TradeOutbox(true, directory.toString(), 2, false);
+        assertEquals(5, reopened.getLastSequence());
+        assertEquals(4, reopened.getRelayedSequence());
+    }
+
+    private TradeOutbox open() {
+        return new TradeOutbox(true, directory.toString(), 16, false);
+    }
+
+    private long countSegments() throws IOException {
+        try (var files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".outbox")).count();
+        }
+    }
+}
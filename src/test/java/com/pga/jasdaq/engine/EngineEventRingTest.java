@@ -0,0 +1,102 @@
+package com.pga.jasdaq.engine;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EngineEventRingTest {
+
+  private EngineEventRing ring;
+
+  @AfterEach
+  void shutdown() throws InterruptedException {
+    if (ring != null) {
+      ring.shutdown();
+    }
+  }
+
+  @Test
+  void everyConsumerSeesEventsInOrderAcrossWraps() throws InterruptedException {
+    ring = new EngineEventRing(4);
+    List<Integer> first = new CopyOnWriteArrayList<>();
+    List<Integer> second = new CopyOnWriteArrayList<>();
+    CountDownLatch done = new CountDownLatch(2);
+    ring.addConsumer("first", collector(first, 10, done));
+    ring.addConsumer("second", collector(second, 10, done));
+
+    // A batch larger than the ring, then single events past several laps
+    ring.publish(6, (event, index) -> fill(event, index + 1));
+    for (int orderId = 7; orderId <= 10; orderId++) {
+      int id = orderId;
+      ring.publish(1, (event, index) -> fill(event, id));
+    }
+
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+    List<Integer> expected = IntStream.rangeClosed(1, 10).boxed().toList();
+    assertEquals(expected, first);
+    assertEquals(expected, second);
+  }
+
+  @Test
+  void slowestConsumerHoldsBackTheProducer() throws InterruptedException {
+    ring = new EngineEventRing(4);
+    CountDownLatch consumerBlocked = new CountDownLatch(1);
+    CountDownLatch releaseConsumer = new CountDownLatch(1);
+    List<Integer> handled = new CopyOnWriteArrayList<>();
+    CountDownLatch done = new CountDownLatch(1);
+    ring.addConsumer("slow", (event, endOfBatch) -> {
+      if (handled.isEmpty()) {
+        consumerBlocked.countDown();
+        releaseConsumer.await();
+      }
+      handled.add(event.getOrderId());
+      if (handled.size() == 6) {
+        done.countDown();
+      }
+    });
+
+    ring.publish(1, (event, index) -> fill(event, 1));
+    assertTrue(consumerBlocked.await(5, TimeUnit.SECONDS));
+    CountDownLatch published = new CountDownLatch(1);
+    Thread producer = new Thread(() -> {
+      // The fifth event would overwrite the slot the consumer is still reading
+      ring.publish(5, (event, index) -> fill(event, index + 2));
+      published.countDown();
+    });
+    producer.start();
+
+    assertFalse(published.await(200, TimeUnit.MILLISECONDS));
+    releaseConsumer.countDown();
+    assertTrue(published.await(5, TimeUnit.SECONDS));
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+    assertEquals(IntStream.rangeClosed(1, 6).boxed().toList(), handled);
+  }
+
+  @Test
+  void capacityMustBeAPowerOfTwo() {
+    assertThrows(IllegalArgumentException.class, () -> new EngineEventRing(6));
+  }
+
+  private static EngineEventRing.EventHandler collector(List<Integer> orderIds, int expected, CountDownLatch done) {
+    return (event, endOfBatch) -> {
+      orderIds.add(event.getOrderId());
+      if (orderIds.size() == expected) {
+        done.countDown();
+      }
+    };
+  }
+
+  private static void fill(EngineEvent event, int orderId) {
+    event.set(EngineEvent.Type.FILLED, "TSLA", null, orderId, true, 100, 10, 0, orderId, 0, 0);
+  }
+}
@@ -0,0 +1,117 @@
+package com.pga.jasdaq.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PreTradeRiskCheckTest {
+
+  @Test
+  void fillsMoveOpenSharesIntoPositionsOnBothSides() {
+    PreTradeRiskCheck riskCheck = riskCheck(1_000, 1_000);
+    // A resting sell of 100 at 50, then a buy of 60 at 55 that fills against it
+    riskCheck.reserve("seller", "TSLA", false, 100, 50);
+    riskCheck.onEvent(event(EngineEvent.Type.ACCEPTED, "seller", 1, false, 50, 100, 100, 0, 0), true);
+    riskCheck.reserve("buyer", "TSLA", true, 60, 55);
+    riskCheck.onEvent(event(EngineEvent.Type.ACCEPTED, "buyer", 2, true, 55, 60, 0, 0, 0), false);
+    riskCheck.onEvent(event(EngineEvent.Type.FILLED, "buyer", 2, true, 50, 60, 0, 2, 1), true);
+
+    assertExposure(riskCheck, "buyer", 0, 0, 60);
+    assertExposure(riskCheck, "seller", 40, 40 * 50, -60);
+
+    riskCheck.onEvent(event(EngineEvent.Type.CANCELLED, null, 1, false, 0, 0, 0, 0, 0), true);
+    assertExposure(riskCheck, "seller", 0, 0, -60);
+  }
+
+  @Test
+  void restingOrdersOnTheSameSideCountTowardsThePositionLimit() {
+    PreTradeRiskCheck riskCheck = riskCheck(1_000, 1_000);
+    riskCheck.reserve("client", "TSLA", true, 600, 10);
+
+    assertThrows(RiskRejectedException.class, () -> riskCheck.reserve("client", "TSLA", true, 500, 10));
+    // The other side only reduces the position, as does another symbol
+    riskCheck.reserve("client", "TSLA", false, 900, 10);
+    riskCheck.reserve("client", "AAPL", true, 300, 10);
+  }
+
+  @Test
+  void rejectedOrdersDoNotUseTheRateLimit() {
+    PreTradeRiskCheck riskCheck;
+    boolean thirdRejected;
+    long second;
+    do {
+      // Repeated if the one-second rate window rolled over midway
+      second = System.currentTimeMillis() / 1000;
+      PreTradeRiskCheck attempt = riskCheck(1_000, 2);
+      assertThrows(RiskRejectedException.class, () -> attempt.reserve("client", "TSLA", true, 2_000, 10));
+      attempt.reserve("client", "TSLA", true, 10, 10);
+      attempt.reserve("client", "TSLA", true, 10, 10);
+      thirdRejected = isRejected(() -> attempt.reserve("client", "TSLA", true, 10, 10));
+      riskCheck = attempt;
+    } while (second != System.currentTimeMillis() / 1000);
+
+    assertTrue(thirdRejected);
+    assertExposure(riskCheck, "client", 20, 200, 0);
+  }
+
+  @Test
+  void releaseUndoesAReservationThatNeverReachedTheBook() {
+    PreTradeRiskCheck riskCheck = riskCheck(1_000, 1_000);
+    int reservation = riskCheck.reserve("client", "TSLA", true, 800, 10);
+    riskCheck.release(reservation, true, 800, 10);
+
+    riskCheck.reserve("client", "TSLA", true, 800, 10);
+    assertExposure(riskCheck, "client", 800, 8_000, 0);
+  }
+
+  @Test
+  void clientsBeyondTheCapacityAreRejectedEveryTime() {
+    PreTradeRiskCheck riskCheck = new PreTradeRiskCheck(true, 10_000, 1_000_000, 1_000, 1_000, 1, 4);
+    riskCheck.reserve("first", "TSLA", true, 10, 10);
+
+    assertThrows(RiskRejectedException.class, () -> riskCheck.reserve("second", "TSLA", true, 10, 10));
+    assertThrows(RiskRejectedException.class, () -> riskCheck.reserve("second", "TSLA", true, 10, 10));
+    assertNull(riskCheck.exposure("second"));
+  }
+
+  @Test
+  void ordersWithoutAReferencePriceAreRejected() {
+    PreTradeRiskCheck riskCheck = riskCheck(1_000, 1_000);
+    assertThrows(RiskRejectedException.class, () -> riskCheck.reserve("client", "TSLA", true, 10, 0));
+    assertNull(riskCheck.exposure("client"));
+  }
+
+  private static boolean isRejected(Runnable order) {
+    try {
+      order.run();
+      return false;
+    } catch (RiskRejectedException e) {
+      return true;
+    }
+  }
+
+  private static PreTradeRiskCheck riskCheck(long maxPosition, int maxOrdersPerSecond) {
+    return new PreTradeRiskCheck(true, 10_000, 1_000_000, maxPosition, maxOrdersPerSecond, 16, 4);
+  }
+
+  private static EngineEvent event(EngineEvent.Type type, String clientId, int orderId, boolean isBuy, int price,
+      int shares, int leaves, int buyOrderId, int sellOrderId) {
+    EngineEvent event = new EngineEvent();
+    event.set(type, "TSLA", clientId, orderId, isBuy, price, shares, leaves, buyOrderId, sellOrderId, 0);
+    return event;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static void assertExposure(PreTradeRiskCheck riskCheck, String clientId, long openQuantity,
+      long openNotional, long tslaPosition) {
+    Map<String, Object> exposure = riskCheck.exposure(clientId);
+    assertEquals(openQuantity, exposure.get("openQuantity"));
+    assertEquals(openNotional, exposure.get("openNotional"));
+    assertEquals((Long) tslaPosition, ((Map<String, Long>) exposure.get("positions")).get("TSLA"));
+  }
+}
@@ -0,0 +1,92 @@
+package com.pga.jasdaq.matchingengine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TimingWheelTest {
+
+  @Test
+  void itemsExpireAtTheirDeadlineInOrder() {
+    TimingWheel<String> wheel = new TimingWheel<>(1, 4, 2, 0);
+    wheel.schedule("late", 3);
+    wheel.schedule("early", 1);
+    List<String> expired = new ArrayList<>();
+
+    assertEquals(0, wheel.advance(0, expired));
+    assertEquals(1, wheel.advance(2, expired));
+    assertEquals(List.of("early"), expired);
+    assertEquals(1, wheel.advance(3, expired));
+    assertEquals(List.of("early", "late"), expired);
+    assertEquals(0, wheel.size());
+  }
+
+  @Test
+  void upperLevelsCascadeDownWithoutExpiringEarly() {
+    TimingWheel<Integer> wheel = new TimingWheel<>(1, 4, 2, 0);
+    // Beyond the first level of 4 ticks, so each starts on level 1
+    for (int deadline = 5; deadline <= 15; deadline += 2) {
+      wheel.schedule(deadline, deadline);
+    }
+    List<Integer> expired = new ArrayList<>();
+    for (long now = 1; now <= 16; now++) {
+      int before = expired.size();
+      wheel.advance(now, expired);
+      for (int i = before; i < expired.size(); i++) {
+        assertEquals(now, (long) expired.get(i));
+      }
+    }
+    assertEquals(List.of(5, 7, 9, 11, 13, 15), expired);
+  }
+
+  @Test
+  void deadlinesBeyondTheSpanAreParkedUntilDue() {
+    // Two levels of 4 buckets span 16 ticks
+    TimingWheel<String> wheel = new TimingWheel<>(1, 4, 2, 0);
+    wheel.schedule("parked", 100);
+    wheel.schedule("near", 2);
+    List<String> expired = new ArrayList<>();
+
+    wheel.advance(99, expired);
+    assertEquals(List.of("near"), expired);
+    assertEquals(1, wheel.size());
+    wheel.advance(100, expired);
+    assertEquals(List.of("near", "parked"), expired);
+  }
+
+  @Test
+  void deadlinesRoundUpToTheNextTick() {
+    TimingWheel<String> wheel = new TimingWheel<>(10, 8, 2, 1_000);
+    wheel.schedule("past", 500);
+    wheel.schedule("mid-tick", 1_015);
+    List<String> expired = new ArrayList<>();
+
+    wheel.advance(1_010, expired);
+    assertEquals(List.of("past"), expired);
+    wheel.advance(1_019, expired);
+    assertEquals(1, expired.size());
+    wheel.advance(1_020, expired);
+    assertEquals(List.of("past", "mid-tick"), expired);
+  }
+
+  @Test
+  void emptyWheelJumpsToTheTarget() {
+    TimingWheel<String> wheel = new TimingWheel<>(1, 4, 2, 0);
+    List<String> expired = new ArrayList<>();
+    wheel.advance(1_000_000, expired);
+    wheel.schedule("next", 1_000_001);
+
+    wheel.advance(1_000_001, expired);
+    assertEquals(List.of("next"), expired);
+    assertEquals(0, wheel.size());
+  }
+
+  @Test
+  void wheelSizeMustBeAPowerOfTwo() {
+    assertThrows(IllegalArgumentException.class, () -> new TimingWheel<String>(1, 6, 2, 0));
+  }
+}
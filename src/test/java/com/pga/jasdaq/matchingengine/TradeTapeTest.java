@@ -0,0 +1,88 @@
+package com.pga.jasdaq.matchingengine;
+
+import com.pga.jasdaq.orderbook.Trade;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TradeTapeTest {
+
+  @Test
+  void cursorReadsTradesInPlace() {
+    TradeTape tape = new TradeTape(4, TradeTape.OverflowPolicy.OVERWRITE_OLDEST);
+    assertEquals(1, tape.append(new Trade(1, 2, 100, 105, 1_000)));
+    assertEquals(2, tape.append(new Trade(3, 4, 50, 106, 2_000)));
+
+    TradeTape.Cursor cursor = tape.cursor(1);
+    assertTrue(cursor.next());
+    assertEquals(1, cursor.getSequence());
+    assertEquals(1, cursor.getBuyOrderId());
+    assertEquals(2, cursor.getSellOrderId());
+    assertEquals(100, cursor.getSharesTraded());
+    assertEquals(105, cursor.getTradePrice());
+    assertEquals(1_000, cursor.getTimestamp());
+    assertTrue(cursor.next());
+    assertEquals(2, cursor.getSequence());
+    assertFalse(cursor.next());
+    assertEquals(3, cursor.getNextSequence());
+  }
+
+  @Test
+  void overwriteOldestWrapsTheRing() {
+    TradeTape tape = new TradeTape(3, TradeTape.OverflowPolicy.OVERWRITE_OLDEST);
+    for (int i = 1; i <= 5; i++) {
+      tape.append(new Trade(i, i, i, 100 + i, i));
+    }
+
+    assertEquals(3, tape.size());
+    assertEquals(3, tape.getFirstSequence());
+    assertEquals(5, tape.getLastSequence());
+    assertEquals(0, tape.getDroppedCount());
+    List<Trade> trades = tape.read(1, 10);
+    assertEquals(3, trades.size());
+    assertEquals(103, trades.get(0).getTradePrice());
+    assertEquals(105, trades.get(2).getTradePrice());
+  }
+
+  @Test
+  void cursorThatFallsBehindSkipsOverwrittenTrades() {
+    TradeTape tape = new TradeTape(2, TradeTape.OverflowPolicy.OVERWRITE_OLDEST);
+    tape.append(new Trade(1, 1, 1, 101, 1));
+    TradeTape.Cursor cursor = tape.cursor(1);
+    tape.append(new Trade(2, 2, 2, 102, 2));
+    tape.append(new Trade(3, 3, 3, 103, 3));
+    tape.append(new Trade(4, 4, 4, 104, 4));
+
+    assertTrue(cursor.next());
+    assertEquals(2, cursor.getSkipped());
+    assertEquals(3, cursor.getSequence());
+    assertEquals(103, cursor.getTradePrice());
+    assertTrue(cursor.next());
+    assertEquals(4, cursor.getSequence());
+    assertFalse(cursor.next());
+  }
+
+  @Test
+  void capacityBeyondAnIntBufferIsRejected() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new TradeTape(Integer.MAX_VALUE / 16, TradeTape.OverflowPolicy.OVERWRITE_OLDEST));
+  }
+
+  @Test
+  void dropNewestKeepsTheRetainedTrades() {
+    TradeTape tape = new TradeTape(2, TradeTape.OverflowPolicy.DROP_NEWEST);
+    tape.append(new Trade(1, 1, 1, 101, 1));
+    tape.append(new Trade(2, 2, 2, 102, 2));
+
+    assertEquals(-1, tape.append(new Trade(3, 3, 3, 103, 3)));
+    assertEquals(1, tape.getDroppedCount());
+    assertEquals(1, tape.getFirstSequence());
+    assertEquals(2, tape.getLastSequence());
+    assertEquals(102, tape.read(2, 1).get(0).getTradePrice());
+  }
+}